@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.benchmarks;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.SpatialContextFactory;
+import com.spatial4j.core.distance.DistanceUtils;
+import com.spatial4j.core.shape.Circle;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.impl.RectangleImpl;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates the datasets used by the benchmarks. Everything is derived from a seeded
+ * {@link Random} so that runs are comparable with each other. The shapes are meant to resemble
+ * what a search application sees: query rectangles and circles of widely varying sizes (log
+ * distributed), some of which cross the dateline, and "country-like" polygons with many vertices.
+ */
+public class BenchmarkData {
+
+  public static final long SEED = 0x5EA7141L;
+
+  private final SpatialContext ctx;
+  private final Random random;
+
+  public BenchmarkData(SpatialContext ctx) {
+    this(ctx, SEED);
+  }
+
+  public BenchmarkData(SpatialContext ctx, long seed) {
+    this.ctx = ctx;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * A non-geo context with bounds wide enough for geo data that has been "unwrapped" past the
+   * dateline (i.e. x up to 540).
+   */
+  public static SpatialContext makeCartesianContext() {
+    SpatialContextFactory factory = new SpatialContextFactory();
+    factory.geo = false;
+    factory.worldBounds = new RectangleImpl(-180, 540, -90, 90, null);
+    return factory.newSpatialContext();
+  }
+
+  public Random getRandom() {
+    return random;
+  }
+
+  /** A latitude that stays away from the poles, as most real data does. */
+  public double randomLat() {
+    return -85 + random.nextDouble() * 170;
+  }
+
+  public double randomLon() {
+    return -180 + random.nextDouble() * 360;
+  }
+
+  /** A size in degrees from 0.001 to 30, log distributed; small shapes are the common case. */
+  public double randomSizeDEG() {
+    return Math.pow(10, -3 + random.nextDouble() * 4.5);
+  }
+
+  public Point randomPoint() {
+    return ctx.makePoint(randomLon(), randomLat());
+  }
+
+  public Point[] randomPoints(int count) {
+    Point[] points = new Point[count];
+    for (int i = 0; i < count; i++) {
+      points[i] = randomPoint();
+    }
+    return points;
+  }
+
+  /** A rectangle that crosses the dateline if it happens to be generated near it. */
+  public Rectangle randomRectangle() {
+    double width = randomSizeDEG();
+    double height = randomSizeDEG();
+    double minX = randomLon();
+    double maxX = DistanceUtils.normLonDEG(minX + width);
+    double minY = randomLat();
+    double maxY = Math.min(90, minY + height);
+    return ctx.makeRectangle(minX, maxX, minY, maxY);
+  }
+
+  public Rectangle[] randomRectangles(int count) {
+    Rectangle[] rects = new Rectangle[count];
+    for (int i = 0; i < count; i++) {
+      rects[i] = randomRectangle();
+    }
+    return rects;
+  }
+
+  /** A rectangle near {@code center}; at most {@code maxDist} degrees away in either dimension. */
+  public Rectangle randomRectangleNear(Point center, double maxDist) {
+    double x = DistanceUtils.normLonDEG(center.getX() + (random.nextDouble() * 2 - 1) * maxDist);
+    double y = Math.max(-90, Math.min(90 - maxDist, center.getY() + (random.nextDouble() * 2 - 1) * maxDist));
+    double width = random.nextDouble() * maxDist;
+    double height = random.nextDouble() * maxDist;
+    return ctx.makeRectangle(x, DistanceUtils.normLonDEG(x + width), y, Math.min(90, y + height));
+  }
+
+  public Circle randomCircle() {
+    return ctx.makeCircle(randomPoint(), randomSizeDEG());
+  }
+
+  public Circle[] randomCircles(int count) {
+    Circle[] circles = new Circle[count];
+    for (int i = 0; i < count; i++) {
+      circles[i] = randomCircle();
+    }
+    return circles;
+  }
+
+  /**
+   * Generates the WKT of a star-shaped, non self-intersecting polygon around {@code center}
+   * resembling a country boundary: the vertex angles are sorted and the distance from the center
+   * varies randomly, so the polygon is rarely convex.
+   */
+  public String randomPolygonWkt(Point center, double radiusDEG, int numVertices) {
+    double[] angles = new double[numVertices];
+    for (int i = 0; i < numVertices; i++) {
+      angles[i] = random.nextDouble() * 2 * Math.PI;
+    }
+    Arrays.sort(angles);
+    StringBuilder buf = new StringBuilder(numVertices * 24 + 20);
+    buf.append("POLYGON((");
+    String first = null;
+    for (int i = 0; i < numVertices; i++) {
+      double r = radiusDEG * (0.5 + random.nextDouble() * 0.5);
+      double x = center.getX() + Math.cos(angles[i]) * r;
+      double y = center.getY() + Math.sin(angles[i]) * r;
+      String coord = formatCoord(x, y);
+      if (first == null)
+        first = coord;
+      buf.append(coord).append(", ");
+    }
+    buf.append(first).append("))");
+    return buf.toString();
+  }
+
+  /** Generates MULTIPOINT WKT of {@code count} random points. */
+  public String randomMultiPointWkt(int count) {
+    StringBuilder buf = new StringBuilder(count * 24 + 20);
+    buf.append("MULTIPOINT(");
+    for (int i = 0; i < count; i++) {
+      if (i > 0)
+        buf.append(", ");
+      buf.append(formatCoord(randomLon(), randomLat()));
+    }
+    buf.append(')');
+    return buf.toString();
+  }
+
+  /** 7 decimal places is roughly a centimeter, which is what most real data has. */
+  private static String formatCoord(double x, double y) {
+    return String.format(Locale.ROOT, "%.7f %.7f", x, y);
+  }
+}
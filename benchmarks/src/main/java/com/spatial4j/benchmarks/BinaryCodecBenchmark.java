@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.benchmarks;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.jts.JtsSpatialContext;
+import com.spatial4j.core.context.jts.JtsSpatialContextFactory;
+import com.spatial4j.core.io.BinaryCodec;
+import com.spatial4j.core.shape.Shape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BinaryCodec} writing and reading shapes, using the codec of a geo JtsSpatialContext so
+ * that polygons are supported too, optionally in the compact format.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryCodecBenchmark {
+
+  static final int COUNT = 256;
+
+  @Param({"point", "rectangle", "circle", "collection", "polygon"})
+  String shape;
+
+  @Param({"false", "true"})
+  boolean compact;
+
+  BinaryCodec codec;
+  Shape[] shapes;
+  byte[] bytes;
+  ByteArrayOutputStream baos;
+  ByteBuffer directBuf;//like a MappedByteBuffer
+
+  @Setup
+  public void setup() throws Exception {
+    JtsSpatialContextFactory factory = new JtsSpatialContextFactory();
+    if (compact)
+      factory.binaryCodecScale = 1e7;
+    JtsSpatialContext ctx = factory.newSpatialContext();
+    codec = ctx.getBinaryCodec();
+    BenchmarkData data = new BenchmarkData(ctx);
+    shapes = new Shape[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      shapes[i] = makeShape(ctx, data);
+    }
+    baos = new ByteArrayOutputStream();
+    writeAll();
+    bytes = baos.toByteArray();
+    directBuf = ByteBuffer.allocateDirect(bytes.length);
+    directBuf.put(bytes);
+  }
+
+  private Shape makeShape(SpatialContext ctx, BenchmarkData data) throws Exception {
+    if (shape.equals("point")) {
+      return data.randomPoint();
+    } else if (shape.equals("rectangle")) {
+      return data.randomRectangle();
+    } else if (shape.equals("circle")) {
+      return data.randomCircle();
+    } else if (shape.equals("collection")) {
+      List<Shape> list = new ArrayList<Shape>();
+      for (int i = 0; i < 10; i++) {
+        list.add(data.randomPoint());
+        list.add(data.randomRectangle());
+      }
+      return ctx.makeCollection(list);
+    } else if (shape.equals("polygon")) {
+      return ctx.readShapeFromWkt(data.randomPolygonWkt(
+          ctx.makePoint(data.randomLon() * 0.8, data.randomLat() * 0.8), 10, 100));
+    }
+    throw new IllegalArgumentException(shape);
+  }
+
+  private void writeAll() throws IOException {
+    baos.reset();
+    DataOutputStream dataOutput = new DataOutputStream(baos);
+    for (int i = 0; i < COUNT; i++) {
+      codec.writeShape(dataOutput, shapes[i]);
+    }
+    dataOutput.flush();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int write() throws IOException {
+    writeAll();
+    return baos.size();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void read(Blackhole bh) throws IOException {
+    DataInputStream dataInput = new DataInputStream(new ByteArrayInputStream(bytes));
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(codec.readShape(dataInput));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int writeByteBuffer() throws IOException {
+    directBuf.clear();
+    for (int i = 0; i < COUNT; i++) {
+      codec.writeShape(directBuf, shapes[i]);
+    }
+    return directBuf.position();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void readByteBuffer(Blackhole bh) throws IOException {
+    directBuf.clear();
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(codec.readShape(directBuf));
+    }
+  }
+}
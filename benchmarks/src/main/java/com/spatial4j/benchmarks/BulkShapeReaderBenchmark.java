@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.benchmarks;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.jts.JtsSpatialContext;
+import com.spatial4j.core.io.BulkShapeReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading validated JTS polygons from WKT one by one on this thread, versus with a
+ * {@link BulkShapeReader} on a pool of {@code threads} threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkShapeReaderBenchmark {
+
+  static final int COUNT = 1024;
+
+  @Param({"1", "4"})
+  int threads;
+
+  @Param({"100"})
+  int vertices;
+
+  SpatialContext ctx = JtsSpatialContext.GEO;
+  String[] wkts;
+  ExecutorService executor;
+  BulkShapeReader reader;
+
+  @Setup
+  public void setup() {
+    BenchmarkData data = new BenchmarkData(SpatialContext.GEO);
+    wkts = new String[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      wkts[i] = data.randomPolygonWkt(
+          SpatialContext.GEO.makePoint(data.randomLon() * 0.8, data.randomLat() * 0.8), 10, vertices);
+    }
+    executor = Executors.newFixedThreadPool(threads);
+    reader = new BulkShapeReader(ctx, executor);
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void sequential(Blackhole bh) throws ParseException {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(ctx.readShapeFromWkt(wkts[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void bulk(Blackhole bh) {
+    Iterator<BulkShapeReader.Result> results = reader.readWkt(Arrays.asList(wkts).iterator());
+    while (results.hasNext()) {
+      bh.consume(results.next().getShape());
+    }
+  }
+}
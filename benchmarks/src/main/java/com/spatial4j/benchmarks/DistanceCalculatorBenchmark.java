@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.benchmarks;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.SpatialContextFactory;
+import com.spatial4j.core.distance.DistanceCalculator;
+import com.spatial4j.core.distance.DistanceFunction;
+import com.spatial4j.core.shape.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DistanceCalculator} distance &amp; within from one origin to many points, which is the
+ * pattern of distance sorting and filtering in a search engine; per point, batched, and via a
+ * {@link DistanceFunction}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DistanceCalculatorBenchmark {
+
+  static final int COUNT = 4096;
+
+  /** Names as accepted by the "distCalculator" setting of {@link SpatialContextFactory}. */
+  @Param({"haversine", "lawOfCosines", "vincentySphere", "sloppyHaversine", "sloppyLawOfCosines", "cartesian"})
+  String distCalculator;
+
+  DistanceCalculator calc;
+  Point origin;
+  double[] xs, ys;
+  double withinDist;
+  double[] out;
+  BitSet bits;
+
+  @Setup
+  public void setup() {
+    SpatialContext ctx = SpatialContextFactory.makeSpatialContext(
+        Collections.singletonMap("distCalculator", distCalculator), null);
+    calc = ctx.getDistCalc();
+    BenchmarkData data = new BenchmarkData(ctx);
+    origin = data.randomPoint();
+    xs = new double[COUNT];
+    ys = new double[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      xs[i] = data.randomLon();
+      ys[i] = data.randomLat();
+    }
+    withinDist = 45;//roughly 1/8th match
+    out = new double[COUNT];
+    bits = new BitSet(COUNT);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void distance(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(calc.distance(origin, xs[i], ys[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void within(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(calc.within(origin, xs[i], ys[i], withinDist));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void functionDistance(Blackhole bh) {
+    DistanceFunction function = calc.from(origin);
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(function.distance(xs[i], ys[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void functionSortKey(Blackhole bh) {
+    DistanceFunction function = calc.from(origin);
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(function.sortKey(xs[i], ys[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public double[] distancesBatch() {
+    calc.distances(origin, xs, ys, out, 0, COUNT);
+    return out;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public BitSet withinBatch() {
+    bits.clear();
+    calc.within(origin, xs, ys, withinDist, bits);
+    return bits;
+  }
+}
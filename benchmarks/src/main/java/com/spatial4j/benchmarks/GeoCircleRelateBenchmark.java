@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.benchmarks;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.shape.Circle;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link com.spatial4j.core.shape.impl.GeoCircle} relate() with rectangles. The "near" rectangles
+ * are generated close to the circle so that most of them get past the bounding box check into
+ * {@code relateRectanglePhase2}, which is where the distance calculations happen; the "random" ones
+ * mostly exercise the bounding box short-circuit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeoCircleRelateBenchmark {
+
+  static final int COUNT = 1024;
+
+  Circle[] circles;
+  Rectangle[] nearRects, randomRects;
+  Point[] nearPoints;
+
+  @Setup
+  public void setup() {
+    SpatialContext ctx = SpatialContext.GEO;
+    BenchmarkData data = new BenchmarkData(ctx);
+    circles = data.randomCircles(COUNT);
+    nearRects = new Rectangle[COUNT];
+    nearPoints = new Point[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      Circle circle = circles[i];
+      nearRects[i] = data.randomRectangleNear(circle.getCenter(), circle.getRadius() * 1.5);
+      nearPoints[i] = nearRects[i].getCenter();
+    }
+    randomRects = data.randomRectangles(COUNT);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void relateNearRectangle(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(circles[i].relate(nearRects[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void relateRandomRectangle(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(circles[i].relate(randomRects[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void relateNearPoint(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(circles[i].relate(nearPoints[i]));
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.benchmarks;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.io.GeohashUtils;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.impl.RectangleImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GeohashUtils} encoding &amp; decoding of 12 character geohashes, as Strings versus as
+ * longs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeohashBenchmark {
+
+  static final int COUNT = 1024;
+  static final int BITS = 60;
+
+  final SpatialContext ctx = SpatialContext.GEO;
+  double[] lats, lons;
+  String[] hashes;
+  long[] longHashes;
+  Rectangle reuse;
+
+  @Setup
+  public void setup() {
+    Point[] points = new BenchmarkData(ctx).randomPoints(COUNT);
+    lats = new double[COUNT];
+    lons = new double[COUNT];
+    hashes = new String[COUNT];
+    longHashes = new long[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      lats[i] = points[i].getY();
+      lons[i] = points[i].getX();
+      hashes[i] = GeohashUtils.encodeLatLon(lats[i], lons[i], BITS / 5);
+      longHashes[i] = GeohashUtils.geohashToLong(hashes[i]);
+    }
+    reuse = new RectangleImpl(0, 0, 0, 0, ctx);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void encodeString(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(GeohashUtils.encodeLatLon(lats[i], lons[i], BITS / 5));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void encodeLong(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(GeohashUtils.encodeLatLonAsLong(lats[i], lons[i], BITS));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void decodeString(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(GeohashUtils.decodeBoundary(hashes[i], ctx));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void decodeLong(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(GeohashUtils.decodeBoundary(longHashes[i], BITS, reuse));
+    }
+  }
+}
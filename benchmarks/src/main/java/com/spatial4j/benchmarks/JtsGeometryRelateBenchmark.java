@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.benchmarks;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.jts.JtsSpatialContext;
+import com.spatial4j.core.shape.Circle;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.jts.JtsGeometry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JtsGeometry} relate() of a polygon against points, rectangles and circles near it, with
+ * and without the prepared geometry built by {@link JtsGeometry#index()}. relatePointIndexed uses
+ * the point location index of {@link JtsGeometry#indexPointLocation()} instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JtsGeometryRelateBenchmark {
+
+  static final int COUNT = 256;
+
+  @Param({"10", "1000", "10000"})
+  int numVertices;
+
+  @Param({"false", "true"})
+  boolean prepared;
+
+  JtsGeometry polygon;
+  /** The same polygon with {@link JtsGeometry#indexPointLocation()}. */
+  JtsGeometry pointIndexedPolygon;
+  Point[] points;
+  Rectangle[] rects;
+  Circle[] circles;
+
+  @Setup
+  public void setup() throws Exception {
+    SpatialContext ctx = JtsSpatialContext.GEO;
+    BenchmarkData data = new BenchmarkData(ctx);
+    // keep clear of the dateline & poles; that's another benchmark
+    Point center = ctx.makePoint(data.getRandom().nextDouble() * 200 - 100, data.getRandom().nextDouble() * 80 - 40);
+    double radius = 10;
+    String wkt = data.randomPolygonWkt(center, radius, numVertices);
+    polygon = (JtsGeometry) ctx.readShapeFromWkt(wkt);
+    if (prepared)
+      polygon.index();
+    pointIndexedPolygon = (JtsGeometry) ctx.readShapeFromWkt(wkt);
+    pointIndexedPolygon.indexPointLocation();
+
+    points = new Point[COUNT];
+    rects = new Rectangle[COUNT];
+    circles = new Circle[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      rects[i] = data.randomRectangleNear(center, radius);
+      points[i] = rects[i].getCenter();
+      circles[i] = ctx.makeCircle(points[i], data.getRandom().nextDouble() * radius / 4);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void relatePoint(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(polygon.relate(points[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void relatePointIndexed(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(pointIndexedPolygon.relate(points[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void relateRectangle(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(polygon.relate(rects[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void relateCircle(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(polygon.relate(circles[i]));
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.benchmarks;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link com.spatial4j.core.shape.impl.RectangleImpl#relate(com.spatial4j.core.shape.Shape)}
+ * against rectangles and points, in the geo (dateline aware) and the Euclidean contexts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RectangleRelateBenchmark {
+
+  static final int COUNT = 1024;
+
+  Rectangle[] geoQueries, geoRects, cartQueries, cartRects;
+  Point[] geoPoints;
+
+  @Setup
+  public void setup() {
+    BenchmarkData geoData = new BenchmarkData(SpatialContext.GEO);
+    geoQueries = geoData.randomRectangles(COUNT);
+    geoRects = geoData.randomRectangles(COUNT);
+    geoPoints = geoData.randomPoints(COUNT);
+
+    // non-geo: the same data just interpreted in a flat world (no dateline)
+    SpatialContext cartCtx = BenchmarkData.makeCartesianContext();
+    cartQueries = new Rectangle[COUNT];
+    cartRects = new Rectangle[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      cartQueries[i] = unwrap(cartCtx, geoQueries[i]);
+      cartRects[i] = unwrap(cartCtx, geoRects[i]);
+    }
+  }
+
+  private static Rectangle unwrap(SpatialContext cartCtx, Rectangle r) {
+    if (r.getCrossesDateLine())
+      return cartCtx.makeRectangle(r.getMinX(), r.getMaxX() + 360, r.getMinY(), r.getMaxY());
+    return cartCtx.makeRectangle(r.getMinX(), r.getMaxX(), r.getMinY(), r.getMaxY());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void geoRectRect(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(geoQueries[i].relate(geoRects[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void geoRectPoint(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(geoQueries[i].relate(geoPoints[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void cartesianRectRect(Blackhole bh) {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(cartQueries[i].relate(cartRects[i]));
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.benchmarks;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.jts.JtsSpatialContextFactory;
+import com.spatial4j.core.io.WktShapeParser;
+import com.spatial4j.core.io.jts.JtsWktShapeParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WktShapeParser#parse(String)} of typical shapes. Polygons are parsed by the JTS based
+ * parser, the others by the plain one. The JTS context doesn't validate the polygons, since JTS's
+ * validation of large ones takes far longer than parsing them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WktParseBenchmark {
+
+  static final int COUNT = 64;
+
+  @Param({"POINT", "ENVELOPE", "MULTIPOINT_1000", "POLYGON_100", "POLYGON_10000", "MULTIPOLYGON_10x1000"})
+  String shape;
+
+  WktShapeParser parser;
+  String[] wkts;
+
+  @Setup
+  public void setup() {
+    BenchmarkData data = new BenchmarkData(SpatialContext.GEO);
+    SpatialContext ctx = SpatialContext.GEO;
+    if (shape.contains("POLYGON")) {
+      ctx = new JtsSpatialContextFactory() {{
+        validationRule = JtsWktShapeParser.ValidationRule.none;
+      }}.newSpatialContext();
+    }
+    parser = ctx.getWktShapeParser();
+    wkts = new String[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      wkts[i] = makeWkt(data);
+    }
+  }
+
+  private String makeWkt(BenchmarkData data) {
+    if (shape.equals("POINT")) {
+      return "POINT(" + data.randomLon() + " " + data.randomLat() + ")";
+    } else if (shape.equals("ENVELOPE")) {
+      double x = data.randomLon(), y = data.randomLat();
+      return "ENVELOPE(" + x + ", " + Math.min(180, x + 1) + ", " + Math.min(90, y + 1) + ", " + y + ")";
+    } else if (shape.startsWith("MULTIPOINT_")) {
+      return data.randomMultiPointWkt(Integer.parseInt(shape.substring("MULTIPOINT_".length())));
+    } else if (shape.startsWith("POLYGON_")) {
+      return randomPolygonWkt(data, Integer.parseInt(shape.substring("POLYGON_".length())));
+    } else if (shape.startsWith("MULTIPOLYGON_")) {
+      String[] counts = shape.substring("MULTIPOLYGON_".length()).split("x");
+      int numPolygons = Integer.parseInt(counts[0]);
+      int numVertices = Integer.parseInt(counts[1]);
+      StringBuilder buf = new StringBuilder("MULTIPOLYGON(");
+      for (int i = 0; i < numPolygons; i++) {
+        if (i > 0)
+          buf.append(", ");
+        buf.append(randomPolygonWkt(data, numVertices).substring("POLYGON".length()));
+      }
+      return buf.append(")").toString();
+    }
+    throw new IllegalArgumentException(shape);
+  }
+
+  private static String randomPolygonWkt(BenchmarkData data, int numVertices) {
+    return data.randomPolygonWkt(
+        SpatialContext.GEO.makePoint(data.randomLon() * 0.8, data.randomLat() * 0.8), 10, numVertices);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void parse(Blackhole bh) throws ParseException {
+    for (int i = 0; i < COUNT; i++) {
+      bh.consume(parser.parse(wkts[i]));
+    }
+  }
+}
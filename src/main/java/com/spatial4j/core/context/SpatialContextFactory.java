@@ -43,8 +43,8 @@ import java.util.Map;
  * <DT>geo</DT>
  * <DD>true (default)| false -- see {@link SpatialContext#isGeo()} </DD>
  * <DT>distCalculator</DT>
- * <DD>haversine | lawOfCosines | vincentySphere | cartesian | cartesian^2
- * -- see {@link DistanceCalculator}</DD>
+ * <DD>haversine | lawOfCosines | vincentySphere | sloppyHaversine | sloppyLawOfCosines | cartesian
+ * | cartesian^2 -- see {@link DistanceCalculator}</DD>
  * <DT>worldBounds</DT>
  * <DD>{@code ENVELOPE(xMin, xMax, yMax, yMin)} -- see {@link SpatialContext#getWorldBounds()}</DD>
  * <DT>normWrapLongitude</DT>
@@ -53,6 +53,10 @@ import java.util.Map;
  * <DD>Java class of the {@link com.spatial4j.core.io.WktShapeParser}</DD>
  * <DT>binaryCodecClass</DT>
  * <DD>Java class of the {@link com.spatial4j.core.io.BinaryCodec}</DD>
+ * <DT>binaryCodecScale</DT>
+ * <DD>0 (default) | a scale such as 1e7 -- if positive, the BinaryCodec rounds coordinates to
+ * multiples of its inverse (e.g. 1e-7 degrees) and writes them compactly; see
+ * {@link com.spatial4j.core.io.BinaryCodec}</DD>
  * </DL>
  */
 public class SpatialContextFactory {
@@ -72,6 +76,7 @@ public class SpatialContextFactory {
   
   public Class<? extends WktShapeParser> wktShapeParserClass = WktShapeParser.class;
   public Class<? extends BinaryCodec> binaryCodecClass = BinaryCodec.class;
+  public double binaryCodecScale = 0;//not compact
 
   /**
    * Creates a new {@link SpatialContext} based on configuration in
@@ -121,6 +126,7 @@ public class SpatialContextFactory {
     initField("normWrapLongitude");
 
     initField("binaryCodecClass");
+    initField("binaryCodecScale");
   }
 
   /** Gets {@code name} from args and populates a field by the same name with the value. */
@@ -138,6 +144,10 @@ public class SpatialContextFactory {
         Object o;
         if (field.getType() == Boolean.TYPE) {
           o = Boolean.valueOf(str);
+        } else if (field.getType() == Double.TYPE) {
+          o = Double.valueOf(str);
+        } else if (field.getType() == Integer.TYPE) {
+          o = Integer.valueOf(str);
         } else if (field.getType() == Class.class) {
           try {
             o = classLoader.loadClass(str);
@@ -169,6 +179,10 @@ public class SpatialContextFactory {
       distCalc = new GeodesicSphereDistCalc.LawOfCosines();
     } else if (calcStr.equalsIgnoreCase("vincentySphere")) {
       distCalc = new GeodesicSphereDistCalc.Vincenty();
+    } else if (calcStr.equalsIgnoreCase("sloppyHaversine")) {
+      distCalc = new GeodesicSphereDistCalc.SloppyHaversine();
+    } else if (calcStr.equalsIgnoreCase("sloppyLawOfCosines")) {
+      distCalc = new GeodesicSphereDistCalc.SloppyLawOfCosines();
     } else if (calcStr.equalsIgnoreCase("cartesian")) {
       distCalc = new CartesianDistCalc();
     } else if (calcStr.equalsIgnoreCase("cartesian^2")) {
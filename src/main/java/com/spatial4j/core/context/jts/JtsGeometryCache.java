@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.context.jts;
+
+import com.spatial4j.core.shape.jts.JtsGeometry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least-recently-used cache of {@link JtsGeometry} shapes that have been
+ * {@link JtsGeometry#index() indexed}, keyed by the form they were read from (e.g. their WKT), so
+ * that reading the same shape again returns the same prepared instance instead of parsing and
+ * indexing it anew. Its size is bounded by the total number of coordinates of the cached
+ * geometries, which roughly tracks their memory; the least recently used ones are evicted to stay
+ * within it. It counts hits, misses and evictions.
+ * <p/>
+ * Enabled via {@link JtsSpatialContextFactory#geometryCacheSize}; used by
+ * {@link JtsSpatialContext#readShapeFromWkt(String)} and
+ * {@link com.spatial4j.core.io.jts.JtsBinaryCodec#readJtsGeom(java.io.DataInput)}.
+ * <p/>
+ * Thread-safe. The cached shapes are shared, which is fine since JtsGeometry is immutable once
+ * indexed.
+ */
+public class JtsGeometryCache {
+
+  private final long maxCoordinates;
+  private final LinkedHashMap<Object, JtsGeometry> map =
+      new LinkedHashMap<Object, JtsGeometry>(16, 0.75f, true/*access order*/);
+  private long coordinates;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * @param maxCoordinates The most coordinates in total among the cached geometries.
+   */
+  public JtsGeometryCache(long maxCoordinates) {
+    if (maxCoordinates < 1)
+      throw new IllegalArgumentException("maxCoordinates must be >= 1: " + maxCoordinates);
+    this.maxCoordinates = maxCoordinates;
+  }
+
+  /** The weight of a geometry: its number of coordinates (at least 1). */
+  protected long weigh(JtsGeometry geom) {
+    return Math.max(1, geom.getGeom().getNumPoints());
+  }
+
+  /**
+   * Looks up a geometry, counting a hit or miss.
+   * @param key Has a content based equals() &amp; hashCode(), such as a String.
+   * @return The geometry, or null.
+   */
+  public synchronized JtsGeometry get(Object key) {
+    JtsGeometry geom = map.get(key);
+    if (geom != null)
+      hits++;
+    else
+      misses++;
+    return geom;
+  }
+
+  /**
+   * Adds a geometry, indexing it if it isn't yet, then evicts the least recently used ones while
+   * the total exceeds the maximum. A geometry with more coordinates than the maximum isn't added.
+   */
+  public void put(Object key, JtsGeometry geom) {
+    final long weight = weigh(geom);
+    if (weight > maxCoordinates)
+      return;
+    geom.index();//outside the lock; it may take a while
+    synchronized (this) {
+      JtsGeometry old = map.put(key, geom);
+      if (old != null)
+        coordinates -= weigh(old);
+      coordinates += weight;
+      for (Iterator<Map.Entry<Object, JtsGeometry>> it = map.entrySet().iterator();
+           coordinates > maxCoordinates && it.hasNext(); ) {
+        Map.Entry<Object, JtsGeometry> eldest = it.next();
+        if (eldest.getKey().equals(key))
+          continue;//the one we just put
+        coordinates -= weigh(eldest.getValue());
+        it.remove();
+        evictions++;
+      }
+    }
+  }
+
+  /** Removes all geometries; the statistics are kept. */
+  public synchronized void clear() {
+    map.clear();
+    coordinates = 0;
+  }
+
+  public long getMaxCoordinates() {
+    return maxCoordinates;
+  }
+
+  /** The total number of coordinates of the cached geometries. */
+  public synchronized long getCoordinates() {
+    return coordinates;
+  }
+
+  /** The number of cached geometries. */
+  public synchronized int size() {
+    return map.size();
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "JtsGeometryCache{size=" + map.size() + ", coordinates=" + coordinates + "/" + maxCoordinates
+        + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "}";
+  }
+}
@@ -28,6 +28,7 @@ import com.spatial4j.core.shape.jts.JtsPoint;
 import com.vividsolutions.jts.geom.*;
 import com.vividsolutions.jts.util.GeometricShapeFactory;
 
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -50,6 +51,10 @@ public class JtsSpatialContext extends SpatialContext {
   protected final GeometryFactory geometryFactory;
 
   protected final boolean allowMultiOverlap;
+  protected final int autoIndexThreshold;
+  protected final JtsGeometryCache geometryCache;
+  /** The geometry of the Rectangle {@link #getGeometryFrom(Shape)} last converted. */
+  private volatile RectangleGeometry lastRectangleGeometry;
   protected final boolean useJtsPoint;
   protected final boolean useJtsLineString;
 
@@ -61,6 +66,8 @@ public class JtsSpatialContext extends SpatialContext {
     this.geometryFactory = factory.getGeometryFactory();
 
     this.allowMultiOverlap = factory.allowMultiOverlap;
+    this.autoIndexThreshold = factory.autoIndexThreshold;
+    this.geometryCache = factory.geometryCacheSize > 0 ? new JtsGeometryCache(factory.geometryCacheSize) : null;
     this.useJtsPoint = factory.useJtsPoint;
     this.useJtsLineString = factory.useJtsLineString;
   }
@@ -76,6 +83,42 @@ public class JtsSpatialContext extends SpatialContext {
     return allowMultiOverlap;
   }
 
+  /**
+   * If &gt; 0, a {@link JtsGeometry} {@link JtsGeometry#index() indexes} itself once it has
+   * computed about this many relations with other geometries, so that frequently queried shapes
+   * get faster without the time &amp; memory of indexing every shape up front. 0 disables it.
+   */
+  public int getAutoIndexThreshold() {
+    return autoIndexThreshold;
+  }
+
+  /**
+   * The cache of indexed geometries by the WKT or binary form they were read from, or null if
+   * disabled (the default). See {@link JtsSpatialContextFactory#geometryCacheSize}.
+   */
+  public JtsGeometryCache getGeometryCache() {
+    return geometryCache;
+  }
+
+  /**
+   * Reads a shape from WKT like the superclass, but if there's a {@link #getGeometryCache()}, a
+   * {@link JtsGeometry} is looked up there first by the trimmed WKT, and added to it otherwise.
+   * Other kinds of shapes, like points, aren't cached (but count as misses).
+   */
+  @Override
+  public Shape readShapeFromWkt(String wkt) throws ParseException {
+    if (geometryCache == null)
+      return super.readShapeFromWkt(wkt);
+    String key = wkt.trim();
+    JtsGeometry cached = geometryCache.get(key);
+    if (cached != null)
+      return cached;
+    Shape shape = super.readShapeFromWkt(wkt);
+    if (shape instanceof JtsGeometry)
+      geometryCache.put(key, (JtsGeometry) shape);
+    return shape;
+  }
+
   @Override
   public double normX(double x) {
     x = super.normX(x);
@@ -101,7 +144,8 @@ public class JtsSpatialContext extends SpatialContext {
 
   /**
    * Gets a JTS {@link Geometry} for the given {@link Shape}. Some shapes hold a
-   * JTS geometry whereas new ones must be created for the rest.
+   * JTS geometry whereas new ones must be created for the rest. The geometry of the last Rectangle
+   * is kept and returned again for an equal one, so the result mustn't be modified.
    * @param shape Not null
    * @return Not null
    */
@@ -118,16 +162,14 @@ public class JtsSpatialContext extends SpatialContext {
     }
     if (shape instanceof Rectangle) {
       Rectangle r = (Rectangle)shape;
-      if (r.getCrossesDateLine()) {
-        Collection<Geometry> pair = new ArrayList<Geometry>(2);
-        pair.add(geometryFactory.toGeometry(new Envelope(
-                r.getMinX(), getWorldBounds().getMaxX(), r.getMinY(), r.getMaxY())));
-        pair.add(geometryFactory.toGeometry(new Envelope(
-                getWorldBounds().getMinX(), r.getMaxX(), r.getMinY(), r.getMaxY())));
-        return geometryFactory.buildGeometry(pair);//a MultiPolygon or MultiLineString
-      } else {
-        return geometryFactory.toGeometry(new Envelope(r.getMinX(), r.getMaxX(), r.getMinY(), r.getMaxY()));
-      }
+      //the same rectangle is often related to many geometries in a row
+      RectangleGeometry last = lastRectangleGeometry;
+      if (last != null && last.matches(r))
+        return last.geom;
+      Geometry geom = makeRectangleGeometry(r);
+      geom.getEnvelopeInternal();//ensure envelope is cached internally, which is lazy evaluated. Keeps this thread-safe.
+      lastRectangleGeometry = new RectangleGeometry(r, geom);
+      return geom;
     }
     if (shape instanceof Circle) {
       // FYI Some interesting code for this is here:
@@ -146,6 +188,37 @@ public class JtsSpatialContext extends SpatialContext {
     throw new InvalidShapeException("can't make Geometry from: " + shape);
   }
 
+  private Geometry makeRectangleGeometry(Rectangle r) {
+    if (r.getCrossesDateLine()) {
+      Collection<Geometry> pair = new ArrayList<Geometry>(2);
+      pair.add(geometryFactory.toGeometry(new Envelope(
+              r.getMinX(), getWorldBounds().getMaxX(), r.getMinY(), r.getMaxY())));
+      pair.add(geometryFactory.toGeometry(new Envelope(
+              getWorldBounds().getMinX(), r.getMaxX(), r.getMinY(), r.getMaxY())));
+      return geometryFactory.buildGeometry(pair);//a MultiPolygon or MultiLineString
+    } else {
+      return geometryFactory.toGeometry(new Envelope(r.getMinX(), r.getMaxX(), r.getMinY(), r.getMaxY()));
+    }
+  }
+
+  /** A Rectangle's bounds and its Geometry; immutable. */
+  private static final class RectangleGeometry {
+    final double minX, maxX, minY, maxY;
+    final Geometry geom;
+
+    RectangleGeometry(Rectangle r, Geometry geom) {
+      this.minX = r.getMinX();
+      this.maxX = r.getMaxX();
+      this.minY = r.getMinY();
+      this.maxY = r.getMaxY();
+      this.geom = geom;
+    }
+
+    boolean matches(Rectangle r) {
+      return r.getMinX() == minX && r.getMaxX() == maxX && r.getMinY() == minY && r.getMaxY() == maxY;
+    }
+  }
+
   /** Should {@link #makePoint(double, double)} return {@link JtsPoint}? */
   public boolean useJtsPoint() {
     return useJtsPoint;
@@ -41,6 +41,12 @@ import java.util.Map;
  *  -- see {@link com.spatial4j.core.io.jts.JtsWktShapeParser.ValidationRule}</DD>
  * <DT>autoIndex</DT>
  * <DD>true|false(default) -- see {@link JtsWktShapeParser#isAutoIndex()}</DD>
+ * <DT>autoIndexThreshold</DT>
+ * <DD>0(default, disabled) or the number of relate() calls after which a JtsGeometry indexes itself
+ *  -- see {@link JtsSpatialContext#getAutoIndexThreshold()}</DD>
+ * <DT>geometryCacheSize</DT>
+ * <DD>0(default, disabled) or the most coordinates among the cached geometries
+ *  -- see {@link JtsSpatialContext#getGeometryCache()}</DD>
  * <DT>allowMultiOverlap</DT>
  * <DD>true|false(default) -- see {@link JtsSpatialContext#isAllowMultiOverlap()}</DD>
  * <DT>precisionModel</DT>
@@ -64,6 +70,8 @@ public class JtsSpatialContextFactory extends SpatialContextFactory {
 
   public JtsWktShapeParser.ValidationRule validationRule = JtsWktShapeParser.ValidationRule.error;
   public boolean autoIndex = false;
+  public int autoIndexThreshold = 0;
+  public int geometryCacheSize = 0;
   public boolean allowMultiOverlap = false;//ignored if geo=false
 
   //kinda advanced options:
@@ -82,6 +90,8 @@ public class JtsSpatialContextFactory extends SpatialContextFactory {
     initField("datelineRule");
     initField("validationRule");
     initField("autoIndex");
+    initField("autoIndexThreshold");
+    initField("geometryCacheSize");
     initField("allowMultiOverlap");
     initField("useJtsPoint");
     initField("useJtsLineString");
@@ -19,6 +19,8 @@ package com.spatial4j.core.distance;
 
 import com.spatial4j.core.shape.Point;
 
+import java.util.BitSet;
+
 /**
  */
 public abstract class AbstractDistanceCalculator implements DistanceCalculator {
@@ -33,8 +35,78 @@ public abstract class AbstractDistanceCalculator implements DistanceCalculator {
     return distance(from, toX, toY) <= distance;
   }
 
+  @Override
+  public DistanceFunction from(Point origin) {
+    return new DefaultDistanceFunction(this, origin);
+  }
+
+  @Override
+  public void distances(Point from, double[] xs, double[] ys, double[] out, int off, int len) {
+    for (int i = off; i < off + len; i++) {
+      out[i] = distance(from, xs[i], ys[i]);
+    }
+  }
+
+  @Override
+  public int within(Point from, double[] xs, double[] ys, double distance, BitSet result) {
+    int count = 0;
+    for (int i = 0; i < xs.length; i++) {
+      if (within(from, xs[i], ys[i], distance)) {
+        result.set(i);
+        count++;
+      }
+    }
+    return count;
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName();
   }
+
+  /** Calls the calculator; the sort key is the distance. */
+  protected static class DefaultDistanceFunction implements DistanceFunction {
+    protected final DistanceCalculator calc;
+    protected final Point origin;
+
+    public DefaultDistanceFunction(DistanceCalculator calc, Point origin) {
+      this.calc = calc;
+      this.origin = origin;
+    }
+
+    @Override
+    public Point getOrigin() {
+      return origin;
+    }
+
+    @Override
+    public double distance(double x, double y) {
+      return calc.distance(origin, x, y);
+    }
+
+    @Override
+    public boolean within(double x, double y, double distance) {
+      return distance(x, y) <= distance;
+    }
+
+    @Override
+    public double sortKey(double x, double y) {
+      return distance(x, y);
+    }
+
+    @Override
+    public double sortKeyToDistance(double sortKey) {
+      return sortKey;
+    }
+
+    @Override
+    public double distanceToSortKey(double distance) {
+      return distance;
+    }
+
+    @Override
+    public String toString() {
+      return calc + ".from(" + origin + ")";
+    }
+  }
 }
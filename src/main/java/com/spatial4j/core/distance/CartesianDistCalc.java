@@ -22,6 +22,8 @@ import com.spatial4j.core.shape.Circle;
 import com.spatial4j.core.shape.Point;
 import com.spatial4j.core.shape.Rectangle;
 
+import java.util.BitSet;
+
 /**
  * Calculates based on Euclidean / Cartesian 2d plane.
  */
@@ -63,6 +65,74 @@ public class CartesianDistCalc extends AbstractDistanceCalculator {
     return deltaX*deltaX + deltaY*deltaY <= distance*distance;
   }
 
+  @Override
+  public DistanceFunction from(final Point origin) {
+    final double fromX = origin.getX();
+    final double fromY = origin.getY();
+    return new DefaultDistanceFunction(this, origin) {
+      @Override
+      public double distance(double x, double y) {
+        double deltaX = fromX - x;
+        double deltaY = fromY - y;
+        double xSquaredPlusYSquared = deltaX*deltaX + deltaY*deltaY;
+        return squared ? xSquaredPlusYSquared : Math.sqrt(xSquaredPlusYSquared);
+      }
+
+      @Override
+      public boolean within(double x, double y, double distance) {
+        double deltaX = fromX - x;
+        double deltaY = fromY - y;
+        return deltaX*deltaX + deltaY*deltaY <= distance*distance;
+      }
+
+      @Override
+      public double sortKey(double x, double y) {
+        double deltaX = fromX - x;
+        double deltaY = fromY - y;
+        return deltaX*deltaX + deltaY*deltaY;
+      }
+
+      @Override
+      public double sortKeyToDistance(double sortKey) {
+        return squared ? sortKey : Math.sqrt(sortKey);
+      }
+
+      @Override
+      public double distanceToSortKey(double distance) {
+        return squared ? distance : distance*distance;
+      }
+    };
+  }
+
+  @Override
+  public void distances(Point from, double[] xs, double[] ys, double[] out, int off, int len) {
+    final double fromX = from.getX();
+    final double fromY = from.getY();
+    for (int i = off; i < off + len; i++) {
+      double deltaX = fromX - xs[i];
+      double deltaY = fromY - ys[i];
+      double xSquaredPlusYSquared = deltaX*deltaX + deltaY*deltaY;
+      out[i] = squared ? xSquaredPlusYSquared : Math.sqrt(xSquaredPlusYSquared);
+    }
+  }
+
+  @Override
+  public int within(Point from, double[] xs, double[] ys, double distance, BitSet result) {
+    final double fromX = from.getX();
+    final double fromY = from.getY();
+    final double distanceSquared = distance*distance;
+    int count = 0;
+    for (int i = 0; i < xs.length; i++) {
+      double deltaX = fromX - xs[i];
+      double deltaY = fromY - ys[i];
+      if (deltaX*deltaX + deltaY*deltaY <= distanceSquared) {
+        result.set(i);
+        count++;
+      }
+    }
+    return count;
+  }
+
   @Override
   public Point pointOnBearing(Point from, double distDEG, double bearingDEG, SpatialContext ctx, Point reuse) {
     if (distDEG == 0) {
@@ -22,6 +22,8 @@ import com.spatial4j.core.shape.Circle;
 import com.spatial4j.core.shape.Point;
 import com.spatial4j.core.shape.Rectangle;
 
+import java.util.BitSet;
+
 /**
  * Performs calculations relating to distance, such as the distance between a pair of points.  A
  * calculator might be based on Euclidean space, or a spherical model, or theoretically something
@@ -38,6 +40,28 @@ public interface DistanceCalculator {
   /** Returns true if the distance between from and to is <= distance. */
   public boolean within(Point from, double toX, double toY, double distance);
 
+  /**
+   * Returns a function of the distance from <code>origin</code>, which is faster than this
+   * calculator's methods when measuring from the same point many times.
+   */
+  public DistanceFunction from(Point origin);
+
+  /**
+   * The distance between <code>from</code> and each of <code>Point(xs[i],ys[i])</code> for
+   * <code>i</code> from <code>off</code> to <code>off+len-1</code>, put into <code>out[i]</code>.
+   * The results are the same as calling {@link #distance(Point, double, double)} for each, but
+   * implementations compute what they can about <code>from</code> only once.
+   */
+  public void distances(Point from, double[] xs, double[] ys, double[] out, int off, int len);
+
+  /**
+   * Sets the bit <code>i</code> of <code>result</code> for each <code>Point(xs[i],ys[i])</code>
+   * that {@link #within(Point, double, double, double)} the distance of <code>from</code>. Other
+   * bits aren't cleared.
+   * @return The number of points within the distance.
+   */
+  public int within(Point from, double[] xs, double[] ys, double distance, BitSet result);
+
   /**
    * Calculates where a destination point is given an origin (<code>from</code>)
    * distance, and bearing (given in degrees -- 0-360).  If reuse is given, then
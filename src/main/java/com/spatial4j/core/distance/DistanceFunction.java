@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.distance;
+
+import com.spatial4j.core.shape.Point;
+
+/**
+ * The distance from a fixed origin, as obtained from {@link DistanceCalculator#from(Point)}. It
+ * computes what it can about the origin up-front (e.g. the sine &amp; cosine of its latitude), so
+ * it's faster than the calculator when measuring the distance from one point to many others.
+ * <p/>
+ * Implementations are immutable &amp; thread-safe.
+ */
+public interface DistanceFunction {
+
+  /** The point distances are measured from. */
+  public Point getOrigin();
+
+  /**
+   * The distance from the origin to <code>Point(x,y)</code>; the same as
+   * {@link DistanceCalculator#distance(Point, double, double)}.
+   */
+  public double distance(double x, double y);
+
+  /**
+   * Whether <code>Point(x,y)</code> is within the given distance of the origin; the same as
+   * {@link DistanceCalculator#within(Point, double, double, double)}. The distance is a real one
+   * even if {@link #distance(double, double)} isn't (e.g. a squared cartesian calculator).
+   */
+  public boolean within(double x, double y, double distance);
+
+  /**
+   * A value that increases with {@link #distance(double, double)}, and so can be used to sort or
+   * rank points by distance, but that's cheaper to compute. For example the cartesian calculator
+   * returns the squared distance. Keys are only comparable with those of the same calculator.
+   * Rank by the key and then use {@link #sortKeyToDistance(double)} or
+   * {@link #distance(double, double)} on just the top results.
+   */
+  public double sortKey(double x, double y);
+
+  /** Converts a {@link #sortKey(double, double)} to the distance, up to rounding error. */
+  public double sortKeyToDistance(double sortKey);
+
+  /**
+   * Converts a distance to a {@link #sortKey(double, double)}, e.g. to compare keys with a
+   * maximum distance. The inverse of {@link #sortKeyToDistance(double)}.
+   */
+  public double distanceToSortKey(double distance);
+
+}
@@ -179,7 +179,27 @@ public class DistanceUtils {
     double lat2 = Math.asin(sinLat2);
     double lon2 = startLon + Math.atan2(Math.sin(bearingRAD) * sinAngDist * cosStartLat,
             cosAngDist - sinStartLat * sinLat2);
-    
+    return makeNormalizedPointRAD(lat2, lon2, ctx, reuse);
+  }
+
+  /**
+   * Like {@link #pointOnBearingRAD(double, double, double, double, com.spatial4j.core.context.SpatialContext, com.spatial4j.core.shape.Point)}
+   * but using {@link SloppyMath}.
+   */
+  public static Point pointOnBearingSloppyRAD(double startLat, double startLon, double distanceRAD, double bearingRAD, SpatialContext ctx, Point reuse) {
+    double cosAngDist = SloppyMath.cos(distanceRAD);
+    double cosStartLat = SloppyMath.cos(startLat);
+    double sinAngDist = SloppyMath.sin(distanceRAD);
+    double sinStartLat = SloppyMath.sin(startLat);
+    double sinLat2 = sinStartLat * cosAngDist +
+        cosStartLat * sinAngDist * SloppyMath.cos(bearingRAD);
+    double lat2 = SloppyMath.asin(Math.max(-1.0, Math.min(1.0, sinLat2)));
+    double lon2 = startLon + SloppyMath.atan2(SloppyMath.sin(bearingRAD) * sinAngDist * cosStartLat,
+            cosAngDist - sinStartLat * sinLat2);
+    return makeNormalizedPointRAD(lat2, lon2, ctx, reuse);
+  }
+
+  private static Point makeNormalizedPointRAD(double lat2, double lon2, SpatialContext ctx, Point reuse) {
     // normalize lon first
     if (lon2 > DEG_180_AS_RADS) {
       lon2 = -1.0 * (DEG_180_AS_RADS - (lon2 - DEG_180_AS_RADS));
@@ -409,6 +429,20 @@ public class DistanceUtils {
     return 2 * Math.atan2(Math.sqrt(h), Math.sqrt(1 - h));
   }
 
+  /**
+   * Like {@link #distHaversineRAD(double, double, double, double)} but using {@link SloppyMath}.
+   */
+  public static double distHaversineSloppyRAD(double lat1, double lon1, double lat2, double lon2) {
+    if (lat1 == lat2 && lon1 == lon2)
+      return 0.0;
+    double hsinX = SloppyMath.sin((lon1 - lon2) * 0.5);
+    double hsinY = SloppyMath.sin((lat1 - lat2) * 0.5);
+    double h = hsinY * hsinY +
+            (SloppyMath.cos(lat1) * SloppyMath.cos(lat2) * hsinX * hsinX);
+    //equivalent to the atan2 form; rounding may push h slightly past 1
+    return 2 * SloppyMath.asin(Math.sqrt(Math.min(1.0, h)));
+  }
+
   /**
    * Calculates the distance between two lat-lon's using the Law of Cosines. Due to numeric conditioning
    * errors, it is not as accurate as the Haversine formula for small distances.  But with
@@ -448,6 +482,25 @@ public class DistanceUtils {
       return Math.acos(cosB);
   }
 
+  /**
+   * Like {@link #distLawOfCosinesRAD(double, double, double, double)} but using {@link SloppyMath}.
+   */
+  public static double distLawOfCosinesSloppyRAD(double lat1, double lon1, double lat2, double lon2) {
+    if (lat1 == lat2 && lon1 == lon2)
+      return 0.0;
+    double dLon = lon2 - lon1;
+    double a = DEG_90_AS_RADS - lat1;
+    double c = DEG_90_AS_RADS - lat2;
+    double cosB = (SloppyMath.cos(a) * SloppyMath.cos(c))
+        + (SloppyMath.sin(a) * SloppyMath.sin(c) * SloppyMath.cos(dLon));
+    if (cosB < -1.0)
+      return Math.PI;
+    else if (cosB >= 1.0)
+      return 0;
+    else
+      return SloppyMath.acos(cosB);
+  }
+
   /**
    * Calculates the great circle distance using the Vincenty Formula, simplified for a spherical model. This formula
    * is accurate for any pair of points. The equation
@@ -22,6 +22,8 @@ import com.spatial4j.core.shape.Circle;
 import com.spatial4j.core.shape.Point;
 import com.spatial4j.core.shape.Rectangle;
 
+import java.util.BitSet;
+
 import static com.spatial4j.core.distance.DistanceUtils.toDegrees;
 import static com.spatial4j.core.distance.DistanceUtils.toRadians;
 
@@ -40,7 +42,7 @@ public abstract class GeodesicSphereDistCalc extends AbstractDistanceCalculator
       reuse.reset(from.getX(), from.getY());
       return reuse;
     }
-    Point result = DistanceUtils.pointOnBearingRAD(
+    Point result = pointOnBearingRAD(
         toRadians(from.getY()), toRadians(from.getX()),
         toRadians(distDEG),
         toRadians(bearingDEG), ctx, reuse);//output result is in radians
@@ -48,6 +50,12 @@ public abstract class GeodesicSphereDistCalc extends AbstractDistanceCalculator
     return result;
   }
 
+  /** See {@link DistanceUtils#pointOnBearingRAD(double, double, double, double, com.spatial4j.core.context.SpatialContext, com.spatial4j.core.shape.Point)}. */
+  protected Point pointOnBearingRAD(double startLat, double startLon, double distanceRAD, double bearingRAD,
+                                    SpatialContext ctx, Point reuse) {
+    return DistanceUtils.pointOnBearingRAD(startLat, startLon, distanceRAD, bearingRAD, ctx, reuse);
+  }
+
   @Override
   public Rectangle calcBoxByDistFromPt(Point from, double distDEG, SpatialContext ctx, Rectangle reuse) {
     return DistanceUtils.calcBoxByDistFromPtDEG(from.getY(), from.getX(), distDEG, ctx, reuse);
@@ -94,6 +102,89 @@ public abstract class GeodesicSphereDistCalc extends AbstractDistanceCalculator
 
   protected abstract double distanceLatLonRAD(double lat1, double lon1, double lat2, double lon2);
 
+  /**
+   * The default implementation converts the origin to radians once and calls
+   * {@link #distanceLatLonRAD(double, double, double, double)}; subclasses override it to also
+   * compute the trigonometry of the origin once.
+   */
+  @Override
+  public DistanceFunction from(Point origin) {
+    return new LatLonDistanceFunction(this, origin);
+  }
+
+  @Override
+  public final void distances(Point from, double[] xs, double[] ys, double[] out, int off, int len) {
+    DistanceFunction function = from(from);
+    for (int i = off; i < off + len; i++) {
+      out[i] = function.distance(xs[i], ys[i]);
+    }
+  }
+
+  @Override
+  public final int within(Point from, double[] xs, double[] ys, double distance, BitSet result) {
+    DistanceFunction function = from(from);
+    int count = 0;
+    for (int i = 0; i < xs.length; i++) {
+      if (function.distance(xs[i], ys[i]) <= distance) {
+        result.set(i);
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * A {@link DistanceFunction} with the origin in radians. The sort key of all the spherical
+   * calculators is the haversine of the central angle, <code>sin^2(angle/2)</code>, from 0 to 1;
+   * which is also a quarter of the squared chord length through a unit sphere.
+   */
+  protected static class LatLonDistanceFunction extends DefaultDistanceFunction {
+    protected final double lat1;
+    protected final double lon1;
+    protected final double cosLat1;
+
+    public LatLonDistanceFunction(GeodesicSphereDistCalc calc, Point origin) {
+      super(calc, origin);
+      this.lat1 = toRadians(origin.getY());
+      this.lon1 = toRadians(origin.getX());
+      this.cosLat1 = Math.cos(lat1);
+    }
+
+    @Override
+    public double distance(double x, double y) {
+      return toDegrees(((GeodesicSphereDistCalc) calc).distanceLatLonRAD(lat1, lon1, toRadians(y), toRadians(x)));
+    }
+
+    @Override
+    public double sortKey(double x, double y) {
+      return haversine(toRadians(y), toRadians(x));
+    }
+
+    /** See {@link DistanceUtils#distHaversineRAD(double, double, double, double)}. */
+    protected double haversine(double lat2, double lon2) {
+      double hsinX = Math.sin((lon1 - lon2) * 0.5);
+      double hsinY = Math.sin((lat1 - lat2) * 0.5);
+      return hsinY * hsinY +
+              (cosLat1 * Math.cos(lat2) * hsinX * hsinX);
+    }
+
+    @Override
+    public double sortKeyToDistance(double sortKey) {
+      double h = Math.max(0, Math.min(1, sortKey));
+      return toDegrees(2 * Math.atan2(Math.sqrt(h), Math.sqrt(1 - h)));
+    }
+
+    @Override
+    public double distanceToSortKey(double distance) {
+      if (distance >= 180)
+        return 1;
+      if (distance <= 0)
+        return 0;
+      double hsin = Math.sin(toRadians(distance) * 0.5);
+      return hsin * hsin;
+    }
+  }
+
   public static class Haversine extends GeodesicSphereDistCalc {
 
     @Override
@@ -101,6 +192,23 @@ public abstract class GeodesicSphereDistCalc extends AbstractDistanceCalculator
       return DistanceUtils.distHaversineRAD(lat1,lon1,lat2,lon2);
     }
 
+    /** The sort key ("h") is computed first anyway; only atan2 and sqrt are saved. */
+    @Override
+    public DistanceFunction from(Point origin) {
+      return new LatLonDistanceFunction(this, origin) {
+        //see DistanceUtils.distHaversineRAD
+        @Override
+        public double distance(double x, double y) {
+          double lat2 = toRadians(y);
+          double lon2 = toRadians(x);
+          if (lat1 == lat2 && lon1 == lon2)
+            return 0.0;
+          double h = haversine(lat2, lon2);
+          return toDegrees(2 * Math.atan2(Math.sqrt(h), Math.sqrt(1 - h)));
+        }
+      };
+    }
+
   }
 
   public static class LawOfCosines extends GeodesicSphereDistCalc {
@@ -110,6 +218,50 @@ public abstract class GeodesicSphereDistCalc extends AbstractDistanceCalculator
       return DistanceUtils.distLawOfCosinesRAD(lat1, lon1, lat2, lon2);
     }
 
+    /** The sort key is derived from the cosine of the central angle, before acos. */
+    @Override
+    public DistanceFunction from(Point origin) {
+      return new LatLonDistanceFunction(this, origin) {
+        //see DistanceUtils.distLawOfCosinesRAD
+        final double a = DistanceUtils.DEG_90_AS_RADS - lat1;
+        final double cosA = Math.cos(a);
+        final double sinA = Math.sin(a);
+
+        @Override
+        public double distance(double x, double y) {
+          double lat2 = toRadians(y);
+          double lon2 = toRadians(x);
+          if (lat1 == lat2 && lon1 == lon2)
+            return 0.0;
+          double cosB = cosB(lat2, lon2);
+          // Find angle subtended (with some bounds checking) in radians
+          if (cosB < -1.0)
+            return toDegrees(Math.PI);
+          else if (cosB >= 1.0)
+            return 0;
+          else
+            return toDegrees(Math.acos(cosB));
+        }
+
+        @Override
+        public double sortKey(double x, double y) {
+          double lat2 = toRadians(y);
+          double lon2 = toRadians(x);
+          if (lat1 == lat2 && lon1 == lon2)
+            return 0.0;
+          //haversine(angle) == (1 - cos(angle)) / 2
+          return (1 - Math.max(-1.0, Math.min(1.0, cosB(lat2, lon2)))) * 0.5;
+        }
+
+        private double cosB(double lat2, double lon2) {
+          double dLon = lon2 - lon1;
+          double c = DistanceUtils.DEG_90_AS_RADS - lat2;
+          return (cosA * Math.cos(c))
+              + (sinA * Math.sin(c) * Math.cos(dLon));
+        }
+      };
+    }
+
   }
 
   public static class Vincenty extends GeodesicSphereDistCalc {
@@ -118,5 +270,135 @@ public abstract class GeodesicSphereDistCalc extends AbstractDistanceCalculator
     protected double distanceLatLonRAD(double lat1, double lon1, double lat2, double lon2) {
       return DistanceUtils.distVincentyRAD(lat1, lon1, lat2, lon2);
     }
+
+    @Override
+    public DistanceFunction from(Point origin) {
+      return new LatLonDistanceFunction(this, origin) {
+        //see DistanceUtils.distVincentyRAD
+        final double sinLat1 = Math.sin(lat1);
+
+        @Override
+        public double distance(double x, double y) {
+          double lat2 = toRadians(y);
+          double lon2 = toRadians(x);
+          if (lat1 == lat2 && lon1 == lon2)
+            return 0.0;
+          double cosLat2 = Math.cos(lat2);
+          double sinLat2 = Math.sin(lat2);
+          double dLon = lon2 - lon1;
+          double cosDLon = Math.cos(dLon);
+          double sinDLon = Math.sin(dLon);
+
+          double a = cosLat2 * sinDLon;
+          double b = cosLat1*sinLat2 - sinLat1*cosLat2*cosDLon;
+          double c = sinLat1*sinLat2 + cosLat1*cosLat2*cosDLon;
+
+          return toDegrees(Math.atan2(Math.sqrt(a*a+b*b),c));
+        }
+      };
+    }
+  }
+
+  /**
+   * Like {@link Haversine} but using {@link SloppyMath}, which is faster and differs by a
+   * negligible amount; see {@link SloppyMath#MAX_ERROR}.
+   */
+  public static class SloppyHaversine extends GeodesicSphereDistCalc {
+
+    @Override
+    protected double distanceLatLonRAD(double lat1, double lon1, double lat2, double lon2) {
+      return DistanceUtils.distHaversineSloppyRAD(lat1, lon1, lat2, lon2);
+    }
+
+    @Override
+    protected Point pointOnBearingRAD(double startLat, double startLon, double distanceRAD, double bearingRAD,
+                                      SpatialContext ctx, Point reuse) {
+      return DistanceUtils.pointOnBearingSloppyRAD(startLat, startLon, distanceRAD, bearingRAD, ctx, reuse);
+    }
+
+    @Override
+    public DistanceFunction from(Point origin) {
+      return new LatLonDistanceFunction(this, origin) {
+        //see DistanceUtils.distHaversineSloppyRAD
+        final double sloppyCosLat1 = SloppyMath.cos(lat1);
+
+        @Override
+        public double distance(double x, double y) {
+          double lat2 = toRadians(y);
+          double lon2 = toRadians(x);
+          if (lat1 == lat2 && lon1 == lon2)
+            return 0.0;
+          return toDegrees(2 * SloppyMath.asin(Math.sqrt(Math.min(1.0, haversine(lat2, lon2)))));
+        }
+
+        @Override
+        protected double haversine(double lat2, double lon2) {
+          double hsinX = SloppyMath.sin((lon1 - lon2) * 0.5);
+          double hsinY = SloppyMath.sin((lat1 - lat2) * 0.5);
+          return hsinY * hsinY +
+                  (sloppyCosLat1 * SloppyMath.cos(lat2) * hsinX * hsinX);
+        }
+      };
+    }
+  }
+
+  /**
+   * Like {@link LawOfCosines} but using {@link SloppyMath}, which is faster and differs by a
+   * negligible amount; see {@link SloppyMath#MAX_ERROR}.
+   */
+  public static class SloppyLawOfCosines extends GeodesicSphereDistCalc {
+
+    @Override
+    protected double distanceLatLonRAD(double lat1, double lon1, double lat2, double lon2) {
+      return DistanceUtils.distLawOfCosinesSloppyRAD(lat1, lon1, lat2, lon2);
+    }
+
+    @Override
+    protected Point pointOnBearingRAD(double startLat, double startLon, double distanceRAD, double bearingRAD,
+                                      SpatialContext ctx, Point reuse) {
+      return DistanceUtils.pointOnBearingSloppyRAD(startLat, startLon, distanceRAD, bearingRAD, ctx, reuse);
+    }
+
+    @Override
+    public DistanceFunction from(Point origin) {
+      return new LatLonDistanceFunction(this, origin) {
+        //see DistanceUtils.distLawOfCosinesSloppyRAD
+        final double a = DistanceUtils.DEG_90_AS_RADS - lat1;
+        final double cosA = SloppyMath.cos(a);
+        final double sinA = SloppyMath.sin(a);
+
+        @Override
+        public double distance(double x, double y) {
+          double lat2 = toRadians(y);
+          double lon2 = toRadians(x);
+          if (lat1 == lat2 && lon1 == lon2)
+            return 0.0;
+          double cosB = cosB(lat2, lon2);
+          if (cosB < -1.0)
+            return toDegrees(Math.PI);
+          else if (cosB >= 1.0)
+            return 0;
+          else
+            return toDegrees(SloppyMath.acos(cosB));
+        }
+
+        @Override
+        public double sortKey(double x, double y) {
+          double lat2 = toRadians(y);
+          double lon2 = toRadians(x);
+          if (lat1 == lat2 && lon1 == lon2)
+            return 0.0;
+          //haversine(angle) == (1 - cos(angle)) / 2
+          return (1 - Math.max(-1.0, Math.min(1.0, cosB(lat2, lon2)))) * 0.5;
+        }
+
+        private double cosB(double lat2, double lon2) {
+          double dLon = lon2 - lon1;
+          double c = DistanceUtils.DEG_90_AS_RADS - lat2;
+          return (cosA * SloppyMath.cos(c))
+              + (sinA * SloppyMath.sin(c) * SloppyMath.cos(dLon));
+        }
+      };
+    }
   }
 }
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.distance;
+
+/**
+ * Fast approximations of the trigonometric functions used by the distance formulas, in the spirit
+ * of Lucene's SloppyMath. Each looks up the nearest of a table of precomputed points and applies a
+ * 4th order Taylor expansion around it. The absolute error versus {@link Math} is at most
+ * {@link #MAX_ERROR} for arguments within {@link #MAX_SIN_COS_ARG} (sin &amp; cos fall back to
+ * Math beyond that), which is negligible for distances on the earth (1e-14 radians is well under a
+ * micrometer), but the results are not exactly those of Math.
+ * <p/>
+ * Used by the "sloppy" calculators, e.g. {@link GeodesicSphereDistCalc.SloppyHaversine}.
+ */
+public final class SloppyMath {
+
+  /** The maximum absolute error of these functions versus {@link Math}'s. */
+  public static final double MAX_ERROR = 1e-14;
+
+  /** sin &amp; cos call Math for an argument with a larger magnitude, where reducing it would lose
+   * precision. The distance formulas stay within it. */
+  public static final double MAX_SIN_COS_ARG = 4 * Math.PI;
+
+  private static final double TWO_PI = 2 * Math.PI;
+
+  private static final int SIN_COS_TABLE_SIZE = 1 << 11;//points in [0, 2pi)
+  private static final double SIN_COS_STEP = TWO_PI / SIN_COS_TABLE_SIZE;
+  private static final double SIN_COS_INDEXER = 1 / SIN_COS_STEP;
+  private static final double[] sinTable = new double[SIN_COS_TABLE_SIZE];
+  private static final double[] cosTable = new double[SIN_COS_TABLE_SIZE];
+
+  /** asin's table covers [0, ASIN_MAX_ARG]; beyond it, an identity maps back into the table. */
+  private static final double ASIN_MAX_ARG = 0.75;
+  private static final int ASIN_TABLE_SIZE = 1 << 11;
+  private static final double ASIN_STEP = ASIN_MAX_ARG / ASIN_TABLE_SIZE;
+  private static final double ASIN_INDEXER = 1 / ASIN_STEP;
+  //asin and its 1st to 4th derivatives at each point
+  private static final double[] asinTable = new double[ASIN_TABLE_SIZE + 1];
+  private static final double[] asinDer1Table = new double[ASIN_TABLE_SIZE + 1];
+  private static final double[] asinDer2Table = new double[ASIN_TABLE_SIZE + 1];
+  private static final double[] asinDer3Table = new double[ASIN_TABLE_SIZE + 1];
+  private static final double[] asinDer4Table = new double[ASIN_TABLE_SIZE + 1];
+
+  static {
+    for (int i = 0; i < SIN_COS_TABLE_SIZE; i++) {
+      double a = i * SIN_COS_STEP;
+      sinTable[i] = Math.sin(a);
+      cosTable[i] = Math.cos(a);
+    }
+    for (int i = 0; i <= ASIN_TABLE_SIZE; i++) {
+      double x = i * ASIN_STEP;
+      double oneMinusX2 = 1 - x * x;
+      double invSqrt = 1 / Math.sqrt(oneMinusX2);
+      double invSqrt3 = invSqrt / oneMinusX2;
+      double invSqrt5 = invSqrt3 / oneMinusX2;
+      double invSqrt7 = invSqrt5 / oneMinusX2;
+      asinTable[i] = Math.asin(x);
+      asinDer1Table[i] = invSqrt;
+      asinDer2Table[i] = x * invSqrt3;
+      asinDer3Table[i] = (1 + 2 * x * x) * invSqrt5;
+      asinDer4Table[i] = (6 * x * x * x + 9 * x) * invSqrt7;
+    }
+  }
+
+  private SloppyMath() {
+  }
+
+  /** Approximates {@link Math#sin(double)}. */
+  public static double sin(double a) {
+    if (a < 0)
+      return -sin(-a);
+    if (!(a <= MAX_SIN_COS_ARG))//also NaN
+      return Math.sin(a);
+    int index = (int) (a * SIN_COS_INDEXER + 0.5);
+    double d = a - index * SIN_COS_STEP;
+    index &= SIN_COS_TABLE_SIZE - 1;//the table is periodic
+    double s = sinTable[index];
+    double c = cosTable[index];
+    //sin(x+d) = s + c*d - s*d^2/2 - c*d^3/6 + s*d^4/24
+    return s + d * (c + d * (-s / 2 + d * (-c / 6 + d * s / 24)));
+  }
+
+  /** Approximates {@link Math#cos(double)}. */
+  public static double cos(double a) {
+    if (a < 0)
+      a = -a;
+    if (!(a <= MAX_SIN_COS_ARG))//also NaN
+      return Math.cos(a);
+    int index = (int) (a * SIN_COS_INDEXER + 0.5);
+    double d = a - index * SIN_COS_STEP;
+    index &= SIN_COS_TABLE_SIZE - 1;//the table is periodic
+    double s = sinTable[index];
+    double c = cosTable[index];
+    //cos(x+d) = c - s*d - c*d^2/2 + s*d^3/6 + c*d^4/24
+    return c + d * (-s + d * (-c / 2 + d * (s / 6 + d * c / 24)));
+  }
+
+  /** Approximates {@link Math#asin(double)}. */
+  public static double asin(double x) {
+    if (x < 0)
+      return -asin(-x);
+    if (x <= ASIN_MAX_ARG) {
+      int index = (int) (x * ASIN_INDEXER + 0.5);
+      double d = x - index * ASIN_STEP;
+      return asinTable[index] + d * (asinDer1Table[index] + d * (asinDer2Table[index] / 2
+          + d * (asinDer3Table[index] / 6 + d * asinDer4Table[index] / 24)));
+    }
+    if (x <= 1) {
+      //asin(x) = pi/2 - 2*asin(sqrt((1-x)/2)), whose argument is <= ~0.35
+      return DistanceUtils.DEG_90_AS_RADS - 2 * asin(Math.sqrt((1 - x) * 0.5));
+    }
+    return Double.NaN;//also for NaN
+  }
+
+  /** Approximates {@link Math#acos(double)}. */
+  public static double acos(double x) {
+    return DistanceUtils.DEG_90_AS_RADS - asin(x);
+  }
+
+  /** Approximates {@link Math#atan2(double, double)}, for finite arguments. */
+  public static double atan2(double y, double x) {
+    double absY = Math.abs(y);
+    double absX = Math.abs(x);
+    if (absY == 0 || absX == 0)
+      return Math.atan2(y, x);//on an axis; the sign of zeros matters
+    double r = Math.sqrt(x * x + y * y);
+    //the angle from the x axis in [0, pi/2]; asin's argument is kept <= sqrt(1/2) for accuracy
+    double a = absY <= absX ? asin(absY / r) : DistanceUtils.DEG_90_AS_RADS - asin(absX / r);
+    if (x < 0)
+      a = Math.PI - a;
+    return y < 0 ? -a : a;
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.index;
+
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.SpatialRelation;
+import com.spatial4j.core.shape.impl.RectangleImpl;
+
+/**
+ * Lazily descends the cells of a {@link SpatialPrefixTree} that a shape intersects, depth-first in
+ * cell order, from level 1. Each cell is related to the shape once: a cell the shape is
+ * {@link SpatialRelation#DISJOINT} with is skipped; one it {@link SpatialRelation#CONTAINS}, or at
+ * the detail level, is a leaf; any other is followed by its sub-cells (unless
+ * {@link #skipChildren()}). The current cell is exposed by the iterator itself, and its bounds by a
+ * single reused Rectangle, so iterating creates no objects.
+ * <p/>
+ * Usage: {@code while (iter.next()) { ... iter.getLevel() ... }}. Not thread-safe.
+ */
+public class CellIterator {
+
+  private final SpatialPrefixTree tree;
+  private final Shape shape;
+  private final int detailLevel;
+  private final int bitsPerLevel;
+  private final int subCells;
+  private final Rectangle rect;
+
+  /** Per depth: the id of the cell whose sub-cells are being iterated, and the next one's index. */
+  private final long[] parentIds;
+  private final int[] nextChild;
+  private int depth;//of the cell whose sub-cells are being iterated; the root is 0
+
+  private long id;
+  private int level;//0 when not positioned
+  private SpatialRelation rel;
+  private boolean descend;
+
+  CellIterator(SpatialPrefixTree tree, Shape shape, int detailLevel) {
+    if (detailLevel < 1 || detailLevel > tree.getMaxLevels())
+      throw new IllegalArgumentException("detailLevel must be from 1 to "+tree.getMaxLevels()+": "+detailLevel);
+    this.tree = tree;
+    this.shape = shape;
+    this.detailLevel = detailLevel;
+    this.bitsPerLevel = tree.getBitsPerLevel();
+    this.subCells = 1 << bitsPerLevel;
+    this.rect = new RectangleImpl(0, 0, 0, 0, tree.getCtx());
+    this.parentIds = new long[detailLevel];
+    this.nextChild = new int[detailLevel];
+  }
+
+  /** Moves to the next intersecting cell, returning false when there are no more. */
+  public boolean next() {
+    if (descend) {
+      depth++;
+      parentIds[depth] = id;
+      nextChild[depth] = 0;
+      descend = false;
+    }
+    while (depth >= 0) {
+      if (nextChild[depth] == subCells) {
+        depth--;
+        continue;
+      }
+      final long child = (parentIds[depth] << bitsPerLevel) | nextChild[depth]++;
+      final int childLevel = depth + 1;
+      SpatialRelation childRel = shape.relate(tree.getCellBounds(child, childLevel, rect));
+      if (childRel == SpatialRelation.DISJOINT)
+        continue;
+      this.id = child;
+      this.level = childLevel;
+      this.rel = childRel;
+      this.descend = !isLeaf();
+      return true;
+    }
+    level = 0;
+    return false;
+  }
+
+  /** Don't iterate the sub-cells of the current cell. */
+  public void skipChildren() {
+    descend = false;
+  }
+
+  public SpatialPrefixTree getTree() {
+    return tree;
+  }
+
+  public int getDetailLevel() {
+    return detailLevel;
+  }
+
+  /** The current cell's id; see {@link SpatialPrefixTree}. */
+  public long getId() {
+    return id;
+  }
+
+  /** The current cell's level, from 1 to the detail level. */
+  public int getLevel() {
+    return level;
+  }
+
+  /** The shape's relation to the current cell: CONTAINS, WITHIN or INTERSECTS. */
+  public SpatialRelation getShapeRel() {
+    return rel;
+  }
+
+  /** Whether the current cell is contained by the shape or at the detail level. */
+  public boolean isLeaf() {
+    return rel == SpatialRelation.CONTAINS || level == detailLevel;
+  }
+
+  /** The current cell's bounds; the same instance is reused for every cell. */
+  public Rectangle getRectangle() {
+    return rect;
+  }
+
+  /** The current cell's token; see {@link SpatialPrefixTree#getToken(long, int)}. */
+  public String getToken() {
+    return tree.getToken(id, level);
+  }
+}
@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.index;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.distance.DistanceCalculator;
+import com.spatial4j.core.distance.DistanceFunction;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.impl.RectangleImpl;
+
+/**
+ * Finds the k nearest neighbors to a query point among a set of points given as parallel
+ * primitive arrays of x and y. The points are bucketed into a uniform grid over their bounding
+ * box. A search computes the bounding box of a circle around the query with
+ * {@link DistanceCalculator#calcBoxByDistFromPt(com.spatial4j.core.shape.Point, double, com.spatial4j.core.context.SpatialContext, com.spatial4j.core.shape.Rectangle)},
+ * offers the points in the grid cells it touches to a {@link NeighborQueue}, and doubles the radius
+ * until the k-th nearest one is within it, at which point no unseen point can be nearer. Points are
+ * ranked by {@link DistanceFunction#sortKey(double, double)}; only the k results get their distance
+ * computed.
+ * <p/>
+ * The distances are whatever the {@link DistanceCalculator} returns; e.g. with a "squared"
+ * {@link com.spatial4j.core.distance.CartesianDistCalc} they are squared.
+ * <p/>
+ * Immutable & thread-safe; the arrays are copied by reference and must not be modified.
+ */
+public class KNearestNeighbors {
+
+  /** The average number of points per grid cell that the grid is sized for. */
+  private static final int POINTS_PER_CELL = 4;
+
+  private final SpatialContext ctx;
+  private final DistanceCalculator calc;
+  private final double[] xs;
+  private final double[] ys;
+  private final int numPoints;//not counting NaN ones
+
+  //the grid
+  private final double minX, minY, maxX, maxY;
+  private final int cellsX, cellsY;
+  private final double cellWidth, cellHeight;
+  /** The point ids of cell c are cellIds[cellStart[c]] to cellIds[cellStart[c+1]-1]. */
+  private final int[] cellStart;
+  private final int[] cellIds;
+
+  /** Uses the context's {@link com.spatial4j.core.context.SpatialContext#getDistCalc()}. */
+  public KNearestNeighbors(double[] xs, double[] ys, SpatialContext ctx) {
+    this(xs, ys, ctx.getDistCalc(), ctx);
+  }
+
+  /**
+   * @param xs The x coordinates, by point id. Copied by reference!
+   * @param ys The y coordinates, by point id; the same length as xs. Copied by reference!
+   *           A point with a NaN coordinate is never a neighbor.
+   */
+  public KNearestNeighbors(double[] xs, double[] ys, DistanceCalculator calc, SpatialContext ctx) {
+    if (xs.length != ys.length)
+      throw new IllegalArgumentException("xs and ys lengths differ: "+xs.length+" != "+ys.length);
+    this.ctx = ctx;
+    this.calc = calc;
+    this.xs = xs;
+    this.ys = ys;
+
+    double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+    int numPoints = 0;
+    for (int id = 0; id < xs.length; id++) {
+      if (Double.isNaN(xs[id]) || Double.isNaN(ys[id]))
+        continue;
+      numPoints++;
+      minX = Math.min(minX, xs[id]);
+      maxX = Math.max(maxX, xs[id]);
+      minY = Math.min(minY, ys[id]);
+      maxY = Math.max(maxY, ys[id]);
+    }
+    this.numPoints = numPoints;
+    if (numPoints == 0) {
+      minX = maxX = minY = maxY = 0;
+    }
+    this.minX = minX;
+    this.maxX = maxX;
+    this.minY = minY;
+    this.maxY = maxY;
+
+    //size the grid so the cells are roughly square
+    int numCells = Math.max(1, numPoints / POINTS_PER_CELL);
+    double width = maxX - minX;
+    double height = maxY - minY;
+    if (width > 0 && height > 0) {
+      this.cellsX = clampCells(Math.sqrt(numCells * width / height), numCells);
+      this.cellsY = clampCells((double) numCells / cellsX, numCells);
+    } else if (width > 0) {
+      this.cellsX = numCells;
+      this.cellsY = 1;
+    } else {
+      this.cellsX = 1;
+      this.cellsY = height > 0 ? numCells : 1;
+    }
+    this.cellWidth = width / cellsX;
+    this.cellHeight = height / cellsY;
+
+    //counting sort of the ids by cell
+    this.cellStart = new int[cellsX * cellsY + 1];
+    this.cellIds = new int[numPoints];
+    for (int id = 0; id < xs.length; id++) {
+      if (Double.isNaN(xs[id]) || Double.isNaN(ys[id]))
+        continue;
+      cellStart[cell(xs[id], ys[id]) + 1]++;
+    }
+    for (int c = 1; c < cellStart.length; c++) {
+      cellStart[c] += cellStart[c - 1];
+    }
+    int[] next = new int[cellsX * cellsY];
+    System.arraycopy(cellStart, 0, next, 0, next.length);
+    for (int id = 0; id < xs.length; id++) {
+      if (Double.isNaN(xs[id]) || Double.isNaN(ys[id]))
+        continue;
+      cellIds[next[cell(xs[id], ys[id])]++] = id;
+    }
+  }
+
+  private static int clampCells(double cells, int numCells) {
+    return (int) Math.max(1, Math.min(cells, numCells));
+  }
+
+  private int cell(double x, double y) {
+    return cellY(y) * cellsX + cellX(x);
+  }
+
+  private int cellX(double x) {
+    if (cellWidth == 0)
+      return 0;
+    return Math.max(0, Math.min(cellsX - 1, (int) ((x - minX) / cellWidth)));
+  }
+
+  private int cellY(double y) {
+    if (cellHeight == 0)
+      return 0;
+    return Math.max(0, Math.min(cellsY - 1, (int) ((y - minY) / cellHeight)));
+  }
+
+  public SpatialContext getCtx() {
+    return ctx;
+  }
+
+  public DistanceCalculator getDistCalc() {
+    return calc;
+  }
+
+  /** The number of points, including any with NaN coordinates. */
+  public int size() {
+    return xs.length;
+  }
+
+  /**
+   * Finds the {@code k} nearest points to {@code query}.
+   * @return A new queue with up to k neighbors; see {@link NeighborQueue#drainTo(int[], double[])}.
+   */
+  public NeighborQueue search(Point query, int k) {
+    return search(query, new NeighborQueue(k));
+  }
+
+  /**
+   * Finds the {@link NeighborQueue#capacity()} nearest points to {@code query}, replacing the
+   * contents of {@code queue}, which is returned.
+   */
+  public NeighborQueue search(Point query, NeighborQueue queue) {
+    queue.clear();
+    if (numPoints == 0 || query.isEmpty())
+      return queue;
+    final DistanceFunction distance = calc.from(query);
+    final double maxRadius = maxRadius(query);
+    double radius = initialRadius(queue.capacity(), maxRadius);
+    Rectangle box = new RectangleImpl(0, 0, 0, 0, ctx);
+    while (true) {
+      queue.clear();
+      if (radius >= maxRadius) {//everything
+        collect(distance, minX, maxX, minY, maxY, queue);
+        return toDistances(distance, queue);
+      }
+      calc.calcBoxByDistFromPt(query, radius, ctx, box);
+      if (ctx.isGeo() && box.getCrossesDateLine()) {
+        collect(distance, box.getMinX(), 180, box.getMinY(), box.getMaxY(), queue);
+        collect(distance, -180, box.getMaxX(), box.getMinY(), box.getMaxY(), queue);
+      } else {
+        collect(distance, box.getMinX(), box.getMaxX(), box.getMinY(), box.getMaxY(), queue);
+        //-180 and 180 are the same meridian (unless the box is the whole world; then it's seen)
+        if (ctx.isGeo() && box.getWidth() < 360) {
+          if (box.getMinX() == -180)
+            collect(distance, 180, 180, box.getMinY(), box.getMaxY(), queue);
+          else if (box.getMaxX() == 180)
+            collect(distance, -180, -180, box.getMinY(), box.getMaxY(), queue);
+        }
+      }
+      //every point within radius has been seen, so if the furthest retained one is within it then
+      // no unseen point can be nearer
+      if (queue.isFull()) {
+        int furthest = queue.topId();
+        if (calc.within(query, xs[furthest], ys[furthest], radius))
+          return toDistances(distance, queue);
+      }
+      radius *= 2;
+    }
+  }
+
+  /** Replaces the sort keys in the queue with the distances. */
+  private NeighborQueue toDistances(DistanceFunction distance, NeighborQueue queue) {
+    int[] ids = new int[queue.size()];
+    double[] keys = new double[queue.size()];
+    int count = queue.drainTo(ids, keys);
+    for (int i = 0; i < count; i++) {
+      queue.offer(ids[i], distance.distance(xs[ids[i]], ys[ids[i]]));
+    }
+    return queue;
+  }
+
+  /** A radius at which no point can be further. */
+  private double maxRadius(Point query) {
+    if (ctx.isGeo())
+      return 180;
+    double dx = Math.max(Math.abs(query.getX() - minX), Math.abs(query.getX() - maxX));
+    double dy = Math.max(Math.abs(query.getY() - minY), Math.abs(query.getY() - maxY));
+    return Math.sqrt(dx * dx + dy * dy);
+  }
+
+  /** The radius of a circle expected to hold k points if they were uniformly distributed. */
+  private double initialRadius(int k, double maxRadius) {
+    double area = (maxX - minX) * (maxY - minY);
+    double radius = Math.sqrt(area * k / numPoints / Math.PI);
+    if (!(radius > 0))//0 or NaN
+      return maxRadius;
+    return radius;
+  }
+
+  /** Offers the points in the given box (not crossing the dateline) to the queue. */
+  private void collect(DistanceFunction distance, double bMinX, double bMaxX, double bMinY, double bMaxY,
+                       NeighborQueue queue) {
+    if (bMinX > maxX || bMaxX < minX || bMinY > maxY || bMaxY < minY)
+      return;
+    int cx0 = cellX(bMinX), cx1 = cellX(bMaxX);
+    int cy0 = cellY(bMinY), cy1 = cellY(bMaxY);
+    for (int cy = cy0; cy <= cy1; cy++) {
+      for (int cx = cx0; cx <= cx1; cx++) {
+        int c = cy * cellsX + cx;
+        for (int i = cellStart[c]; i < cellStart[c + 1]; i++) {
+          int id = cellIds[i];
+          double x = xs[id];
+          double y = ys[id];
+          //the cells may extend beyond the box; and both halves of a box split at the dateline
+          // might share a cell, which mustn't offer a point twice
+          if (x < bMinX || x > bMaxX || y < bMinY || y > bMaxY)
+            continue;
+          queue.offer(id, distance.sortKey(x, y));
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "KNearestNeighbors(" + xs.length + " points, " + cellsX + "x" + cellsY + " grid, " + calc + ")";
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.index;
+
+/**
+ * A bounded priority queue of (id, distance) pairs that retains the nearest ones, held in
+ * primitive arrays so that nothing is boxed. It's a binary max-heap: the furthest retained pair
+ * is at the top, so that it can be replaced when a nearer one is offered. Ties on distance are
+ * broken by the id; the lower id is considered nearer.
+ * <p/>
+ * Not thread-safe; it can be reused with {@link #clear()}.
+ */
+public class NeighborQueue {
+
+  private final int[] ids;
+  private final double[] distances;
+  private int size;
+
+  /** @param capacity The maximum number of neighbors to retain ("k"); >= 1. */
+  public NeighborQueue(int capacity) {
+    if (capacity < 1)
+      throw new IllegalArgumentException("capacity must be >= 1: "+capacity);
+    this.ids = new int[capacity];
+    this.distances = new double[capacity];
+  }
+
+  public int capacity() {
+    return ids.length;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isFull() {
+    return size == ids.length;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  /** The id of the furthest retained neighbor. The queue must not be empty. */
+  public int topId() {
+    assert size > 0;
+    return ids[0];
+  }
+
+  /** The distance of the furthest retained neighbor. The queue must not be empty. */
+  public double topDistance() {
+    assert size > 0;
+    return distances[0];
+  }
+
+  /**
+   * Retains the neighbor if the queue isn't full yet or if it's nearer than the furthest one,
+   * which is then dropped.
+   * @return true if it was retained.
+   */
+  public boolean offer(int id, double distance) {
+    if (size < ids.length) {
+      //sift up
+      int i = size++;
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (!greater(id, distance, ids[parent], distances[parent]))
+          break;
+        ids[i] = ids[parent];
+        distances[i] = distances[parent];
+        i = parent;
+      }
+      ids[i] = id;
+      distances[i] = distance;
+      return true;
+    }
+    if (!greater(ids[0], distances[0], id, distance))
+      return false;
+    siftDown(id, distance, size);
+    return true;
+  }
+
+  /** Puts (id, distance) in place of the top, restoring the heap within [0, end). */
+  private void siftDown(int id, double distance, int end) {
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= end)
+        break;
+      if (child + 1 < end && greater(ids[child + 1], distances[child + 1], ids[child], distances[child]))
+        child++;
+      if (!greater(ids[child], distances[child], id, distance))
+        break;
+      ids[i] = ids[child];
+      distances[i] = distances[child];
+      i = child;
+    }
+    ids[i] = id;
+    distances[i] = distance;
+  }
+
+  private static boolean greater(int idA, double distA, int idB, double distB) {
+    return distA > distB || (distA == distB && idA > idB);
+  }
+
+  /**
+   * Removes all the neighbors, writing them nearest first into the given arrays, which must have
+   * room for {@link #size()} of them.
+   * @return The number of neighbors written.
+   */
+  public int drainTo(int[] idsOut, double[] distancesOut) {
+    final int count = size;
+    //heap sort, in place: repeatedly move the top to the end
+    for (int end = size - 1; end > 0; end--) {
+      int topId = ids[0];
+      double topDist = distances[0];
+      siftDown(ids[end], distances[end], end);
+      ids[end] = topId;
+      distances[end] = topDist;
+    }
+    System.arraycopy(ids, 0, idsOut, 0, count);
+    System.arraycopy(distances, 0, distancesOut, 0, count);
+    size = 0;
+    return count;
+  }
+
+  @Override
+  public String toString() {
+    return "NeighborQueue(" + size + " of " + ids.length + ")";
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.index;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.distance.DistanceCalculator;
+import com.spatial4j.core.distance.DistanceFunction;
+import com.spatial4j.core.shape.Circle;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.impl.PointCursor;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A compact store of points as two columns of doubles (x &amp; y), identified by their position
+ * ("id"). Compared to a list of {@link Point} objects it needs just 16 bytes per point instead
+ * of several dozen, and scanning it is cache friendly. It can find the ids of the points in a
+ * {@link Rectangle} or {@link Circle} without creating any Point. See
+ * {@link com.spatial4j.core.io.BinaryCodec#readPointStore(java.io.DataInput)} to load one.
+ * <p/>
+ * Immutable &amp; thread-safe; use a {@link Builder} to create one incrementally.
+ */
+public class PointStore {
+
+  private final SpatialContext ctx;
+  private final double[] xs;
+  private final double[] ys;
+
+  /**
+   * @param xs The x coordinates, by id. Copied by reference!
+   * @param ys The y coordinates, by id; the same length as xs. Copied by reference!
+   */
+  public PointStore(double[] xs, double[] ys, SpatialContext ctx) {
+    if (xs.length != ys.length)
+      throw new IllegalArgumentException("xs and ys lengths differ: "+xs.length+" != "+ys.length);
+    this.ctx = ctx;
+    this.xs = xs;
+    this.ys = ys;
+  }
+
+  public SpatialContext getCtx() {
+    return ctx;
+  }
+
+  public int size() {
+    return xs.length;
+  }
+
+  public double getX(int id) {
+    return xs[id];
+  }
+
+  public double getY(int id) {
+    return ys[id];
+  }
+
+  /** Creates a Point for the id; it's better to avoid this in a loop. */
+  public Point makePoint(int id) {
+    return ctx.makePoint(xs[id], ys[id]);
+  }
+
+  /**
+   * A new read-only {@link PointCursor} over the points, to pass them to APIs that take a Point
+   * without creating one for each.
+   */
+  public PointCursor cursor() {
+    return new PointCursor(DoubleBuffer.wrap(xs).asReadOnlyBuffer(),
+        DoubleBuffer.wrap(ys).asReadOnlyBuffer(), 1, ctx);
+  }
+
+  /** A new {@link KNearestNeighbors} over these points. */
+  public KNearestNeighbors makeKNearestNeighbors() {
+    return new KNearestNeighbors(xs, ys, ctx);
+  }
+
+  /**
+   * Sets the bits of the ids of the points in {@code rect}, the same as
+   * {@link Rectangle#relate(com.spatial4j.core.shape.Shape)} would, including when it crosses
+   * the dateline. Other bits aren't cleared.
+   * @return The number of points found.
+   */
+  public int filter(Rectangle rect, BitSet result) {
+    if (rect.isEmpty())
+      return 0;
+    final double minY = rect.getMinY();
+    final double maxY = rect.getMaxY();
+    final double minX = rect.getMinX();
+    double maxX = rect.getMaxX();
+    final boolean geo = ctx.isGeo();
+    if (geo && maxX < minX)//unwrap the dateline, like RectangleImpl.relate(Point)
+      maxX += 360;
+    int count = 0;
+    for (int id = 0; id < xs.length; id++) {
+      if (contains(minX, maxX, minY, maxY, geo, xs[id], ys[id])) {
+        result.set(id);
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** See RectangleImpl.relate(Point); maxX is unwrapped (might exceed 180). */
+  private static boolean contains(double minX, double maxX, double minY, double maxY, boolean geo,
+                                  double x, double y) {
+    if (y > maxY || y < minY)
+      return false;
+    if (geo) {
+      //shift to potentially overlap
+      if (x < minX) {
+        x += 360;
+      } else if (x > maxX) {
+        x -= 360;
+      } else {
+        return true;
+      }
+    }
+    return x >= minX && x <= maxX;
+  }
+
+  /**
+   * Sets the bits of the ids of the points in {@code circle}, i.e. within its radius of the center
+   * like {@link Circle#relate(com.spatial4j.core.shape.Shape)}, but only checking those in its
+   * bounding box. The distances are measured by a {@link DistanceFunction} from
+   * {@link DistanceCalculator#from(com.spatial4j.core.shape.Point)}, so the center's trigonometry
+   * is computed once, and compared via {@link DistanceFunction#within(double, double, double)} so
+   * that a squared cartesian calculator agrees with the circle. Other bits aren't cleared.
+   * @return The number of points found.
+   */
+  public int filter(Circle circle, BitSet result) {
+    if (circle.isEmpty())
+      return 0;
+    final DistanceFunction distance = ctx.getDistCalc().from(circle.getCenter());
+    final double radius = circle.getRadius();
+    final Rectangle bbox = circle.getBoundingBox();
+    final double minY = bbox.getMinY();
+    final double maxY = bbox.getMaxY();
+    final double minX = bbox.getMinX();
+    double maxX = bbox.getMaxX();
+    final boolean geo = ctx.isGeo();
+    if (geo && maxX < minX)
+      maxX += 360;
+    int count = 0;
+    for (int id = 0; id < xs.length; id++) {
+      double x = xs[id];
+      double y = ys[id];
+      if (contains(minX, maxX, minY, maxY, geo, x, y) && distance.within(x, y, radius)) {
+        result.set(id);
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** The ids of the points in {@code rect}, ascending. */
+  public int[] filter(Rectangle rect) {
+    BitSet bits = new BitSet(xs.length);
+    return toIds(bits, filter(rect, bits));
+  }
+
+  /** The ids of the points in {@code circle}, ascending. */
+  public int[] filter(Circle circle) {
+    BitSet bits = new BitSet(xs.length);
+    return toIds(bits, filter(circle, bits));
+  }
+
+  private static int[] toIds(BitSet bits, int count) {
+    int[] ids = new int[count];
+    int i = 0;
+    for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+      ids[i++] = id;
+    }
+    return ids;
+  }
+
+  @Override
+  public String toString() {
+    return "PointStore(" + xs.length + " points)";
+  }
+
+  /** Accumulates points for a {@link PointStore}. Not thread-safe. */
+  public static class Builder {
+    private final SpatialContext ctx;
+    private double[] xs;
+    private double[] ys;
+    private int size;
+
+    public Builder(SpatialContext ctx) {
+      this(ctx, 16);
+    }
+
+    public Builder(SpatialContext ctx, int initialCapacity) {
+      this.ctx = ctx;
+      this.xs = new double[Math.max(1, initialCapacity)];
+      this.ys = new double[xs.length];
+    }
+
+    /** Adds a point, returning its id. */
+    public int add(double x, double y) {
+      if (size == xs.length) {
+        int newCapacity = xs.length + (xs.length >> 1) + 1;
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+      }
+      xs[size] = x;
+      ys[size] = y;
+      return size++;
+    }
+
+    public int size() {
+      return size;
+    }
+
+    /** Builds the store; the builder shouldn't be used afterwards. */
+    public PointStore build() {
+      if (size != xs.length) {
+        xs = Arrays.copyOf(xs, size);
+        ys = Arrays.copyOf(ys, size);
+      }
+      return new PointStore(xs, ys, ctx);
+    }
+  }
+}
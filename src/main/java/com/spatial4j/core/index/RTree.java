@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.index;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.SpatialRelation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable in-memory R-Tree of shapes keyed by their bounding box, bulk loaded with the
+ * Sort-Tile-Recursive (STR) algorithm. STR packs the nodes completely full and keeps nearby shapes
+ * together, which makes for a small and fast tree when all the shapes are known up-front (the
+ * tree can't be modified afterwards).
+ * <p/>
+ * In a geospatial context, bounding boxes that cross the dateline (see
+ * {@link Rectangle#getCrossesDateLine()}) are indexed as two pieces either side of it, and so are
+ * query rectangles, which means that no part of the tree needs to know about the dateline.
+ * <p/>
+ * Shapes are identified by their position ("id") in the list given to the constructor, and
+ * results are always returned in that order. Empty shapes aren't indexed; they are only ever
+ * DISJOINT.
+ * <p/>
+ * Immutable & thread-safe, assuming the shapes are too.
+ */
+public class RTree<S extends Shape> {
+
+  public static final int DEFAULT_NODE_CAPACITY = 16;
+
+  private final SpatialContext ctx;
+  private final List<S> shapes;
+  private final int nodeCapacity;
+
+  /** Index entries in STR order; {@link Boxes#ref} is the shape id. */
+  private final Boxes entries;
+  /** The node levels going up from the entries; the last level is the root, having one node.
+   * {@link Boxes#ref} is the start of the child range at the level below. */
+  private final Boxes[] levels;
+
+  /**
+   * Builds the tree with {@link #DEFAULT_NODE_CAPACITY}.
+   * @param shapes Copied by reference! It must implement {@link RandomAccess}.
+   */
+  public RTree(List<S> shapes, SpatialContext ctx) {
+    this(shapes, DEFAULT_NODE_CAPACITY, ctx);
+  }
+
+  /**
+   * Builds the tree.
+   * @param shapes Copied by reference! It must implement {@link RandomAccess}.
+   * @param nodeCapacity The maximum number of children of a node; >= 2.
+   */
+  public RTree(List<S> shapes, int nodeCapacity, SpatialContext ctx) {
+    if (!(shapes instanceof RandomAccess))
+      throw new IllegalArgumentException("Shapes arg must implement RandomAccess: "+shapes.getClass());
+    if (nodeCapacity < 2)
+      throw new IllegalArgumentException("nodeCapacity must be >= 2: "+nodeCapacity);
+    this.ctx = ctx;
+    this.shapes = shapes;
+    this.nodeCapacity = nodeCapacity;
+    this.entries = buildEntries();
+    this.levels = buildLevels();
+  }
+
+  private Boxes buildEntries() {
+    //first pass: count the pieces
+    int count = 0;
+    for (S shape : shapes) {
+      Rectangle r = shape.getBoundingBox();
+      if (r.isEmpty())
+        continue;
+      count += (ctx.isGeo() && r.getCrossesDateLine()) ? 2 : 1;
+    }
+    Boxes pieces = new Boxes(count, false);
+    int p = 0;
+    for (int id = 0; id < shapes.size(); id++) {
+      Rectangle r = shapes.get(id).getBoundingBox();
+      if (r.isEmpty())
+        continue;
+      if (ctx.isGeo() && r.getCrossesDateLine()) {
+        pieces.set(p++, r.getMinX(), 180, r.getMinY(), r.getMaxY(), id);
+        pieces.set(p++, -180, r.getMaxX(), r.getMinY(), r.getMaxY(), id);
+      } else {
+        pieces.set(p++, r.getMinX(), r.getMaxX(), r.getMinY(), r.getMaxY(), id);
+      }
+    }
+    return pieces.reorder(strOrder(pieces));
+  }
+
+  private Boxes[] buildLevels() {
+    List<Boxes> levelList = new ArrayList<Boxes>();
+    Boxes below = entries;
+    while (below.size > 1 || (levelList.isEmpty() && below.size == 1)) {
+      int size = (below.size + nodeCapacity - 1) / nodeCapacity;
+      Boxes level = new Boxes(size, true);
+      for (int n = 0; n < size; n++) {
+        int start = n * nodeCapacity;
+        int end = Math.min(start + nodeCapacity, below.size);
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int c = start; c < end; c++) {
+          minX = Math.min(minX, below.minX[c]);
+          maxX = Math.max(maxX, below.maxX[c]);
+          minY = Math.min(minY, below.minY[c]);
+          maxY = Math.max(maxY, below.maxY[c]);
+        }
+        level.set(n, minX, maxX, minY, maxY, start);
+        level.refEnd[n] = end;
+      }
+      if (size > 1)
+        level = level.reorder(strOrder(level));//so that the next level groups nearby nodes
+      levelList.add(level);
+      below = level;
+    }
+    return levelList.toArray(new Boxes[levelList.size()]);
+  }
+
+  /**
+   * The Sort-Tile-Recursive order: sort by x, cut into vertical slices each holding enough boxes
+   * to fill sqrt(numNodes) nodes, then sort each slice by y. Consecutive runs of
+   * {@link #nodeCapacity} are then the nodes of the next level.
+   */
+  private int[] strOrder(Boxes boxes) {
+    final int size = boxes.size;
+    int[] order = new int[size];
+    double[] centerX = new double[size];
+    double[] centerY = new double[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+      centerX[i] = (boxes.minX[i] + boxes.maxX[i]) / 2;
+      centerY[i] = (boxes.minY[i] + boxes.maxY[i]) / 2;
+    }
+    int numNodes = (size + nodeCapacity - 1) / nodeCapacity;
+    int sliceSize = (int) Math.ceil(Math.sqrt(numNodes)) * nodeCapacity;
+    sortByKey(order, 0, size, centerX);
+    for (int start = 0; start < size; start += sliceSize) {
+      sortByKey(order, start, Math.min(start + sliceSize, size), centerY);
+    }
+    return order;
+  }
+
+  public SpatialContext getCtx() {
+    return ctx;
+  }
+
+  /** The shapes given to the constructor; the id of a shape is its index in this list. */
+  public List<S> getShapes() {
+    return shapes;
+  }
+
+  /** The number of shapes, including empty ones. */
+  public int size() {
+    return shapes.size();
+  }
+
+  public int getNodeCapacity() {
+    return nodeCapacity;
+  }
+
+  /**
+   * Finds the shapes whose bounding box intersects {@code rect}, without calling relate() on them.
+   * These are the candidates for any non-DISJOINT relationship with a shape with that bounding box.
+   *
+   * @return Ids of the shapes, ascending. Not null.
+   */
+  public int[] searchBoundingBox(Rectangle rect) {
+    IdCollector collector = new IdCollector();
+    if (levels.length == 0 || rect.isEmpty())
+      return collector.toSortedIds();
+    final int rootLevel = levels.length - 1;//its only node is 0
+    if (ctx.isGeo() && rect.getCrossesDateLine()) {
+      search(rootLevel, 0, rect.getMinX(), 180, rect.getMinY(), rect.getMaxY(), collector);
+      search(rootLevel, 0, -180, rect.getMaxX(), rect.getMinY(), rect.getMaxY(), collector);
+    } else {
+      search(rootLevel, 0, rect.getMinX(), rect.getMaxX(), rect.getMinY(), rect.getMaxY(), collector);
+      //-180 and 180 are the same meridian, so an edge on one touches shapes on the other
+      if (ctx.isGeo() && rect.getMinX() == -180)
+        search(rootLevel, 0, 180, 180, rect.getMinY(), rect.getMaxY(), collector);
+      if (ctx.isGeo() && rect.getMaxX() == 180)
+        search(rootLevel, 0, -180, -180, rect.getMinY(), rect.getMaxY(), collector);
+    }
+    return collector.toSortedIds();
+  }
+
+  private void search(int level, int node, double qMinX, double qMaxX, double qMinY, double qMaxY,
+                      IdCollector collector) {
+    Boxes boxes = levels[level];
+    if (!boxes.intersects(node, qMinX, qMaxX, qMinY, qMaxY))
+      return;
+    int start = boxes.ref[node];
+    int end = boxes.refEnd[node];
+    if (level == 0) {
+      for (int e = start; e < end; e++) {
+        if (entries.intersects(e, qMinX, qMaxX, qMinY, qMaxY))
+          collector.add(entries.ref[e]);
+      }
+    } else {
+      for (int child = start; child < end; child++) {
+        search(level - 1, child, qMinX, qMaxX, qMinY, qMaxY, collector);
+      }
+    }
+  }
+
+  /**
+   * Finds the shapes having the given relationship with {@code queryShape}, meaning
+   * {@code shape.relate(queryShape) == relation}. The bounding boxes are used to avoid calling
+   * relate() for shapes that can't possibly match.
+   *
+   * @return The matching shapes in the order they were given. Not null.
+   */
+  public List<S> query(Shape queryShape, SpatialRelation relation) {
+    if (queryShape.isEmpty()) {
+      return relation == SpatialRelation.DISJOINT ? new ArrayList<S>(shapes) : Collections.<S>emptyList();
+    }
+    final Rectangle queryBBox = queryShape.getBoundingBox();
+    final int[] ids = searchBoundingBox(queryBBox);
+    if (relation == SpatialRelation.DISJOINT) {
+      //everything is a match except candidates that aren't actually disjoint
+      BitSet candidates = new BitSet(shapes.size());
+      for (int id : ids) {
+        candidates.set(id);
+      }
+      List<S> results = new ArrayList<S>(shapes.size() - ids.length);
+      for (int id = 0; id < shapes.size(); id++) {
+        S shape = shapes.get(id);
+        if (!candidates.get(id) || shape.relate(queryShape) == SpatialRelation.DISJOINT)
+          results.add(shape);
+      }
+      return results;
+    }
+    List<S> results = new ArrayList<S>();
+    for (int id : ids) {
+      S shape = shapes.get(id);
+      if (relation == SpatialRelation.WITHIN || relation == SpatialRelation.CONTAINS) {
+        //the bounding boxes must be in the same relationship (or equal)
+        Rectangle shapeBBox = shape.getBoundingBox();
+        SpatialRelation bboxSect = shapeBBox.relate(queryBBox);
+        if (bboxSect != relation && !shapeBBox.equals(queryBBox))
+          continue;
+      }
+      if (shape.relate(queryShape) == relation)
+        results.add(shape);
+    }
+    return results;
+  }
+
+  @Override
+  public String toString() {
+    return "RTree{size=" + shapes.size() + ", levels=" + levels.length + '}';
+  }
+
+  /** Sorts {@code idx[from, to)} by {@code key[idx[i]]}; a quicksort since we don't want to box. */
+  private static void sortByKey(int[] idx, int from, int to, double[] key) {
+    while (to - from > 16) {
+      //median of three pivot
+      int mid = (from + to) >>> 1;
+      double a = key[idx[from]], b = key[idx[mid]], c = key[idx[to - 1]];
+      double pivot = a < b ? (b < c ? b : (a < c ? c : a)) : (a < c ? a : (b < c ? c : b));
+      int i = from, j = to - 1;
+      while (i <= j) {
+        while (key[idx[i]] < pivot) i++;
+        while (key[idx[j]] > pivot) j--;
+        if (i <= j) {
+          int t = idx[i]; idx[i] = idx[j]; idx[j] = t;
+          i++;
+          j--;
+        }
+      }
+      //recurse into the smaller side to bound the stack depth
+      if (j - from < to - i) {
+        sortByKey(idx, from, j + 1, key);
+        from = i;
+      } else {
+        sortByKey(idx, i, to, key);
+        to = j + 1;
+      }
+    }
+    //insertion sort
+    for (int i = from + 1; i < to; i++) {
+      int v = idx[i];
+      double k = key[v];
+      int j = i - 1;
+      for (; j >= from && key[idx[j]] > k; j--) {
+        idx[j + 1] = idx[j];
+      }
+      idx[j + 1] = v;
+    }
+  }
+
+  /** Parallel arrays of boxes; a struct-of-arrays to keep the tree compact. */
+  private static class Boxes {
+    final int size;
+    final double[] minX, maxX, minY, maxY;
+    final int[] ref;
+    final int[] refEnd;//only for nodes
+
+    Boxes(int size, boolean nodes) {
+      this.size = size;
+      minX = new double[size];
+      maxX = new double[size];
+      minY = new double[size];
+      maxY = new double[size];
+      ref = new int[size];
+      refEnd = nodes ? new int[size] : null;
+    }
+
+    void set(int i, double minX, double maxX, double minY, double maxY, int ref) {
+      this.minX[i] = minX;
+      this.maxX[i] = maxX;
+      this.minY[i] = minY;
+      this.maxY[i] = maxY;
+      this.ref[i] = ref;
+    }
+
+    boolean intersects(int i, double qMinX, double qMaxX, double qMinY, double qMaxY) {
+      return !(minX[i] > qMaxX || maxX[i] < qMinX || minY[i] > qMaxY || maxY[i] < qMinY);
+    }
+
+    Boxes reorder(int[] order) {
+      Boxes result = new Boxes(size, refEnd != null);
+      for (int i = 0; i < size; i++) {
+        int o = order[i];
+        result.set(i, minX[o], maxX[o], minY[o], maxY[o], ref[o]);
+        if (refEnd != null)
+          result.refEnd[i] = refEnd[o];
+      }
+      return result;
+    }
+  }
+
+  /** A growable int array of shape ids. */
+  private static class IdCollector {
+    int[] ids = new int[16];
+    int size;
+
+    void add(int id) {
+      if (size == ids.length)
+        ids = Arrays.copyOf(ids, size * 2);
+      ids[size++] = id;
+    }
+
+    /** Sorted and de-duplicated (a shape split at the dateline might be found twice). */
+    int[] toSortedIds() {
+      Arrays.sort(ids, 0, size);
+      int unique = 0;
+      for (int i = 0; i < size; i++) {
+        if (unique == 0 || ids[unique - 1] != ids[i])
+          ids[unique++] = ids[i];
+      }
+      return Arrays.copyOf(ids, unique);
+    }
+  }
+}
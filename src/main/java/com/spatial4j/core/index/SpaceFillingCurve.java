@@ -0,0 +1,337 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.index;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.SpatialRelation;
+import com.spatial4j.core.shape.impl.RectangleImpl;
+
+import java.util.Arrays;
+
+/**
+ * A space-filling curve maps points to long keys such that points near each other tend to have
+ * keys near each other, e.g. to sort points for locality on disk. The context's
+ * {@link SpatialContext#getWorldBounds()} is divided into a grid of 2^order by 2^order cells, and
+ * each cell gets a key from 0 to 4^order - 1 by its position along the curve. A point on the
+ * boundary of two cells is in the upper one.
+ * <p/>
+ * Both curves here are quadrant-recursive: the keys of the cells within any quadrant of the
+ * quad-tree over the grid are contiguous. So {@link #getCoveringRanges(Shape, int)} can find the
+ * key ranges covering a shape by dividing quadrants.
+ * <p/>
+ * Immutable &amp; thread-safe.
+ */
+public abstract class SpaceFillingCurve {
+
+  /** The maximum order; a key then uses 62 bits. */
+  public static final int MAX_ORDER = 31;
+
+  protected final SpatialContext ctx;
+  protected final int order;
+
+  private final double minX, maxX, minY, maxY;
+  private final double cellWidth, cellHeight;
+  private final long numCells;//per side
+
+  protected SpaceFillingCurve(SpatialContext ctx, int order) {
+    if (order < 1 || order > MAX_ORDER)
+      throw new IllegalArgumentException("order must be from 1 to "+MAX_ORDER+": "+order);
+    this.ctx = ctx;
+    this.order = order;
+    Rectangle world = ctx.getWorldBounds();
+    this.minX = world.getMinX();
+    this.maxX = world.getMaxX();
+    this.minY = world.getMinY();
+    this.maxY = world.getMaxY();
+    this.numCells = 1L << order;
+    this.cellWidth = (maxX - minX) / numCells;
+    this.cellHeight = (maxY - minY) / numCells;
+  }
+
+  public SpatialContext getCtx() {
+    return ctx;
+  }
+
+  /** The grid has 2^order cells per side. */
+  public int getOrder() {
+    return order;
+  }
+
+  /** The key of the cell with the given column &amp; row, each from 0 to 2^order - 1. */
+  protected abstract long encodeCell(int cellX, int cellY);
+
+  /** The column (in the high 32 bits) &amp; row (in the low 32 bits) of the key's cell. */
+  protected abstract long decodeCell(long key);
+
+  /** The key of the cell containing the point; coordinates outside the world get the nearest. */
+  public long encode(double x, double y) {
+    return encodeCell(cellIndex(x, minX, maxX, cellWidth), cellIndex(y, minY, maxY, cellHeight));
+  }
+
+  public long encode(Point point) {
+    return encode(point.getX(), point.getY());
+  }
+
+  /**
+   * The bounds of the key's cell, set on {@code reuse} via
+   * {@link Rectangle#reset(double, double, double, double)}, which is returned.
+   */
+  public Rectangle decode(long key, Rectangle reuse) {
+    long cell = decodeCell(key);
+    long cellX = cell >>> 32;
+    long cellY = cell & 0xFFFFFFFFL;
+    reuse.reset(boundary(cellX, minX, maxX, cellWidth), boundary(cellX + 1, minX, maxX, cellWidth),
+        boundary(cellY, minY, maxY, cellHeight), boundary(cellY + 1, minY, maxY, cellHeight));
+    return reuse;
+  }
+
+  /** The lower boundary of the cell at index i; the upper one of the last cell is max. */
+  private double boundary(long i, double min, double max, double cellSize) {
+    return i == numCells ? max : min + i * cellSize;
+  }
+
+  private int cellIndex(double v, double min, double max, double cellSize) {
+    final long maxIndex = numCells - 1;
+    long index = (long) Math.max(0, Math.min(maxIndex, Math.floor((v - min) / cellSize)));//NaN -> 0
+    //the division may have rounded across a boundary; agree with boundary() so decode() holds v
+    while (index > 0 && v < boundary(index, min, max, cellSize))
+      index--;
+    while (index < maxIndex && v >= boundary(index + 1, min, max, cellSize))
+      index++;
+    return (int) index;
+  }
+
+  /**
+   * Ranges of keys that together hold the keys of all points in the shape, as pairs of start
+   * (inclusive) &amp; end (exclusive): {start0, end0, start1, end1, ...}, sorted, with adjacent ones
+   * merged. Starting from the whole grid, the quadrants the shape intersects (but doesn't contain)
+   * are divided level by level for as long as the result stays within {@code maxRanges}. So the
+   * fewer the ranges, the more keys of points outside the shape they hold.
+   */
+  public long[] getCoveringRanges(Shape shape, int maxRanges) {
+    if (maxRanges < 1)
+      throw new IllegalArgumentException("maxRanges must be positive: "+maxRanges);
+    Rectangle reuse = new RectangleImpl(minX, maxX, minY, maxY, ctx);
+    //quadrants as cell column & row at the current level; the contained ones are done
+    Quads contained = new Quads();
+    Quads boundary = new Quads();
+    SpatialRelation rootRel = shape.relate(reuse);
+    if (rootRel == SpatialRelation.DISJOINT)
+      return new long[0];
+    (rootRel == SpatialRelation.CONTAINS ? contained : boundary).add(0, 0, 0);
+
+    for (int level = 0; level < order && boundary.size > 0; level++) {
+      Quads nextContained = new Quads();
+      Quads nextBoundary = new Quads();
+      final int childLevel = level + 1;
+      for (int i = 0; i < boundary.size; i++) {
+        for (int child = 0; child < 4; child++) {
+          long qx = boundary.xs[i] * 2 + (child & 1);
+          long qy = boundary.ys[i] * 2 + (child >> 1);
+          SpatialRelation rel = shape.relate(quadBounds(qx, qy, childLevel, reuse));
+          if (rel == SpatialRelation.CONTAINS)
+            nextContained.add(qx, qy, childLevel);
+          else if (rel != SpatialRelation.DISJOINT)
+            nextBoundary.add(qx, qy, childLevel);
+        }
+      }
+      nextContained.addAll(contained);
+      if (toRanges(nextContained, nextBoundary).length / 2 > maxRanges)
+        break;//over budget; keep this level
+      contained = nextContained;
+      boundary = nextBoundary;
+    }
+    return toRanges(contained, boundary);
+  }
+
+  private Rectangle quadBounds(long qx, long qy, int level, Rectangle reuse) {
+    final int shift = order - level;
+    reuse.reset(boundary(qx << shift, minX, maxX, cellWidth), boundary((qx + 1) << shift, minX, maxX, cellWidth),
+        boundary(qy << shift, minY, maxY, cellHeight), boundary((qy + 1) << shift, minY, maxY, cellHeight));
+    return reuse;
+  }
+
+  /** The sorted &amp; merged key ranges of the quadrants. */
+  private long[] toRanges(Quads a, Quads b) {
+    final int size = a.size + b.size;
+    long[] starts = new long[size];
+    long[] ends = new long[size];
+    for (int i = 0; i < size; i++) {
+      Quads quads = i < a.size ? a : b;
+      int j = i < a.size ? i : i - a.size;
+      //the keys of a quadrant share the prefix of the key of any cell in it, e.g. the lowest
+      final int shift = 2 * (order - quads.levels[j]);
+      final int cellShift = order - quads.levels[j];
+      long prefix = encodeCell((int) (quads.xs[j] << cellShift), (int) (quads.ys[j] << cellShift)) >>> shift;
+      starts[i] = prefix << shift;
+      ends[i] = (prefix + 1) << shift;
+    }
+    //the ranges don't overlap, so sorting the starts & ends separately keeps them paired
+    Arrays.sort(starts);
+    Arrays.sort(ends);
+    long[] ranges = new long[size * 2];
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (count > 0 && ranges[count - 1] == starts[i]) {
+        ranges[count - 1] = ends[i];//merge with the previous
+      } else {
+        ranges[count++] = starts[i];
+        ranges[count++] = ends[i];
+      }
+    }
+    return Arrays.copyOf(ranges, count);
+  }
+
+  /** A growable list of quad-tree quadrants: column, row &amp; level. */
+  private static class Quads {
+    long[] xs = new long[16];
+    long[] ys = new long[16];
+    int[] levels = new int[16];
+    int size;
+
+    void add(long x, long y, int level) {
+      if (size == xs.length) {
+        xs = Arrays.copyOf(xs, size * 2);
+        ys = Arrays.copyOf(ys, size * 2);
+        levels = Arrays.copyOf(levels, size * 2);
+      }
+      xs[size] = x;
+      ys[size] = y;
+      levels[size] = level;
+      size++;
+    }
+
+    void addAll(Quads other) {
+      for (int i = 0; i < other.size; i++) {
+        add(other.xs[i], other.ys[i], other.levels[i]);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(order=" + order + ")";
+  }
+
+  /**
+   * The Morton or Z-order curve: the key interleaves the bits of the column &amp; row, the
+   * column's first. It's the order of geohashes (though those put a point on a boundary in the
+   * lower cell).
+   */
+  public static class Morton extends SpaceFillingCurve {
+
+    public Morton(SpatialContext ctx, int order) {
+      super(ctx, order);
+    }
+
+    @Override
+    protected long encodeCell(int cellX, int cellY) {
+      return (spreadBits(cellX) << 1) | spreadBits(cellY);
+    }
+
+    @Override
+    protected long decodeCell(long key) {
+      return ((long) compactBits(key >>> 1) << 32) | (compactBits(key) & 0xFFFFFFFFL);
+    }
+
+    /** Spreads the low 32 bits of v to the even bits of the result. */
+    public static long spreadBits(int v) {
+      long x = v & 0xFFFFFFFFL;
+      x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+      x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+      x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+      x = (x | (x << 2)) & 0x3333333333333333L;
+      x = (x | (x << 1)) & 0x5555555555555555L;
+      return x;
+    }
+
+    /** The inverse of {@link #spreadBits(int)}: gathers the even bits of x. */
+    public static int compactBits(long x) {
+      x &= 0x5555555555555555L;
+      x = (x | (x >>> 1)) & 0x3333333333333333L;
+      x = (x | (x >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+      x = (x | (x >>> 4)) & 0x00FF00FF00FF00FFL;
+      x = (x | (x >>> 8)) & 0x0000FFFF0000FFFFL;
+      x = (x | (x >>> 16)) & 0x00000000FFFFFFFFL;
+      return (int) x;
+    }
+  }
+
+  /**
+   * The Hilbert curve: consecutive keys are always adjacent cells, so it preserves locality better
+   * than {@link Morton}. It starts at the cell of the world's minimum corner and ends at the one of
+   * its maximum x &amp; minimum y. See <a href="http://en.wikipedia.org/wiki/Hilbert_curve">
+   * Wikipedia</a>.
+   */
+  public static class Hilbert extends SpaceFillingCurve {
+
+    public Hilbert(SpatialContext ctx, int order) {
+      super(ctx, order);
+    }
+
+    @Override
+    protected long encodeCell(int cellX, int cellY) {
+      int x = cellX, y = cellY;
+      long key = 0;
+      for (int s = 1 << (order - 1); s > 0; s >>>= 1) {
+        final int rx = (x & s) != 0 ? 1 : 0;
+        final int ry = (y & s) != 0 ? 1 : 0;
+        key += (long) s * s * ((3 * rx) ^ ry);
+        //rotate the quadrant so the sub-curve has the orientation of the whole; only the bits below
+        // s matter from here on
+        if (ry == 0) {
+          if (rx == 1) {
+            x ^= s - 1;
+            y ^= s - 1;
+          }
+          int t = x;
+          x = y;
+          y = t;
+        }
+      }
+      return key;
+    }
+
+    @Override
+    protected long decodeCell(long key) {
+      int x = 0, y = 0;
+      long t = key;
+      for (int i = 0; i < order; i++) {
+        final int s = 1 << i;
+        final int rx = (int) (1 & (t >>> 1));
+        final int ry = (int) (1 & (t ^ rx));
+        if (ry == 0) {
+          if (rx == 1) {
+            x = s - 1 - x;
+            y = s - 1 - y;
+          }
+          int tmp = x;
+          x = y;
+          y = tmp;
+        }
+        x += s * rx;
+        y += s * ry;
+        t >>>= 2;
+      }
+      return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.index;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.io.GeohashUtils;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+
+/**
+ * A hierarchical grid of cells over the world, in the manner of Lucene's SpatialPrefixTree: each
+ * cell at one level is divided into a fixed number of cells at the next, down to
+ * {@link #getMaxLevels()}. A cell is identified by its level and an id holding the index of each
+ * of its ancestors' sub-cells (and its own) in {@link #getBitsPerLevel()} bits per level.
+ * {@link #iterateCells(Shape, double)} descends the cells that a shape intersects.
+ * <p/>
+ * Immutable &amp; thread-safe.
+ */
+public abstract class SpatialPrefixTree {
+
+  protected final SpatialContext ctx;
+  protected final int maxLevels;
+
+  protected SpatialPrefixTree(SpatialContext ctx, int maxLevels) {
+    if (maxLevels < 1 || maxLevels * getBitsPerLevel() > 62)
+      throw new IllegalArgumentException("maxLevels must be from 1 to "+62/getBitsPerLevel()+": "+maxLevels);
+    this.ctx = ctx;
+    this.maxLevels = maxLevels;
+  }
+
+  public SpatialContext getCtx() {
+    return ctx;
+  }
+
+  public int getMaxLevels() {
+    return maxLevels;
+  }
+
+  /** The bits of a cell id per level; a cell has 2^bits sub-cells. */
+  public abstract int getBitsPerLevel();
+
+  /**
+   * The bounds of the cell, set on {@code reuse} via
+   * {@link Rectangle#reset(double, double, double, double)}, which is returned.
+   */
+  public abstract Rectangle getCellBounds(long id, int level, Rectangle reuse);
+
+  /** A String for the cell that sorts &amp; prefixes as the cells do, e.g. the geohash. */
+  public abstract String getToken(long id, int level);
+
+  /**
+   * The shallowest level whose cells are smaller than {@code dist} in both dimensions, or
+   * {@link #getMaxLevels()} if none are or the distance is 0.
+   */
+  public abstract int getLevelForDistance(double dist);
+
+  /**
+   * The distance (in degrees, for geo) that a shape may be approximated by, given a fraction of
+   * the distance from the center of its bounding box to a corner. It's 0 for a point. This is
+   * the same as Lucene's SpatialArgs.calcDistanceFromErrPct().
+   *
+   * @param distErrPct From 0 to 0.5.
+   */
+  public static double calcDistanceFromErrPct(Shape shape, double distErrPct, SpatialContext ctx) {
+    if (distErrPct < 0 || distErrPct > 0.5)
+      throw new IllegalArgumentException("distErrPct " + distErrPct + " must be between [0 to 0.5]");
+    if (distErrPct == 0 || shape instanceof Point)
+      return 0;
+    Rectangle bbox = shape.getBoundingBox();
+    //the corner furthest from the equator is the furthest from the center
+    Point ctr = bbox.getCenter();
+    double y = (ctr.getY() >= 0 ? bbox.getMaxY() : bbox.getMinY());
+    double diagonalDist = ctx.getDistCalc().distance(ctr, bbox.getMaxX(), y);
+    return diagonalDist * distErrPct;
+  }
+
+  /**
+   * Iterates the cells that the shape intersects, down to the level for the distance from
+   * {@link #calcDistanceFromErrPct(Shape, double, SpatialContext)}.
+   */
+  public CellIterator iterateCells(Shape shape, double distErrPct) {
+    return iterateCells(shape, getLevelForDistance(calcDistanceFromErrPct(shape, distErrPct, ctx)));
+  }
+
+  /** Iterates the cells that the shape intersects, down to {@code detailLevel}. */
+  public CellIterator iterateCells(Shape shape, int detailLevel) {
+    return new CellIterator(this, shape, detailLevel);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(maxLevels=" + maxLevels + ")";
+  }
+
+  /**
+   * Divides the world bounds into 4 at each level; cell ids are {@link SpaceFillingCurve.Morton}
+   * keys of the cells at the level's grid. The tokens use 'A' to 'D' per level.
+   */
+  public static class Quad extends SpatialPrefixTree {
+
+    public static final int MAX_LEVELS = 31;
+
+    private final double minX, maxX, minY, maxY;
+
+    public Quad(SpatialContext ctx, int maxLevels) {
+      super(ctx, maxLevels);
+      Rectangle world = ctx.getWorldBounds();
+      this.minX = world.getMinX();
+      this.maxX = world.getMaxX();
+      this.minY = world.getMinY();
+      this.maxY = world.getMaxY();
+    }
+
+    @Override
+    public int getBitsPerLevel() {
+      return 2;
+    }
+
+    @Override
+    public Rectangle getCellBounds(long id, int level, Rectangle reuse) {
+      final long cells = 1L << level;
+      final long cellX = SpaceFillingCurve.Morton.compactBits(id >>> 1) & 0xFFFFFFFFL;
+      final long cellY = SpaceFillingCurve.Morton.compactBits(id) & 0xFFFFFFFFL;
+      reuse.reset(boundary(cellX, cells, minX, maxX), boundary(cellX + 1, cells, minX, maxX),
+          boundary(cellY, cells, minY, maxY), boundary(cellY + 1, cells, minY, maxY));
+      return reuse;
+    }
+
+    private static double boundary(long i, long cells, double min, double max) {
+      return i == cells ? max : min + i * ((max - min) / cells);
+    }
+
+    @Override
+    public String getToken(long id, int level) {
+      char[] chars = new char[level];
+      for (int i = level - 1; i >= 0; i--) {
+        chars[i] = (char) ('A' + (id & 3));
+        id >>>= 2;
+      }
+      return new String(chars);
+    }
+
+    @Override
+    public int getLevelForDistance(double dist) {
+      if (dist == 0)
+        return maxLevels;
+      for (int level = 1; level < maxLevels; level++) {
+        if (dist > (maxX - minX) / (1L << level) && dist > (maxY - minY) / (1L << level))
+          return level;
+      }
+      return maxLevels;
+    }
+  }
+
+  /** Geohash cells; 32 sub-cells per level. Geo contexts only. */
+  public static class Geohash extends SpatialPrefixTree {
+
+    public static final int MAX_LEVELS = GeohashUtils.MAX_LONG_BITS / 5;
+
+    public Geohash(SpatialContext ctx, int maxLevels) {
+      super(ctx, maxLevels);
+      if (!ctx.isGeo())
+        throw new IllegalArgumentException("Geohash only works with geo contexts");
+    }
+
+    @Override
+    public int getBitsPerLevel() {
+      return 5;
+    }
+
+    @Override
+    public Rectangle getCellBounds(long id, int level, Rectangle reuse) {
+      return GeohashUtils.decodeBoundary(id, level * 5, reuse);
+    }
+
+    @Override
+    public String getToken(long id, int level) {
+      return GeohashUtils.longToGeohash(id, level * 5);
+    }
+
+    @Override
+    public int getLevelForDistance(double dist) {
+      if (dist == 0)
+        return maxLevels;
+      return Math.min(maxLevels, GeohashUtils.lookupHashLenForWidthHeight(dist, dist));
+    }
+  }
+}
@@ -20,22 +20,42 @@ package com.spatial4j.core.io;
 import com.spatial4j.core.context.SpatialContext;
 import com.spatial4j.core.context.SpatialContextFactory;
 import com.spatial4j.core.exception.InvalidShapeException;
+import com.spatial4j.core.index.PointStore;
 import com.spatial4j.core.shape.Circle;
 import com.spatial4j.core.shape.Point;
 import com.spatial4j.core.shape.Rectangle;
 import com.spatial4j.core.shape.Shape;
 import com.spatial4j.core.shape.ShapeCollection;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * A binary shape format. It is <em>not</em> designed to be a published standard, unlike Well Known
  * Binary (WKB). The initial release is simple but it could get more optimized to use fewer bytes or
  * to write & read pre-computed index structures.
  * <p/>
+ * If {@link SpatialContextFactory#binaryCodecScale} is positive then the format is compact: each
+ * coordinate (dimension) is multiplied by the scale and rounded to a long, like a "fixed" JTS
+ * PrecisionModel, then written as a zig-zag varint of 1 to 10
+ * bytes; e.g. a scale of 1e7 (a 1e-7 degree grid, about a centimeter) needs 5 bytes for most
+ * longitudes. A NaN coordinate, as in an empty shape, is written as {@link Long#MIN_VALUE}. The
+ * scale isn't written so readers must use the same one.
+ * <p/>
+ * {@link #writeShapeWithHeader(java.io.DataOutput, com.spatial4j.core.shape.Shape)} precedes a
+ * shape with a header: a version byte ({@link #HEADER_VERSION}), the type byte, the bounding box
+ * (like a rectangle) and the byte length of the rest as an int. This lets a reader get just the
+ * bounding box, e.g. to filter a file of shapes by it, or skip a shape, without decoding the rest.
+ * <p/>
  * Immutable and thread-safe.
  */
 public class BinaryCodec {
@@ -47,13 +67,26 @@ public class BinaryCodec {
       TYPE_COLL = 4,
       TYPE_GEOM = 5;
 
+  /** The version of the format of {@link #writeShapeWithHeader(java.io.DataOutput, com.spatial4j.core.shape.Shape)}. */
+  protected static final byte HEADER_VERSION = 1;
+
   //TODO support BufferedLineString
 
   protected final SpatialContext ctx;
+  /** See {@link SpatialContextFactory#binaryCodecScale}; 0 if not compact. */
+  protected final double scale;
 
   //This constructor is mandated by SpatialContextFactory
   public BinaryCodec(SpatialContext ctx, SpatialContextFactory factory) {
     this.ctx = ctx;
+    this.scale = factory.binaryCodecScale;
+    if (!(scale >= 0) || Double.isInfinite(scale))
+      throw new IllegalArgumentException("binaryCodecScale must be 0 or positive: "+scale);
+  }
+
+  /** Whether coordinates are quantized &amp; written as varints; see the class doc. */
+  public boolean isCompact() {
+    return scale > 0;
   }
 
   public Shape readShape(DataInput dataInput) throws IOException {
@@ -70,6 +103,244 @@ public class BinaryCodec {
       throw new IllegalArgumentException("Unsupported shape "+s.getClass());
   }
 
+  /**
+   * Reads the shape at an absolute {@code offset} of the buffer, which might be a
+   * {@link java.nio.MappedByteBuffer}, without copying the bytes or changing the buffer's position.
+   * The format is the same as {@link #readShape(java.io.DataInput)}'s, whatever the buffer's
+   * {@link ByteOrder}.
+   * @throws java.io.EOFException if the shape is truncated by the buffer's limit. The other
+   * methods reading a buffer throw it too.
+   */
+  public Shape readShape(ByteBuffer buf, int offset) throws IOException {
+    return readShape(new ByteBufferDataInput(view(buf, offset)));
+  }
+
+  /** Reads the shape at the buffer's position, advancing it past the shape. */
+  public Shape readShape(ByteBuffer buf) throws IOException {
+    ByteBuffer view = view(buf, buf.position());
+    Shape s = readShape(new ByteBufferDataInput(view));
+    buf.position(view.position());
+    return s;
+  }
+
+  /**
+   * Writes the shape at the buffer's position, advancing it past the shape. The format is the same
+   * as {@link #writeShape(java.io.DataOutput, com.spatial4j.core.shape.Shape)}'s, whatever the
+   * buffer's {@link ByteOrder}.
+   * @throws java.nio.BufferOverflowException if it doesn't fit; the position is then unchanged.
+   */
+  public void writeShape(ByteBuffer buf, Shape s) throws IOException {
+    ByteBuffer view = view(buf, buf.position());
+    writeShape(new ByteBufferDataOutput(view), s);
+    buf.position(view.position());
+  }
+
+  /** A big-endian duplicate of the buffer (sharing its content) positioned at offset. */
+  private static ByteBuffer view(ByteBuffer buf, int offset) {
+    ByteBuffer view = buf.duplicate();
+    view.order(ByteOrder.BIG_ENDIAN);
+    view.position(offset);
+    return view;
+  }
+
+  /**
+   * Writes the shape preceded by a header with its type, bounding box &amp; length; see the class
+   * doc. Read it with {@link #readShapeWithHeader(java.io.DataInput)}, {@link #readBoundingBoxOnly(java.io.DataInput)}
+   * or {@link #skipShape(java.io.DataInput)}. The shape is first written to a temporary byte
+   * array to find its length.
+   */
+  public void writeShapeWithHeader(DataOutput dataOutput, Shape s) throws IOException {
+    byte type = typeForShape(s);
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    if (!writeShapeByTypeIfSupported(new DataOutputStream(body), s, type))
+      throw new IllegalArgumentException("Unsupported shape "+s.getClass());
+    dataOutput.writeByte(HEADER_VERSION);
+    dataOutput.writeByte(type);
+    writeRect(dataOutput, s.getBoundingBox());
+    dataOutput.writeInt(body.size());
+    dataOutput.write(body.toByteArray());
+  }
+
+  /**
+   * Like {@link #writeShapeWithHeader(java.io.DataOutput, com.spatial4j.core.shape.Shape)} but at
+   * the buffer's position, advancing it past the shape; the length is filled in afterwards.
+   * @throws java.nio.BufferOverflowException if it doesn't fit; the position is then unchanged.
+   */
+  public void writeShapeWithHeader(ByteBuffer buf, Shape s) throws IOException {
+    ByteBuffer view = view(buf, buf.position());
+    DataOutput dataOutput = new ByteBufferDataOutput(view);
+    byte type = typeForShape(s);
+    dataOutput.writeByte(HEADER_VERSION);
+    dataOutput.writeByte(type);
+    writeRect(dataOutput, s.getBoundingBox());
+    int lengthPos = view.position();
+    dataOutput.writeInt(0);//the length, once known
+    if (!writeShapeByTypeIfSupported(dataOutput, s, type))
+      throw new IllegalArgumentException("Unsupported shape "+s.getClass());
+    view.putInt(lengthPos, view.position() - lengthPos - 4);
+    buf.position(view.position());
+  }
+
+  /** Reads a shape written with a header, after which the input is at the next one. */
+  public Shape readShapeWithHeader(DataInput dataInput) throws IOException {
+    byte type = readHeaderType(dataInput);
+    skipDims(dataInput, 4);//bbox
+    dataInput.readInt();//length
+    Shape s = readShapeByTypeIfSupported(dataInput, type);
+    if (s == null)
+      throw new IllegalArgumentException("Unsupported shape byte "+type);
+    return s;
+  }
+
+  /** Like {@link #readShapeWithHeader(java.io.DataInput)} at an absolute buffer offset. */
+  public Shape readShapeWithHeader(ByteBuffer buf, int offset) throws IOException {
+    return readShapeWithHeader(new ByteBufferDataInput(view(buf, offset)));
+  }
+
+  /**
+   * Reads the bounding box of a shape written with a header, skipping the rest of it. It's in the
+   * precision of the format, e.g. rounded to floats or to the grid of a compact format, like the
+   * shape's coordinates.
+   */
+  public Rectangle readBoundingBoxOnly(DataInput dataInput) throws IOException {
+    readHeaderType(dataInput);
+    Rectangle bbox = readRect(dataInput);
+    skipFully(dataInput, dataInput.readInt());
+    return bbox;
+  }
+
+  /** Like {@link #readBoundingBoxOnly(java.io.DataInput)} at an absolute buffer offset. */
+  public Rectangle readBoundingBoxOnly(ByteBuffer buf, int offset) throws IOException {
+    return readBoundingBoxOnly(new ByteBufferDataInput(view(buf, offset)));
+  }
+
+  /** Skips a shape written with a header, without decoding it. */
+  public void skipShape(DataInput dataInput) throws IOException {
+    readHeaderType(dataInput);
+    skipDims(dataInput, 4);
+    skipFully(dataInput, dataInput.readInt());
+  }
+
+  /**
+   * Skips the shape written with a header at an absolute buffer offset.
+   * @return The offset of the next shape.
+   */
+  public int skipShape(ByteBuffer buf, int offset) throws IOException {
+    ByteBuffer view = view(buf, offset);
+    skipShape(new ByteBufferDataInput(view));
+    return view.position();
+  }
+
+  /** Reads the version &amp; type bytes of a header, returning the type. */
+  private byte readHeaderType(DataInput dataInput) throws IOException {
+    byte version = dataInput.readByte();
+    if (version != HEADER_VERSION)
+      throw new InvalidShapeException("Unsupported header version "+version);
+    return dataInput.readByte();
+  }
+
+  private static void skipFully(DataInput dataInput, int length) throws IOException {
+    if (length < 0)
+      throw new InvalidShapeException("Invalid length "+length);
+    while (length > 0) {
+      int skipped = dataInput.skipBytes(length);
+      if (skipped <= 0) {
+        dataInput.readByte();//throws EOFException at the end
+        skipped = 1;
+      }
+      length -= skipped;
+    }
+  }
+
+  /**
+   * A view of the collection written at an absolute {@code offset} of the buffer (see
+   * {@link #readShape(java.nio.ByteBuffer, int)}) that decodes a member each time it's accessed,
+   * such as by relate(), instead of holding them all; it only holds their offsets. Creating it
+   * decodes each member once to compute the bounding box. The buffer's content must not change
+   * while the view is in use; its position and limit don't matter.
+   */
+  public ShapeCollection<Shape> readLazyCollection(ByteBuffer buf, int offset) throws IOException {
+    ByteBuffer view = view(buf, offset);
+    DataInput dataInput = new ByteBufferDataInput(view);
+    byte collType = dataInput.readByte();
+    if (collType != TYPE_COLL)
+      throw new InvalidShapeException("Expected a collection but got shape byte "+collType);
+    byte type = dataInput.readByte();
+    int size = dataInput.readInt();
+    int[] offsets = new int[size];
+    for (int i = 0; i < size; i++) {
+      offsets[i] = view.position();
+      byte memberType = type == 0 ? dataInput.readByte() : type;
+      if (!skipShapeByTypeIfSupported(dataInput, memberType))
+        throw new InvalidShapeException("Unsupported shape byte "+memberType);
+    }
+    List<Shape> shapes = new LazyShapeList(view, type, offsets);
+    return ctx.makeCollection(shapes);
+  }
+
+  /** The members of {@link #readLazyCollection(java.nio.ByteBuffer, int)}. */
+  private class LazyShapeList extends AbstractList<Shape> implements RandomAccess {
+    private final ByteBuffer buf;
+    private final byte type;//0 if each member has its own
+    private final int[] offsets;
+
+    LazyShapeList(ByteBuffer buf, byte type, int[] offsets) {
+      this.buf = buf;
+      this.type = type;
+      this.offsets = offsets;
+    }
+
+    @Override
+    public Shape get(int index) {
+      DataInput dataInput = new ByteBufferDataInput(view(buf, offsets[index]));//thread-safe
+      try {
+        if (type == 0)
+          return readShape(dataInput);
+        Shape s = readShapeByTypeIfSupported(dataInput, type);
+        if (s == null)
+          throw new InvalidShapeException("Unsupported shape byte "+type);
+        return s;
+      } catch (IOException e) {
+        throw new RuntimeException(e);//not expected of a ByteBuffer
+      }
+    }
+
+    @Override
+    public int size() {
+      return offsets.length;
+    }
+  }
+
+  /**
+   * Advances past a shape of the given type, whose type byte was already read, without creating it
+   * if possible. Types only a subclass supports are read to skip them.
+   * @return false if the type isn't supported.
+   */
+  protected boolean skipShapeByTypeIfSupported(DataInput dataInput, byte type) throws IOException {
+    switch (type) {
+      case TYPE_POINT: skipDims(dataInput, 2); return true;
+      case TYPE_RECT: skipDims(dataInput, 4); return true;
+      case TYPE_CIRCLE: skipDims(dataInput, 3); return true;
+      case TYPE_COLL: {
+        byte collType = dataInput.readByte();
+        int size = dataInput.readInt();
+        for (int i = 0; i < size; i++) {
+          byte memberType = collType == 0 ? dataInput.readByte() : collType;
+          if (!skipShapeByTypeIfSupported(dataInput, memberType))
+            return false;
+        }
+        return true;
+      }
+      default: return readShapeByTypeIfSupported(dataInput, type) != null;
+    }
+  }
+
+  protected void skipDims(DataInput dataInput, int count) throws IOException {
+    for (int i = 0; i < count; i++) {
+      readDim(dataInput);//its size depends on the subclass
+    }
+  }
+
   protected Shape readShapeByTypeIfSupported(DataInput dataInput, byte type) throws IOException {
     switch (type) {
       case TYPE_POINT: return readPoint(dataInput);
@@ -115,11 +386,67 @@ public class BinaryCodec {
   }
 
   protected double readDim(DataInput dataInput) throws IOException {
+    if (scale > 0)
+      return unquantize(unZigZag(readVarLong(dataInput)));
     return dataInput.readDouble();
   }
 
   protected void writeDim(DataOutput dataOutput, double v) throws IOException {
-    dataOutput.writeDouble(v);
+    if (scale > 0)
+      writeVarLong(dataOutput, zigZag(quantize(v)));
+    else
+      dataOutput.writeDouble(v);
+  }
+
+  /** The coordinate as a multiple of 1/{@link #scale}, for the compact format. */
+  protected long quantize(double v) {
+    if (Double.isNaN(v))
+      return Long.MIN_VALUE;
+    return Math.round(v * scale);
+  }
+
+  /** The inverse of {@link #quantize(double)}. */
+  protected double unquantize(long q) {
+    if (q == Long.MIN_VALUE)
+      return Double.NaN;
+    return q / scale;//not q * (1/scale), which is inexact for e.g. 1e-7
+  }
+
+  /** Maps signed longs to unsigned ones such that small magnitudes stay small: 0, -1, 1, -2, ... */
+  protected static long zigZag(long v) {
+    return (v << 1) ^ (v >> 63);
+  }
+
+  protected static long unZigZag(long v) {
+    return (v >>> 1) ^ -(v & 1);
+  }
+
+  /** Writes 7 bits per byte, least significant first, with the high bit set if more follow. */
+  protected static void writeVarLong(DataOutput dataOutput, long v) throws IOException {
+    while ((v & ~0x7FL) != 0) {
+      dataOutput.writeByte((int) (v & 0x7F) | 0x80);
+      v >>>= 7;
+    }
+    dataOutput.writeByte((int) v);
+  }
+
+  protected static long readVarLong(DataInput dataInput) throws IOException {
+    long v = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = dataInput.readByte();
+      v |= (long) (b & 0x7F) << shift;
+      if (b >= 0)
+        return v;
+    }
+    throw new InvalidShapeException("Malformed varint");
+  }
+
+  /** Reads a varint that must be a size, i.e. an int &gt;= 0. */
+  protected static int readVarSize(DataInput dataInput) throws IOException {
+    long v = readVarLong(dataInput);
+    if (v < 0 || v > Integer.MAX_VALUE)
+      throw new InvalidShapeException("Invalid size "+v);
+    return (int) v;
   }
 
   public Point readPoint(DataInput dataInput) throws IOException {
@@ -184,4 +511,42 @@ public class BinaryCodec {
     }
   }
 
+  /**
+   * Reads a collection of points, as written by {@link #writePointStore(java.io.DataOutput, com.spatial4j.core.index.PointStore)}
+   * or by {@link #writeShape(java.io.DataOutput, com.spatial4j.core.shape.Shape)} given a
+   * ShapeCollection of only points, straight into a {@link PointStore} without creating Point
+   * objects.
+   */
+  public PointStore readPointStore(DataInput dataInput) throws IOException {
+    byte collType = dataInput.readByte();
+    if (collType != TYPE_COLL)
+      throw new InvalidShapeException("Expected a collection of points but got shape byte "+collType);
+    byte type = dataInput.readByte();
+    int size = dataInput.readInt();
+    double[] xs = new double[size];
+    double[] ys = new double[size];
+    for (int i = 0; i < size; i++) {
+      byte pointType = type == 0 ? dataInput.readByte() : type;
+      if (pointType != TYPE_POINT)
+        throw new InvalidShapeException("Expected a point but got shape byte "+pointType);
+      xs[i] = readDim(dataInput);
+      ys[i] = readDim(dataInput);
+    }
+    return new PointStore(xs, ys, ctx);
+  }
+
+  /**
+   * Writes the points as a collection of points; {@link #readShape(java.io.DataInput)} reads it
+   * back as a ShapeCollection.
+   */
+  public void writePointStore(DataOutput dataOutput, PointStore points) throws IOException {
+    dataOutput.writeByte(TYPE_COLL);
+    dataOutput.writeByte(TYPE_POINT);
+    dataOutput.writeInt(points.size());
+    for (int id = 0; id < points.size(); id++) {
+      writeDim(dataOutput, points.getX(id));
+      writeDim(dataOutput, points.getY(id));
+    }
+  }
+
 }
@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.io;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.shape.Shape;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads many shapes from WKT strings or {@link BinaryCodec} records in parallel on an
+ * {@link ExecutorService} (e.g. a ThreadPoolExecutor, or a ForkJoinPool on Java 7+). The records
+ * are consumed in batches from an Iterator on the calling thread, and each batch is read, including
+ * constructing &amp; validating the shapes, by a task on the executor. The results come back as an
+ * Iterator in the same order as the records, each holding either the shape or the exception reading
+ * it threw; a bad record doesn't stop the others.
+ * <p/>
+ * At most {@code maxBatchesInFlight} batches are submitted but not yet returned, which bounds the
+ * memory held no matter how many records there are or how slowly the results are consumed.
+ * <p/>
+ * Thread-safe, but the returned Iterators aren't.
+ */
+public class BulkShapeReader {
+
+  public static final int DEFAULT_BATCH_SIZE = 64;
+
+  private final SpatialContext ctx;
+  private final ExecutorService executor;
+  private final int batchSize;
+  private final int maxBatchesInFlight;
+
+  /** Uses {@link #DEFAULT_BATCH_SIZE} and up to 2 batches in flight per available processor. */
+  public BulkShapeReader(SpatialContext ctx, ExecutorService executor) {
+    this(ctx, executor, DEFAULT_BATCH_SIZE, 2 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param batchSize The number of records read by one task; large enough to amortize the cost of
+   *                  a task.
+   * @param maxBatchesInFlight The most batches submitted to the executor but not yet returned.
+   */
+  public BulkShapeReader(SpatialContext ctx, ExecutorService executor, int batchSize,
+                         int maxBatchesInFlight) {
+    if (batchSize < 1)
+      throw new IllegalArgumentException("batchSize must be >= 1: " + batchSize);
+    if (maxBatchesInFlight < 1)
+      throw new IllegalArgumentException("maxBatchesInFlight must be >= 1: " + maxBatchesInFlight);
+    this.ctx = ctx;
+    this.executor = executor;
+    this.batchSize = batchSize;
+    this.maxBatchesInFlight = maxBatchesInFlight;
+  }
+
+  public SpatialContext getCtx() {
+    return ctx;
+  }
+
+  /**
+   * Reads each WKT string via {@link #readWkt(String)}.
+   * @return The results in the same order; see {@link Result}.
+   */
+  public Iterator<Result> readWkt(Iterator<String> wkts) {
+    return new ResultIterator<String>(wkts) {
+      @Override
+      Shape read(String record) throws Exception {
+        return readWkt(record);
+      }
+    };
+  }
+
+  /**
+   * Reads each byte[] via {@link #readBinary(byte[])}.
+   * @return The results in the same order; see {@link Result}.
+   */
+  public Iterator<Result> readBinary(Iterator<byte[]> records) {
+    return new ResultIterator<byte[]>(records) {
+      @Override
+      Shape read(byte[] record) throws Exception {
+        return readBinary(record);
+      }
+    };
+  }
+
+  /** Reads one WKT record, on an executor thread. */
+  protected Shape readWkt(String wkt) throws ParseException {
+    return ctx.readShapeFromWkt(wkt);
+  }
+
+  /** Reads one record written by {@link BinaryCodec#writeShape(java.io.DataOutput, Shape)}, on an
+   * executor thread. */
+  protected Shape readBinary(byte[] record) throws IOException {
+    return ctx.getBinaryCodec().readShape(new DataInputStream(new ByteArrayInputStream(record)));
+  }
+
+  /** The outcome of reading one record: a shape or an exception. */
+  public static class Result {
+    private final long index;
+    private final Shape shape;
+    private final Exception error;
+
+    public Result(long index, Shape shape, Exception error) {
+      this.index = index;
+      this.shape = shape;
+      this.error = error;
+    }
+
+    /** The 0-based position of the record in the input. */
+    public long getIndex() {
+      return index;
+    }
+
+    /** The shape, or null if reading it failed. */
+    public Shape getShape() {
+      return shape;
+    }
+
+    /** What reading the record threw (e.g. a ParseException or InvalidShapeException), or null. */
+    public Exception getError() {
+      return error;
+    }
+
+    public boolean isError() {
+      return error != null;
+    }
+
+    @Override
+    public String toString() {
+      return "Result{" + index + ": " + (error != null ? error : shape) + "}";
+    }
+  }
+
+  /** Submits batches of records ahead of the one being returned, up to the limit. */
+  private abstract class ResultIterator<T> implements Iterator<Result> {
+    private final Iterator<T> records;
+    private final ArrayDeque<Future<Result[]>> inFlight = new ArrayDeque<Future<Result[]>>();
+    private long nextIndex;
+    private Result[] batch;
+    private int batchPos;
+
+    ResultIterator(Iterator<T> records) {
+      this.records = records;
+    }
+
+    abstract Shape read(T record) throws Exception;
+
+    @Override
+    public boolean hasNext() {
+      while (batch == null || batchPos == batch.length) {
+        submitBatches();
+        Future<Result[]> future = inFlight.poll();
+        if (future == null)
+          return false;
+        batch = await(future);
+        batchPos = 0;
+      }
+      return true;
+    }
+
+    @Override
+    public Result next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      Result result = batch[batchPos];
+      batch[batchPos++] = null;//let it be collected after the caller is done with it
+      return result;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    private void submitBatches() {
+      while (inFlight.size() < maxBatchesInFlight && records.hasNext()) {
+        final Object[] batchRecords = new Object[batchSize];
+        int size = 0;
+        while (size < batchSize && records.hasNext()) {
+          batchRecords[size++] = records.next();
+        }
+        final int batchLen = size;
+        final long startIndex = nextIndex;
+        nextIndex += size;
+        inFlight.add(executor.submit(new Callable<Result[]>() {
+          @Override
+          public Result[] call() {
+            return readBatch(batchRecords, batchLen, startIndex);
+          }
+        }));
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Result[] readBatch(Object[] batchRecords, int size, long startIndex) {
+      Result[] results = new Result[size];
+      for (int i = 0; i < size; i++) {
+        Shape shape = null;
+        Exception error = null;
+        try {
+          shape = read((T) batchRecords[i]);
+        } catch (Exception e) {
+          error = e;
+        }
+        batchRecords[i] = null;
+        results[i] = new Result(startIndex + i, shape, error);
+      }
+      return results;
+    }
+
+    private Result[] await(Future<Result[]> future) {
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        cancel();
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for shapes", e);
+      } catch (ExecutionException e) {//an Error; exceptions are in the results
+        cancel();
+        Throwable cause = e.getCause();
+        if (cause instanceof Error)
+          throw (Error) cause;
+        throw new RuntimeException(cause);
+      }
+    }
+
+    private void cancel() {
+      for (Future<Result[]> future : inFlight) {
+        future.cancel(true);
+      }
+      inFlight.clear();
+    }
+  }
+}
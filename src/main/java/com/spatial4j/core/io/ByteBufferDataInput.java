@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.io;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A {@link DataInput} reading from a {@link ByteBuffer} at its position, so that
+ * {@link BinaryCodec} can read a (possibly memory-mapped) buffer without copying it. The buffer
+ * must be big-endian, like DataInput. Reading past the limit throws {@link EOFException}.
+ */
+class ByteBufferDataInput implements DataInput {
+
+  private final ByteBuffer buf;
+
+  ByteBufferDataInput(ByteBuffer buf) {
+    assert buf.order() == ByteOrder.BIG_ENDIAN;
+    this.buf = buf;
+  }
+
+  ByteBuffer getBuffer() {
+    return buf;
+  }
+
+  /** Throws EOFException unless {@code n} more bytes remain. */
+  private void require(int n) throws EOFException {
+    if (buf.remaining() < n)
+      throw new EOFException();
+  }
+
+  @Override
+  public void readFully(byte[] b) throws IOException {
+    readFully(b, 0, b.length);
+  }
+
+  @Override
+  public void readFully(byte[] b, int off, int len) throws IOException {
+    require(len);
+    buf.get(b, off, len);
+  }
+
+  @Override
+  public int skipBytes(int n) {
+    n = Math.max(0, Math.min(n, buf.remaining()));
+    buf.position(buf.position() + n);
+    return n;
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    return readByte() != 0;
+  }
+
+  @Override
+  public byte readByte() throws IOException {
+    require(1);
+    return buf.get();
+  }
+
+  @Override
+  public int readUnsignedByte() throws IOException {
+    return readByte() & 0xFF;
+  }
+
+  @Override
+  public short readShort() throws IOException {
+    require(2);
+    return buf.getShort();
+  }
+
+  @Override
+  public int readUnsignedShort() throws IOException {
+    return readShort() & 0xFFFF;
+  }
+
+  @Override
+  public char readChar() throws IOException {
+    require(2);
+    return buf.getChar();
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    require(4);
+    return buf.getInt();
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    require(8);
+    return buf.getLong();
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    require(4);
+    return buf.getFloat();
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    require(8);
+    return buf.getDouble();
+  }
+
+  /** Like {@link DataInputStream#readLine()}: each byte is a char; the line ends at \n, \r or \r\n. */
+  @Override
+  public String readLine() {
+    if (!buf.hasRemaining())
+      return null;
+    StringBuilder line = new StringBuilder();
+    while (buf.hasRemaining()) {
+      char c = (char) (buf.get() & 0xFF);
+      if (c == '\n')
+        break;
+      if (c == '\r') {
+        if (buf.hasRemaining() && buf.get(buf.position()) == '\n')
+          buf.get();
+        break;
+      }
+      line.append(c);
+    }
+    return line.toString();
+  }
+
+  @Override
+  public String readUTF() throws IOException {
+    return DataInputStream.readUTF(this);
+  }
+}
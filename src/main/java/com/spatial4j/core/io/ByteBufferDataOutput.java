@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A {@link DataOutput} writing to a {@link ByteBuffer} at its position, so that
+ * {@link BinaryCodec} can write into a (possibly memory-mapped) buffer. The buffer must be
+ * big-endian, like DataOutput. Writing past the limit throws
+ * {@link java.nio.BufferOverflowException}.
+ */
+class ByteBufferDataOutput implements DataOutput {
+
+  private final ByteBuffer buf;
+
+  ByteBufferDataOutput(ByteBuffer buf) {
+    assert buf.order() == ByteOrder.BIG_ENDIAN;
+    this.buf = buf;
+  }
+
+  @Override
+  public void write(int b) {
+    buf.put((byte) b);
+  }
+
+  @Override
+  public void write(byte[] b) {
+    buf.put(b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    buf.put(b, off, len);
+  }
+
+  @Override
+  public void writeBoolean(boolean v) {
+    buf.put(v ? (byte) 1 : (byte) 0);
+  }
+
+  @Override
+  public void writeByte(int v) {
+    buf.put((byte) v);
+  }
+
+  @Override
+  public void writeShort(int v) {
+    buf.putShort((short) v);
+  }
+
+  @Override
+  public void writeChar(int v) {
+    buf.putChar((char) v);
+  }
+
+  @Override
+  public void writeInt(int v) {
+    buf.putInt(v);
+  }
+
+  @Override
+  public void writeLong(long v) {
+    buf.putLong(v);
+  }
+
+  @Override
+  public void writeFloat(float v) {
+    buf.putFloat(v);
+  }
+
+  @Override
+  public void writeDouble(double v) {
+    buf.putDouble(v);
+  }
+
+  @Override
+  public void writeBytes(String s) {
+    for (int i = 0; i < s.length(); i++) {
+      buf.put((byte) s.charAt(i));
+    }
+  }
+
+  @Override
+  public void writeChars(String s) {
+    for (int i = 0; i < s.length(); i++) {
+      buf.putChar(s.charAt(i));
+    }
+  }
+
+  @Override
+  public void writeUTF(String s) throws IOException {
+    //not used by the codec; rare enough not to bother avoiding the copy
+    ByteArrayOutputStream baos = new ByteArrayOutputStream(s.length() + 2);
+    new DataOutputStream(baos).writeUTF(s);
+    buf.put(baos.toByteArray());
+  }
+}
@@ -18,8 +18,12 @@
 package com.spatial4j.core.io;
 
 import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.index.SpaceFillingCurve;
 import com.spatial4j.core.shape.Point;
 import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.SpatialRelation;
+import com.spatial4j.core.shape.impl.RectangleImpl;
 
 import java.util.Arrays;
 
@@ -31,6 +35,10 @@ import java.util.Arrays;
  * geohash utilities but providing this one avoids an additional dependency for what's a small
  * amount of code.  <em>If you're using Spatial4j just for this class, consider alternatives.</em>
  * <p/>
+ * Geohashes of up to {@link #MAX_LONG_BITS} bits can also be handled as a long holding the bits
+ * (alternating longitude &amp; latitude, starting with longitude) in its low bits, which avoids
+ * creating Strings; see {@link #encodeLatLonAsLong(double, double, int)}.
+ * <p/>
  * This code originally came from <a href="https://issues.apache.org/jira/browse/LUCENE-1512">
  * Apache Lucene, LUCENE-1512</a>.
  */
@@ -45,6 +53,9 @@ public class GeohashUtils {
   public static final int MAX_PRECISION = 24;//DWS: I forget what level results in needless more precision but it's about this
   private static final int[] BITS = {16, 8, 4, 2, 1};
 
+  /** The maximum number of bits in a long geohash; 12 characters. */
+  public static final int MAX_LONG_BITS = 60;
+
   static {
     BASE_32_IDX = new int[BASE_32[BASE_32.length-1] - BASE_32[0] + 1];
     assert BASE_32_IDX.length < 100;//reasonable length
@@ -69,6 +80,10 @@ public class GeohashUtils {
   }
 
   public static String encodeLatLon(double latitude, double longitude, int precision) {
+    if (precision * 5 <= MAX_LONG_BITS) {
+      final int bits = precision * 5;
+      return longToGeohash(encodeLatLonAsLong(latitude, longitude, bits), bits);
+    }
     double[] latInterval = {-90.0, 90.0};
     double[] lngInterval = {-180.0, 180.0};
 
@@ -157,6 +172,257 @@ public class GeohashUtils {
     return ctx.makeRectangle(minX, maxX, minY, maxY);
   }
 
+  /**
+   * Encodes the given latitude and longitude into a geohash of {@code bits} bits, held in the low
+   * bits of the result. It's the same as the first bits of {@link #encodeLatLon(double, double,
+   * int)} but doesn't create any objects; {@link #longToGeohash(long, int)} converts it.
+   *
+   * @param bits From 0 to {@link #MAX_LONG_BITS}.
+   */
+  public static long encodeLatLonAsLong(double latitude, double longitude, int bits) {
+    checkBits(bits);
+    return interleave(cellIndex(longitude, -180, 360, lonBits(bits)),
+        cellIndex(latitude, -90, 180, latBits(bits)), bits);
+  }
+
+  /** The number of longitude bits in a geohash of {@code bits} bits; longitude comes first. */
+  private static int lonBits(int bits) {
+    return (bits + 1) / 2;
+  }
+
+  private static int latBits(int bits) {
+    return bits / 2;
+  }
+
+  /** The geohash of the cell with the given longitude &amp; latitude indexes. */
+  private static long interleave(int lonIndex, int latIndex, int bits) {
+    long lonSpread = SpaceFillingCurve.Morton.spreadBits(lonIndex);
+    long latSpread = SpaceFillingCurve.Morton.spreadBits(latIndex);
+    //the first bit is a longitude one, so when there are as many latitude bits then it's shifted
+    return (bits & 1) == 0 ? (lonSpread << 1) | latSpread : lonSpread | (latSpread << 1);
+  }
+
+  private static int lonIndex(long geohash, int bits) {
+    int index = SpaceFillingCurve.Morton.compactBits((bits & 1) == 0 ? geohash >>> 1 : geohash);
+    return index & ((1 << lonBits(bits)) - 1);
+  }
+
+  private static int latIndex(long geohash, int bits) {
+    int index = SpaceFillingCurve.Morton.compactBits((bits & 1) == 0 ? geohash : geohash >>> 1);
+    return index & ((1 << latBits(bits)) - 1);
+  }
+
+  /**
+   * The index of the cell holding {@code v} when [min, min+width] is halved {@code bits} times,
+   * where a value on the boundary of two cells is in the lower one (as in
+   * {@link #encodeLatLon(double, double, int)}). Values outside the range get the nearest cell.
+   */
+  private static int cellIndex(double v, double min, double width, int bits) {
+    final int maxIndex = (1 << bits) - 1;
+    final double cellWidth = width / (1 << bits);//exact
+    double approx = Math.ceil((v - min) / cellWidth) - 1;
+    int index = (int) Math.max(0, Math.min(maxIndex, approx));//also NaN becomes 0
+    //the division may have rounded across a boundary; the boundaries themselves are exact
+    while (index > 0 && v <= min + index * cellWidth)
+      index--;
+    while (index < maxIndex && v > min + (index + 1) * cellWidth)
+      index++;
+    return index;
+  }
+
+  private static void checkBits(int bits) {
+    if (bits < 0 || bits > MAX_LONG_BITS)
+      throw new IllegalArgumentException("bits must be from 0 to "+MAX_LONG_BITS+": "+bits);
+  }
+
+  /**
+   * Decodes a geohash from {@link #encodeLatLonAsLong(double, double, int)} into {@code reuse} via
+   * {@link Rectangle#reset(double, double, double, double)}, which is returned. The result is the
+   * same as {@link #decodeBoundary(String, com.spatial4j.core.context.SpatialContext)}.
+   */
+  public static Rectangle decodeBoundary(long geohash, int bits, Rectangle reuse) {
+    checkBits(bits);
+    final int lonIndex = lonIndex(geohash, bits);
+    final int latIndex = latIndex(geohash, bits);
+    final double cellWidth = 360.0 / (1 << lonBits(bits));
+    final double cellHeight = 180.0 / (1 << latBits(bits));
+    reuse.reset(-180 + lonIndex * cellWidth, -180 + (lonIndex + 1) * cellWidth,
+        -90 + latIndex * cellHeight, -90 + (latIndex + 1) * cellHeight);
+    return reuse;
+  }
+
+  /**
+   * Converts a long geohash to the usual base 32 String.
+   *
+   * @param bits A multiple of 5 (the bits per character), from 0 to {@link #MAX_LONG_BITS}.
+   */
+  public static String longToGeohash(long geohash, int bits) {
+    checkBits(bits);
+    if (bits % 5 != 0)
+      throw new IllegalArgumentException("bits must be a multiple of 5: "+bits);
+    final char[] chars = new char[bits / 5];
+    for (int i = chars.length - 1; i >= 0; i--) {
+      chars[i] = BASE_32[(int) (geohash & 31)];
+      geohash >>>= 5;
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Converts a geohash String of up to 12 characters to a long with 5 bits per character; the
+   * inverse of {@link #longToGeohash(long, int)}.
+   */
+  public static long geohashToLong(String geohash) {
+    checkBits(geohash.length() * 5);
+    long result = 0;
+    for (int i = 0; i < geohash.length(); i++) {
+      char c = geohash.charAt(i);
+      if (c >= 'A' && c <= 'Z')
+        c -= ('A' - 'a');
+      final int idx = c - BASE_32[0];
+      if (idx < 0 || idx >= BASE_32_IDX.length || BASE_32_IDX[idx] < 0)
+        throw new IllegalArgumentException("Invalid geohash character '"+geohash.charAt(i)+"' in "+geohash);
+      result = (result << 5) | BASE_32_IDX[idx];
+    }
+    return result;
+  }
+
+  /**
+   * The geohashes of the (up to) 8 cells adjacent to the given one, of the same size, wrapping
+   * across the dateline. Cells at a pole have no neighbors beyond it, and there are fewer still
+   * when the cells are so big that the same one would be found twice. Sorted.
+   */
+  public static long[] getNeighbors(long geohash, int bits) {
+    checkBits(bits);
+    final int lonCells = 1 << lonBits(bits);
+    final int latCells = 1 << latBits(bits);
+    final int lonIndex = lonIndex(geohash, bits);
+    final int latIndex = latIndex(geohash, bits);
+    long[] neighbors = new long[8];
+    int count = 0;
+    for (int dy = -1; dy <= 1; dy++) {
+      final int y = latIndex + dy;
+      if (y < 0 || y >= latCells)
+        continue;//beyond a pole
+      for (int dx = -1; dx <= 1; dx++) {
+        final int x = (lonIndex + dx + lonCells) % lonCells;//wrap across the dateline
+        long neighbor = interleave(x, y, bits);
+        if (x == lonIndex && y == latIndex || contains(neighbors, count, neighbor))
+          continue;
+        neighbors[count++] = neighbor;
+      }
+    }
+    neighbors = Arrays.copyOf(neighbors, count);
+    Arrays.sort(neighbors);
+    return neighbors;
+  }
+
+  private static boolean contains(long[] values, int count, long value) {
+    for (int i = 0; i < count; i++) {
+      if (values[i] == value)
+        return true;
+    }
+    return false;
+  }
+
+  /** See {@link #getNeighbors(long, int)}. The geohash can have at most 12 characters. */
+  public static String[] getNeighbors(String geohash) {
+    final int bits = geohash.length() * 5;
+    long[] neighbors = getNeighbors(geohashToLong(geohash), bits);
+    String[] result = new String[neighbors.length];
+    for (int i = 0; i < neighbors.length; i++) {
+      result[i] = longToGeohash(neighbors[i], bits);
+    }
+    return result;
+  }
+
+  /**
+   * The fewest geohashes of up to {@code precision} characters that cover the shape. Starting
+   * from the single character geohashes, a cell that the shape {@link SpatialRelation#CONTAINS}
+   * is taken whole, a {@link SpatialRelation#DISJOINT} one is skipped, and any other is divided
+   * into its 32 sub-cells, until the precision is reached. The result thus has cells of various
+   * lengths, none within another, and is sorted. Beware a shape with a long boundary relative to
+   * the cell size at this precision can have a great many cells; see
+   * {@link #lookupHashLenForWidthHeight(double, double)}.
+   *
+   * @param precision From 1 to 12.
+   */
+  public static String[] getCoveringGeohashes(Shape shape, int precision, SpatialContext ctx) {
+    Cells cells = cover(shape, precision, ctx);
+    String[] result = new String[cells.size];
+    for (int i = 0; i < cells.size; i++) {
+      result[i] = longToGeohash(cells.hashes[i], cells.lengths[i] * 5);
+    }
+    return result;
+  }
+
+  /**
+   * The geohashes of {@link #getCoveringGeohashes(Shape, int, SpatialContext)} as ranges of
+   * {@link #encodeLatLonAsLong(double, double, int)} keys at {@code precision * 5} bits, such that
+   * a point is in a covering cell if and only if its key is in a range. The ranges are returned as
+   * pairs of start (inclusive) &amp; end (exclusive): {start0, end0, start1, end1, ...}. They're
+   * sorted, and adjacent ones are merged, so each is a single range-scan of a sorted key store.
+   */
+  public static long[] getCoveringRanges(Shape shape, int precision, SpatialContext ctx) {
+    Cells cells = cover(shape, precision, ctx);
+    final int bits = precision * 5;
+    long[] ranges = new long[cells.size * 2];
+    int count = 0;
+    for (int i = 0; i < cells.size; i++) {
+      final int shift = bits - cells.lengths[i] * 5;
+      final long start = cells.hashes[i] << shift;
+      final long end = (cells.hashes[i] + 1) << shift;
+      if (count > 0 && ranges[count - 1] == start) {
+        ranges[count - 1] = end;//merge with the previous
+      } else {
+        ranges[count++] = start;
+        ranges[count++] = end;
+      }
+    }
+    return Arrays.copyOf(ranges, count);
+  }
+
+  private static Cells cover(Shape shape, int precision, SpatialContext ctx) {
+    if (precision < 1 || precision * 5 > MAX_LONG_BITS)
+      throw new IllegalArgumentException("precision must be from 1 to "+MAX_LONG_BITS/5+": "+precision);
+    Cells cells = new Cells();
+    cover(shape, 0L, 0, precision, new RectangleImpl(-180, 180, -90, 90, ctx), cells);
+    return cells;
+  }
+
+  /** Adds the cover of the sub-cells of {@code parent}, in order. */
+  private static void cover(Shape shape, long parent, int parentLen, int precision, Rectangle reuse,
+                            Cells cells) {
+    final int len = parentLen + 1;
+    for (int i = 0; i < BASE_32.length; i++) {
+      final long hash = (parent << 5) | i;
+      SpatialRelation rel = shape.relate(decodeBoundary(hash, len * 5, reuse));
+      if (rel == SpatialRelation.DISJOINT)
+        continue;
+      if (rel == SpatialRelation.CONTAINS || len == precision)
+        cells.add(hash, len);
+      else
+        cover(shape, hash, len, precision, reuse, cells);
+    }
+  }
+
+  /** A growable list of geohashes with their lengths in characters. */
+  private static class Cells {
+    long[] hashes = new long[32];
+    int[] lengths = new int[32];
+    int size;
+
+    void add(long hash, int length) {
+      if (size == hashes.length) {
+        hashes = Arrays.copyOf(hashes, size * 2);
+        lengths = Arrays.copyOf(lengths, size * 2);
+      }
+      hashes[size] = hash;
+      lengths[size] = length;
+      size++;
+    }
+  }
+
   /** Array of geohashes 1 level below the baseGeohash. Sorted. */
   public static String[] getSubGeohashes(String baseGeohash) {
     String[] hashes = new String[BASE_32.length];
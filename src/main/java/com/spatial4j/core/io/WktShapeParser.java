@@ -23,8 +23,11 @@ import com.spatial4j.core.context.SpatialContextFactory;
 import com.spatial4j.core.shape.Point;
 import com.spatial4j.core.shape.Shape;
 
+import java.io.IOException;
+import java.nio.CharBuffer;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -49,7 +52,8 @@ import java.util.List;
  *
  * <p />
  * Most users of this class will call just one method: {@link #parse(String)}, or
- * {@link #parseIfSupported(String)} to not fail if it isn't parse-able.
+ * {@link #parseIfSupported(String)} to not fail if it isn't parse-able. To read many shapes from
+ * a large input, such as a file, one at a time, use a {@link WktShapeReader}.
  *
  * <p />
  * To support more shapes, extend this class and override
@@ -106,7 +110,7 @@ public class WktShapeParser {
     if (state.eof())
       return null;
     //shape types must start with a letter
-    if (!Character.isLetter(state.rawString.charAt(state.offset)))
+    if (!Character.isLetter(state.peekChar()))
       return null;
     String shapeType = state.nextWord();
     Shape result = null;
@@ -133,6 +137,12 @@ public class WktShapeParser {
     return new State(wktString);
   }
 
+  /** (internal) Creates a new State reading from {@code source} as needed. It's called by
+   * {@link WktShapeReader}. This is an extension point for subclassing. */
+  protected State newState(Readable source) {
+    return new State(source);
+  }
+
   /**
    * (internal) Parses the remainder of a shape definition following the shape's name
    * given as {@code shapeType} already consumed via
@@ -362,23 +372,125 @@ public class WktShapeParser {
     return ctx.makePoint(ctx.normX(x), ctx.normY(y));
   }
 
-  /** The parse state. */
+  /**
+   * The parse state. The text is either a String, read in place, or read from a {@link Readable}
+   * (e.g. a {@link java.io.Reader} or {@link java.nio.CharBuffer}) into a window of chars that
+   * slides forward as it's parsed, so that huge inputs needn't be held in memory.
+   */
   public class State {
-    /** Set in {@link #parseIfSupported(String)}. */
+    /** The initial number of chars of a Readable's text held at a time. */
+    static final int WINDOW_SIZE = 8192;
+
+    /** Set in {@link #parseIfSupported(String)}; null when reading from a Readable. */
     public String rawString;
-    /** Offset of the next char in {@link #rawString} to be read. */
+    /** Offset of the next char to be read, from the start of the text. When reading from a
+     * Readable, it mustn't be moved back before chars that were discarded; see
+     * {@link #nextSubShapeString()}. */
     public int offset;
     /** Dimensionality specifier (e.g. 'Z', or 'M') following a shape type name. */
     public String dimension;
 
+    /** The text, when it's a String; read in place. Otherwise null. */
+    private final String string;
+    /** When reading from a Readable, the chars from offset {@link #charsStart} to
+     * {@link #charsEnd} (exclusive), also as {@link #window}. */
+    private char[] chars;
+    private CharBuffer window;
+    private int charsStart;
+    private int charsEnd;
+    /** Where more chars come from, or null if there are no more. */
+    private Readable source;
+    /** If &gt;= 0, the offset of a token being read; chars from it on are retained. */
+    private int mark = -1;
+
+    /** Reads the string in place, rather than copying it, which for a huge polygon would double
+     * the memory needed. */
     public State(String rawString) {
       this.rawString = rawString;
+      this.string = rawString;
+      this.charsEnd = rawString.length();
+    }
+
+    /**
+     * Reads from {@code source} as needed. Its {@link java.io.IOException}s are thrown as
+     * {@link WktShapeParser.ReadException}.
+     */
+    public State(Readable source) {
+      this.string = null;
+      this.source = source;
+      this.chars = new char[WINDOW_SIZE];
+      this.window = CharBuffer.wrap(chars);
     }
 
     public SpatialContext getCtx() { return ctx; }
 
     public WktShapeParser getParser() { return WktShapeParser.this; }
 
+    /** The char at an offset, which must be loaded: &lt; {@link #charsEnd}. */
+    private char charAt(int off) {
+      if (string != null)
+        return string.charAt(off);
+      if (off < charsStart)
+        throw discarded(off);
+      return chars[off - charsStart];
+    }
+
+    private IllegalStateException discarded(int off) {
+      return new IllegalStateException("Offset " + off + " was already read from the Readable and discarded;"
+          + " the earliest available is " + charsStart);
+    }
+
+    /** Whether there's a char at the offset, reading more from the source if needed. */
+    private boolean hasChar(int off) {
+      return off < charsEnd || fill(off);
+    }
+
+    private boolean fill(int off) {
+      if (source == null)
+        return false;
+      if (offset < charsStart)
+        throw discarded(offset);
+      while (off >= charsEnd) {
+        //discard the chars we're done with; offset might have been set beyond those read
+        int keepFrom = Math.min(mark >= 0 ? Math.min(mark, offset) : offset, charsEnd);
+        if (keepFrom > charsStart) {
+          System.arraycopy(chars, keepFrom - charsStart, chars, 0, charsEnd - keepFrom);
+          charsStart = keepFrom;
+        }
+        int len = charsEnd - charsStart;
+        if (len == chars.length) {//e.g. a long nextSubShapeString()
+          chars = Arrays.copyOf(chars, chars.length * 2);
+          window = CharBuffer.wrap(chars);
+        }
+        int read;
+        try {
+          read = source.read(CharBuffer.wrap(chars, len, chars.length - len));
+        } catch (IOException e) {
+          throw new ReadException(e);
+        }
+        if (read < 0) {
+          source = null;
+          return false;
+        }
+        charsEnd += read;
+      }
+      return true;
+    }
+
+    /** The current char; there must be one (not {@link #eof()}). */
+    public char peekChar() {
+      return charAt(offset);
+    }
+
+    /** The chars from startOffset to the current offset. */
+    private String substring(int startOffset) {
+      if (string != null)
+        return string.substring(startOffset, offset);
+      if (startOffset < charsStart)
+        throw discarded(startOffset);
+      return new String(chars, startOffset - charsStart, offset - startOffset);
+    }
+
     /**
      * Reads the word starting at the current character position. The word
      * terminates once {@link Character#isJavaIdentifierPart(char)} returns false (or EOF).
@@ -388,13 +500,14 @@ public class WktShapeParser {
      */
     public String nextWord() throws ParseException {
       int startOffset = offset;
-      while (offset < rawString.length() &&
-          Character.isJavaIdentifierPart(rawString.charAt(offset))) {
+      mark = startOffset;
+      while (hasChar(offset) && Character.isJavaIdentifierPart(charAt(offset))) {
         offset++;
       }
+      mark = -1;
       if (startOffset == offset)
         throw new ParseException("Word expected", startOffset);
-      String result = rawString.substring(startOffset, offset);
+      String result = substring(startOffset);
       nextIfWhitespace();
       return result;
     }
@@ -410,7 +523,7 @@ public class WktShapeParser {
     public boolean nextIfEmptyAndSkipZM() throws ParseException {
       if (eof())
         return false;
-      char c = rawString.charAt(offset);
+      char c = charAt(offset);
       if (c == '(' || !Character.isJavaIdentifierPart(c))
         return false;
       String word = nextWord();
@@ -421,7 +534,7 @@ public class WktShapeParser {
 
       if (eof())
         return false;
-      c = rawString.charAt(offset);
+      c = charAt(offset);
       if (c == '(' || !Character.isJavaIdentifierPart(c))
         return false;
       word = nextWord();
@@ -433,21 +546,28 @@ public class WktShapeParser {
 
     /**
      * Reads in a double from the String. Parses digits with an optional decimal, sign, or exponent.
-     * NaN and Infinity are not supported.
+     * NaN and Infinity are not supported. Typical numbers are parsed in place without allocating;
+     * see {@link WktShapeParser#parseSimpleDouble(CharSequence, int, int)}.
      * {@link #offset} is advanced past whitespace.
      *
      * @return Double value
      */
     public double nextDouble() throws ParseException {
       int startOffset = offset;
+      mark = startOffset;
       skipDouble();
+      mark = -1;
       if (startOffset == offset)
         throw new ParseException("Expected a number", offset);
-      double result;
-      try {
-        result = Double.parseDouble(rawString.substring(startOffset, offset));
-      } catch (Exception e) {
-        throw new ParseException(e.toString(), offset);
+      double result = string != null
+          ? parseSimpleDouble(string, startOffset, offset - startOffset)
+          : parseSimpleDouble(window, startOffset - charsStart, offset - startOffset);
+      if (Double.isNaN(result)) {//not simple; let the JDK do it
+        try {
+          result = Double.parseDouble(substring(startOffset));
+        } catch (Exception e) {
+          throw new ParseException(e.toString(), offset);
+        }
       }
       nextIfWhitespace();
       return result;
@@ -456,8 +576,8 @@ public class WktShapeParser {
     /** Advances offset forward until it points to a character that isn't part of a number. */
     public void skipDouble() {
       int startOffset = offset;
-      for (; offset < rawString.length(); offset++) {
-        char c = rawString.charAt(offset);
+      for (; hasChar(offset); offset++) {
+        char c = charAt(offset);
         if (!(Character.isDigit(c) || c == '.' || c == '-' || c == '+')) {
           //'e' is okay as long as it isn't first
           if (offset != startOffset && (c == 'e' || c == 'E'))
@@ -488,7 +608,7 @@ public class WktShapeParser {
     public void nextExpect(char expected) throws ParseException {
       if (eof())
         throw new ParseException("Expected [" + expected + "] found EOF", offset);
-      char c = rawString.charAt(offset);
+      char c = charAt(offset);
       if (c != expected)
         throw new ParseException("Expected [" + expected + "] found [" + c + "]", offset);
       offset++;
@@ -497,7 +617,7 @@ public class WktShapeParser {
 
     /** If the string is consumed, i.e. at end-of-file. */
     public final boolean eof() {
-      return offset >= rawString.length();
+      return !hasChar(offset);
     }
 
     /**
@@ -508,7 +628,7 @@ public class WktShapeParser {
      * @return true if consumed
      */
     public boolean nextIf(char expected) {
-      if (!eof() && rawString.charAt(offset) == expected) {
+      if (!eof() && charAt(offset) == expected) {
         offset++;
         nextIfWhitespace();
         return true;
@@ -522,8 +642,8 @@ public class WktShapeParser {
      * most other parsing methods call it.</em>
      */
     public void nextIfWhitespace() {
-      for (; offset < rawString.length(); offset++) {
-        if (!Character.isWhitespace(rawString.charAt(offset))) {
+      for (; hasChar(offset); offset++) {
+        if (!Character.isWhitespace(charAt(offset))) {
           return;
         }
       }
@@ -551,9 +671,10 @@ public class WktShapeParser {
      */
     public String nextSubShapeString() throws ParseException {
       int startOffset = offset;
+      mark = startOffset;
       int parenStack = 0;//how many parenthesis levels are we in?
-      for (; offset < rawString.length(); offset++) {
-        char c = rawString.charAt(offset);
+      for (; hasChar(offset); offset++) {
+        char c = charAt(offset);
         if (c == ',') {
           if (parenStack == 0)
             break;
@@ -565,10 +686,113 @@ public class WktShapeParser {
           parenStack++;
         }
       }
+      mark = -1;
       if (parenStack != 0)
         throw new ParseException("Unbalanced parenthesis", startOffset);
-      return rawString.substring(startOffset, offset);
+      return substring(startOffset);
     }
 
   }//class State
-}
\ No newline at end of file
+
+  /** The powers of 10 that doubles represent exactly. */
+  private static final double[] EXACT_POWERS_OF_10 = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /**
+   * Parses {@code [+-]? digits* ('.' digits*)? ([eE] [+-]? digits+)?} with at least one digit, if
+   * it can be done exactly like {@link Double#parseDouble(String)}, which is when the digits
+   * without leading zeros form an integer of at most 2^53 and the power of 10 to scale it by is
+   * within &plusmn;22 (e.g. up to 15 significant digits). Then both are exact doubles, so their
+   * product or quotient is correctly rounded. This is Clinger's "fast path"; it covers most
+   * coordinates in WKT.
+   *
+   * @return The value, or NaN if it doesn't qualify (or is malformed).
+   */
+  static double parseSimpleDouble(CharSequence chars, int offset, int length) {
+    final int end = offset + length;
+    int i = offset;
+    boolean negative = false;
+    if (i < end && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+      negative = chars.charAt(i) == '-';
+      i++;
+    }
+    long mantissa = 0;
+    int numSignificant = 0;
+    int numDigits = 0;
+    int scale = 0;//the power of 10 to multiply the mantissa by
+    for (; i < end; i++) {
+      int digit = chars.charAt(i) - '0';
+      if (digit < 0 || digit > 9)
+        break;
+      numDigits++;
+      if (mantissa != 0 || digit != 0) {
+        if (++numSignificant > 18)//might overflow
+          return Double.NaN;
+        mantissa = mantissa * 10 + digit;
+      }
+    }
+    if (i < end && chars.charAt(i) == '.') {
+      for (i++; i < end; i++) {
+        int digit = chars.charAt(i) - '0';
+        if (digit < 0 || digit > 9)
+          break;
+        numDigits++;
+        scale--;
+        if (mantissa != 0 || digit != 0) {
+          if (++numSignificant > 18)
+            return Double.NaN;
+          mantissa = mantissa * 10 + digit;
+        }
+      }
+    }
+    if (numDigits == 0)
+      return Double.NaN;
+    if (i < end && (chars.charAt(i) == 'e' || chars.charAt(i) == 'E')) {
+      i++;
+      boolean negativeExp = false;
+      if (i < end && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+        negativeExp = chars.charAt(i) == '-';
+        i++;
+      }
+      int exp = 0;
+      int expStart = i;
+      for (; i < end; i++) {
+        int digit = chars.charAt(i) - '0';
+        if (digit < 0 || digit > 9)
+          break;
+        if (exp < 1000)//no more matters
+          exp = exp * 10 + digit;
+      }
+      if (i == expStart)
+        return Double.NaN;
+      scale += negativeExp ? -exp : exp;
+    }
+    if (i != end || mantissa > (1L << 53))
+      return Double.NaN;
+    double result = mantissa;
+    if (scale < 0) {
+      if (scale < -22)
+        return mantissa == 0 ? (negative ? -0.0 : 0.0) : Double.NaN;
+      result /= EXACT_POWERS_OF_10[-scale];
+    } else if (scale > 0) {
+      if (scale > 22)
+        return mantissa == 0 ? (negative ? -0.0 : 0.0) : Double.NaN;
+      result *= EXACT_POWERS_OF_10[scale];
+    }
+    return negative ? -result : result;
+  }
+
+  /** Thrown by a {@link State} reading from a {@link Readable} that threw an IOException. */
+  public static class ReadException extends RuntimeException {
+    public ReadException(IOException cause) {
+      super(cause);
+    }
+
+    @Override
+    public IOException getCause() {
+      return (IOException) super.getCause();
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.io;
+
+import com.spatial4j.core.shape.Shape;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Reads shapes one at a time from WKT in a {@link Readable}, such as a {@link java.io.Reader} or
+ * {@link java.nio.CharBuffer}, without holding all the text in memory. By default the text is a
+ * sequence of shapes separated by whitespace (e.g. one per line), any of which may be a
+ * GEOMETRYCOLLECTION. Alternatively it's a single GEOMETRYCOLLECTION whose members are returned one
+ * at a time; see {@link #flattening(WktShapeParser, Readable)}. The shapes are parsed by a
+ * {@link WktShapeParser}, including any subclass's shapes.
+ * <p/>
+ * Not thread-safe.
+ */
+public class WktShapeReader implements Closeable {
+
+  private final WktShapeParser parser;
+  private final Readable source;
+  private final WktShapeParser.State state;
+  /** Whether the text is one GEOMETRYCOLLECTION whose members are returned. */
+  private final boolean flatten;
+
+  private boolean started;
+  /** Whether we're reading the members of a GEOMETRYCOLLECTION. */
+  private boolean inCollection;
+
+  /** Reads a sequence of shapes separated by whitespace. */
+  public WktShapeReader(WktShapeParser parser, Readable source) {
+    this(parser, source, false);
+  }
+
+  /**
+   * @param flatten If true, the text must be a single GEOMETRYCOLLECTION, whose members are
+   *                returned; otherwise it's a sequence of shapes separated by whitespace.
+   */
+  public WktShapeReader(WktShapeParser parser, Readable source, boolean flatten) {
+    this.parser = parser;
+    this.source = source;
+    this.state = parser.newState(source);
+    this.flatten = flatten;
+  }
+
+  /** Reads the members of the single GEOMETRYCOLLECTION in the source, one at a time. */
+  public static WktShapeReader flattening(WktShapeParser parser, Readable source) {
+    return new WktShapeReader(parser, source, true);
+  }
+
+  /**
+   * Parses the next shape.
+   * @return The shape, or null at the end.
+   * @throws ParseException if the WKT is invalid; the reader shouldn't be used afterwards.
+   * @throws IOException from the source
+   */
+  public Shape next() throws ParseException, IOException {
+    try {
+      return nextShape();
+    } catch (WktShapeParser.ReadException e) {
+      throw e.getCause();
+    } catch (ParseException e) {
+      throw e;
+    } catch (Exception e) {//most likely InvalidShapeException
+      ParseException pe = new ParseException(e.toString(), state.offset);
+      pe.initCause(e);
+      throw pe;
+    }
+  }
+
+  private Shape nextShape() throws ParseException {
+    if (!started) {
+      started = true;
+      state.nextIfWhitespace();//leading
+      if (state.eof())
+        return null;
+      String shapeType = state.nextWord();
+      if (!flatten)
+        return shape(shapeType);
+      if (!shapeType.equalsIgnoreCase("GEOMETRYCOLLECTION"))
+        throw new ParseException("GEOMETRYCOLLECTION expected", state.offset);
+      if (state.nextIfEmptyAndSkipZM()) {
+        expectEof();
+        return null;
+      }
+      state.nextExpect('(');
+      inCollection = true;
+      return shape(state.nextWord());
+    }
+    if (inCollection) {
+      if (state.nextIf(','))
+        return shape(state.nextWord());
+      state.nextExpect(')');
+      inCollection = false;
+      expectEof();
+      return null;
+    }
+    if (state.eof())
+      return null;
+    return shape(state.nextWord());
+  }
+
+  private Shape shape(String shapeType) throws ParseException {
+    Shape shape = parser.parseShapeByType(state, shapeType);
+    if (shape == null)
+      throw new ParseException("Shape of type "+shapeType+" is unknown", state.offset);
+    return shape;
+  }
+
+  private void expectEof() throws ParseException {
+    if (!state.eof())
+      throw new ParseException("end of shape expected", state.offset);
+  }
+
+  /** The offset of the next char to be parsed, from the start of the text. */
+  public int getOffset() {
+    return state.offset;
+  }
+
+  /** Closes the source if it's {@link Closeable}. */
+  @Override
+  public void close() throws IOException {
+    if (source instanceof Closeable)
+      ((Closeable) source).close();
+  }
+}
@@ -17,12 +17,25 @@
 
 package com.spatial4j.core.io.jts;
 
+import com.spatial4j.core.context.jts.JtsGeometryCache;
 import com.spatial4j.core.context.jts.JtsSpatialContext;
 import com.spatial4j.core.context.jts.JtsSpatialContextFactory;
 import com.spatial4j.core.exception.InvalidShapeException;
 import com.spatial4j.core.io.BinaryCodec;
 import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.jts.JtsGeometry;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.geom.PrecisionModel;
 import com.vividsolutions.jts.io.InStream;
 import com.vividsolutions.jts.io.OutStream;
@@ -31,12 +44,23 @@ import com.vividsolutions.jts.io.WKBConstants;
 import com.vividsolutions.jts.io.WKBReader;
 import com.vividsolutions.jts.io.WKBWriter;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInput;
+import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 
 /**
  * Writes shapes in WKB, if it isn't otherwise supported by the superclass.
+ * <p/>
+ * In the compact format (see {@link #isCompact()}) shapes are instead written as their bounding
+ * box followed by the geometry's structure, with each coordinate written as the zig-zag varint
+ * delta of its quantized x &amp; y from the previous coordinate, and rings without their closing
+ * coordinate. This is typically several times smaller than WKB. The bounding box coming first
+ * lets a reader check it before decoding the coordinates. Otherwise, if the PrecisionModel is
+ * "floating_single" then 4-byte floats are used for the superclass's shapes.
  */
 public class JtsBinaryCodec extends BinaryCodec {
 
@@ -45,7 +69,7 @@ public class JtsBinaryCodec extends BinaryCodec {
   public JtsBinaryCodec(JtsSpatialContext ctx, JtsSpatialContextFactory factory) {
     super(ctx, factory);
     //note: ctx.geometryFactory hasn't been set yet
-    useFloat = (factory.precisionModel.getType() == PrecisionModel.FLOATING_SINGLE);
+    useFloat = !isCompact() && (factory.precisionModel.getType() == PrecisionModel.FLOATING_SINGLE);
   }
 
   @Override
@@ -87,8 +111,54 @@ public class JtsBinaryCodec extends BinaryCodec {
     return true;
   }
 
+  @Override
+  protected boolean skipShapeByTypeIfSupported(DataInput dataInput, byte type) throws IOException {
+    if (type != TYPE_GEOM || !isCompact())
+      return super.skipShapeByTypeIfSupported(dataInput, type);
+    skipDims(dataInput, 4);//bbox
+    skipCompactGeometry(dataInput);
+    return true;
+  }
+
+  /**
+   * Reads a geometry written by {@link #writeJtsGeom(java.io.DataOutput, com.spatial4j.core.shape.Shape)}.
+   * If the context has a {@link JtsSpatialContext#getGeometryCache()}, its bytes are looked up there
+   * first: in the compact format they're scanned without decoding, whereas WKB is decoded while
+   * reading them. A new geometry is added to the cache.
+   */
   public Shape readJtsGeom(final DataInput dataInput) throws IOException {
     JtsSpatialContext ctx = (JtsSpatialContext)super.ctx;
+    JtsGeometryCache cache = ctx.getGeometryCache();
+    if (cache == null)
+      return ctx.makeShape(readJtsGeometry(dataInput), false, false);
+
+    RecordingInputStream recorder = new RecordingInputStream(dataInput);
+    DataInputStream recordingInput = new DataInputStream(recorder);
+    Geometry geom = null;
+    if (isCompact()) {
+      skipDims(recordingInput, 4);//bbox
+      skipCompactGeometry(recordingInput);
+    } else {
+      geom = readJtsGeometry(recordingInput);
+    }
+    BinaryKey key = new BinaryKey(scale, recorder.toByteArray());
+    JtsGeometry cached = cache.get(key);
+    if (cached != null)
+      return cached;
+    if (geom == null)
+      geom = readJtsGeometry(new DataInputStream(new ByteArrayInputStream(key.bytes)));
+    JtsGeometry shape = ctx.makeShape(geom, false, false);
+    cache.put(key, shape);
+    return shape;
+  }
+
+  /** Reads the JTS Geometry of a {@link #TYPE_GEOM}, after the type. */
+  protected Geometry readJtsGeometry(final DataInput dataInput) throws IOException {
+    JtsSpatialContext ctx = (JtsSpatialContext)super.ctx;
+    if (isCompact()) {
+      skipDims(dataInput, 4);//bbox; makeShape computes it anyway
+      return readCompactGeometry(dataInput, ctx.getGeometryFactory(), new long[2]);
+    }
     WKBReader reader = new WKBReader(ctx.getGeometryFactory());
     try {
       InStream inStream = new InStream() {//a strange JTS abstraction
@@ -106,18 +176,85 @@ public class JtsBinaryCodec extends BinaryCodec {
           }
         }
       };
-      Geometry geom = reader.read(inStream);
-      //false: don't check for dateline-180 cross or multi-polygon overlaps; this won't happen
-      // once it gets written, and we're reading it now
-      return ctx.makeShape(geom, false, false);
+      //the caller shouldn't check for dateline-180 cross or multi-polygon overlaps; this won't
+      // happen once it gets written, and we're reading it now
+      return reader.read(inStream);
     } catch (ParseException ex) {
       throw new InvalidShapeException("error reading WKT", ex);
     }
   }
 
+  /** Keeps the bytes read from a DataInput. */
+  private static class RecordingInputStream extends InputStream {
+    private final DataInput in;
+    private byte[] buf = new byte[256];
+    private int count;
+
+    RecordingInputStream(DataInput in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte b = in.readByte();//EOFException at the end, which suits us
+      ensureCapacity(1);
+      buf[count++] = b;
+      return b & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      in.readFully(b, off, len);//DataInputStream only asks for what it needs
+      ensureCapacity(len);
+      System.arraycopy(b, off, buf, count, len);
+      count += len;
+      return len;
+    }
+
+    private void ensureCapacity(int more) {
+      if (count + more > buf.length)
+        buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + more));
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buf, count);
+    }
+  }
+
+  /** A {@link JtsGeometryCache} key: a geometry's bytes, in the format of a scale. */
+  private static final class BinaryKey {
+    final double scale;
+    final byte[] bytes;
+    final int hash;
+
+    BinaryKey(double scale, byte[] bytes) {
+      this.scale = scale;
+      this.bytes = bytes;
+      this.hash = 31 * Arrays.hashCode(bytes) + (int) Double.doubleToLongBits(scale);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof BinaryKey))
+        return false;
+      BinaryKey other = (BinaryKey) o;
+      return hash == other.hash && scale == other.scale && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
   public void writeJtsGeom(final DataOutput dataOutput, Shape s) throws IOException {
     JtsSpatialContext ctx = (JtsSpatialContext)super.ctx;
     Geometry geom = ctx.getGeometryFrom(s);//might even translate it
+    if (isCompact()) {
+      writeRect(dataOutput, s.getBoundingBox());
+      writeCompactGeometry(dataOutput, geom, new long[2]);
+      return;
+    }
     new WKBWriter().write(geom, new OutStream() {//a strange JTS abstraction
       boolean first = true;
       @Override
@@ -133,4 +270,157 @@ public class JtsBinaryCodec extends BinaryCodec {
       }
     });
   }
+
+  /**
+   * Writes the geometry's type (using WKB's codes) &amp; structure.
+   * @param prev The previous quantized x &amp; y, which coordinates are written relative to.
+   */
+  protected void writeCompactGeometry(DataOutput dataOutput, Geometry geom, long[] prev) throws IOException {
+    if (geom instanceof Point) {
+      dataOutput.writeByte(WKBConstants.wkbPoint);
+      writeCompactCoordinates(dataOutput, ((Point) geom).getCoordinateSequence(), false, prev);
+    } else if (geom instanceof LineString) {//and LinearRing
+      dataOutput.writeByte(WKBConstants.wkbLineString);
+      writeCompactCoordinates(dataOutput, ((LineString) geom).getCoordinateSequence(), false, prev);
+    } else if (geom instanceof Polygon) {
+      Polygon poly = (Polygon) geom;
+      dataOutput.writeByte(WKBConstants.wkbPolygon);
+      if (poly.isEmpty()) {
+        writeVarLong(dataOutput, 0);
+        return;
+      }
+      writeVarLong(dataOutput, 1 + poly.getNumInteriorRing());
+      writeCompactCoordinates(dataOutput, poly.getExteriorRing().getCoordinateSequence(), true, prev);
+      for (int i = 0; i < poly.getNumInteriorRing(); i++) {
+        writeCompactCoordinates(dataOutput, poly.getInteriorRingN(i).getCoordinateSequence(), true, prev);
+      }
+    } else if (geom instanceof GeometryCollection) {
+      if (geom instanceof MultiPoint) {
+        dataOutput.writeByte(WKBConstants.wkbMultiPoint);
+      } else if (geom instanceof MultiLineString) {
+        dataOutput.writeByte(WKBConstants.wkbMultiLineString);
+      } else if (geom instanceof MultiPolygon) {
+        dataOutput.writeByte(WKBConstants.wkbMultiPolygon);
+      } else {
+        dataOutput.writeByte(WKBConstants.wkbGeometryCollection);
+      }
+      writeVarLong(dataOutput, geom.getNumGeometries());
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        writeCompactGeometry(dataOutput, geom.getGeometryN(i), prev);
+      }
+    } else {
+      throw new IllegalArgumentException("Unsupported geometry "+geom.getGeometryType());
+    }
+  }
+
+  /** @param ring if true then the last coordinate isn't written, as it's the same as the first. */
+  private void writeCompactCoordinates(DataOutput dataOutput, CoordinateSequence seq, boolean ring,
+                                       long[] prev) throws IOException {
+    int size = seq.size();
+    if (ring && size > 0)
+      size--;
+    writeVarLong(dataOutput, size);
+    for (int i = 0; i < size; i++) {
+      long x = quantize(seq.getX(i));
+      long y = quantize(seq.getY(i));
+      writeVarLong(dataOutput, zigZag(x - prev[0]));
+      writeVarLong(dataOutput, zigZag(y - prev[1]));
+      prev[0] = x;
+      prev[1] = y;
+    }
+  }
+
+  /** The inverse of {@link #writeCompactGeometry(java.io.DataOutput, com.vividsolutions.jts.geom.Geometry, long[])}. */
+  protected Geometry readCompactGeometry(DataInput dataInput, GeometryFactory geomFactory, long[] prev) throws IOException {
+    byte type = dataInput.readByte();
+    switch (type) {
+      case WKBConstants.wkbPoint: {
+        Coordinate[] coords = readCompactCoordinates(dataInput, false, prev);
+        return geomFactory.createPoint(coords.length == 0 ? null : coords[0]);
+      }
+      case WKBConstants.wkbLineString:
+        return geomFactory.createLineString(readCompactCoordinates(dataInput, false, prev));
+      case WKBConstants.wkbPolygon: {
+        int numRings = readVarSize(dataInput);
+        if (numRings == 0)
+          return geomFactory.createPolygon(null, null);
+        LinearRing shell = geomFactory.createLinearRing(readCompactCoordinates(dataInput, true, prev));
+        LinearRing[] holes = new LinearRing[numRings - 1];
+        for (int i = 0; i < holes.length; i++) {
+          holes[i] = geomFactory.createLinearRing(readCompactCoordinates(dataInput, true, prev));
+        }
+        return geomFactory.createPolygon(shell, holes);
+      }
+      case WKBConstants.wkbMultiPoint:
+      case WKBConstants.wkbMultiLineString:
+      case WKBConstants.wkbMultiPolygon:
+      case WKBConstants.wkbGeometryCollection: {
+        Geometry[] geoms = new Geometry[readVarSize(dataInput)];
+        for (int i = 0; i < geoms.length; i++) {
+          geoms[i] = readCompactGeometry(dataInput, geomFactory, prev);
+        }
+        try {
+          switch (type) {
+            case WKBConstants.wkbMultiPoint:
+              return geomFactory.createMultiPoint(GeometryFactory.toPointArray(Arrays.asList(geoms)));
+            case WKBConstants.wkbMultiLineString:
+              return geomFactory.createMultiLineString(GeometryFactory.toLineStringArray(Arrays.asList(geoms)));
+            case WKBConstants.wkbMultiPolygon:
+              return geomFactory.createMultiPolygon(GeometryFactory.toPolygonArray(Arrays.asList(geoms)));
+            default:
+              return geomFactory.createGeometryCollection(geoms);
+          }
+        } catch (ArrayStoreException e) {
+          throw new InvalidShapeException("Unexpected member geometry type in "+type, e);
+        }
+      }
+      default:
+        throw new InvalidShapeException("Unsupported geometry type "+type);
+    }
+  }
+
+  private Coordinate[] readCompactCoordinates(DataInput dataInput, boolean ring, long[] prev) throws IOException {
+    int size = readVarSize(dataInput);
+    Coordinate[] coords = new Coordinate[ring && size > 0 ? size + 1 : size];
+    for (int i = 0; i < size; i++) {
+      prev[0] += unZigZag(readVarLong(dataInput));
+      prev[1] += unZigZag(readVarLong(dataInput));
+      coords[i] = new Coordinate(unquantize(prev[0]), unquantize(prev[1]));
+    }
+    if (coords.length > size)
+      coords[size] = new Coordinate(coords[0]);//close the ring
+    return coords;
+  }
+
+  /** Advances past a compact geometry without creating it. */
+  private void skipCompactGeometry(DataInput dataInput) throws IOException {
+    byte type = dataInput.readByte();
+    switch (type) {
+      case WKBConstants.wkbPoint:
+      case WKBConstants.wkbLineString:
+        skipCompactCoordinates(dataInput);
+        break;
+      case WKBConstants.wkbPolygon:
+        for (int i = readVarSize(dataInput); i > 0; i--) {
+          skipCompactCoordinates(dataInput);
+        }
+        break;
+      case WKBConstants.wkbMultiPoint:
+      case WKBConstants.wkbMultiLineString:
+      case WKBConstants.wkbMultiPolygon:
+      case WKBConstants.wkbGeometryCollection:
+        for (int i = readVarSize(dataInput); i > 0; i--) {
+          skipCompactGeometry(dataInput);
+        }
+        break;
+      default:
+        throw new InvalidShapeException("Unsupported geometry type "+type);
+    }
+  }
+
+  private void skipCompactCoordinates(DataInput dataInput) throws IOException {
+    for (long i = 2L * readVarSize(dataInput); i > 0; i--) {
+      readVarLong(dataInput);
+    }
+  }
 }
@@ -26,6 +26,7 @@ import com.spatial4j.core.shape.Shape;
 import com.spatial4j.core.shape.jts.JtsGeometry;
 import com.vividsolutions.jts.algorithm.CGAlgorithms;
 import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryFactory;
@@ -34,6 +35,7 @@ import com.vividsolutions.jts.geom.Polygon;
 
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -106,7 +108,7 @@ public class JtsWktShapeParser extends WktShapeParser {
 
     GeometryFactory geometryFactory = ctx.getGeometryFactory();
 
-    Coordinate[] coordinates = coordinateSequence(state);
+    CoordinateSequence coordinates = readCoordinateSequence(state);
     return makeShapeFromGeometry(geometryFactory.createLineString(coordinates));
   }
 
@@ -157,7 +159,7 @@ public class JtsWktShapeParser extends WktShapeParser {
   protected Polygon polygon(WktShapeParser.State state) throws ParseException {
     GeometryFactory geometryFactory = ctx.getGeometryFactory();
 
-    List<Coordinate[]> coordinateSequenceList = coordinateSequenceList(state);
+    List<CoordinateSequence> coordinateSequenceList = readCoordinateSequenceList(state);
 
     LinearRing shell = geometryFactory.createLinearRing
         (coordinateSequenceList.get(0));
@@ -193,12 +195,63 @@ public class JtsWktShapeParser extends WktShapeParser {
   }
 
 
+  /**
+   * Reads a list of JTS CoordinateSequences from the current position.
+   * <pre>
+   *   '(' coordinateSequence (',' coordinateSequence )* ')'
+   * </pre>
+   */
+  protected List<CoordinateSequence> readCoordinateSequenceList(WktShapeParser.State state) throws ParseException {
+    List<CoordinateSequence> sequenceList = new ArrayList<CoordinateSequence>();
+    state.nextExpect('(');
+    do {
+      sequenceList.add(readCoordinateSequence(state));
+    } while (state.nextIf(','));
+    state.nextExpect(')');
+    return sequenceList;
+  }
+
+  /**
+   * Reads a JTS CoordinateSequence from the current position, calling
+   * {@link #readCoordinate(com.spatial4j.core.io.WktShapeParser.State, double[], int)} for each
+   * coordinate. The ordinates are collected in a double[] and then set on a sequence created by the
+   * GeometryFactory's CoordinateSequenceFactory; there's no intermediate list of Coordinates, and
+   * with a packed factory (see
+   * {@link com.spatial4j.core.context.jts.JtsSpatialContextFactory#coordinateSequenceFactory}) no
+   * Coordinate at all.
+   * <pre>
+   *   '(' coordinate (',' coordinate )* ')'
+   * </pre>
+   */
+  protected CoordinateSequence readCoordinateSequence(WktShapeParser.State state) throws ParseException {
+    double[] xys = new double[32];
+    int size = 0;
+    state.nextExpect('(');
+    do {
+      if (size * 2 == xys.length)
+        xys = Arrays.copyOf(xys, xys.length * 2);
+      readCoordinate(state, xys, size * 2);
+      size++;
+    } while (state.nextIf(','));
+    state.nextExpect(')');
+    CoordinateSequence sequence =
+        ctx.getGeometryFactory().getCoordinateSequenceFactory().create(size, 2);
+    for (int i = 0; i < size; i++) {
+      sequence.setOrdinate(i, CoordinateSequence.X, xys[i * 2]);
+      sequence.setOrdinate(i, CoordinateSequence.Y, xys[i * 2 + 1]);
+    }
+    return sequence;
+  }
+
   /**
    * Reads a list of JTS Coordinate sequences from the current position.
    * <pre>
    *   '(' coordinateSequence (',' coordinateSequence )* ')'
    * </pre>
+   * @deprecated The parser no longer calls this; it uses
+   * {@link #readCoordinateSequenceList(com.spatial4j.core.io.WktShapeParser.State)}.
    */
+  @Deprecated
   protected List<Coordinate[]> coordinateSequenceList(WktShapeParser.State state) throws ParseException {
     List<Coordinate[]> sequenceList = new ArrayList<Coordinate[]>();
     state.nextExpect('(');
@@ -214,7 +267,10 @@ public class JtsWktShapeParser extends WktShapeParser {
    * <pre>
    *   '(' coordinate (',' coordinate )* ')'
    * </pre>
+   * @deprecated The parser no longer calls this; it uses
+   * {@link #readCoordinateSequence(com.spatial4j.core.io.WktShapeParser.State)}.
    */
+  @Deprecated
   protected Coordinate[] coordinateSequence(WktShapeParser.State state) throws ParseException {
     List<Coordinate> sequence = new ArrayList<Coordinate>();
     state.nextExpect('(');
@@ -226,17 +282,33 @@ public class JtsWktShapeParser extends WktShapeParser {
   }
 
   /**
-   * Reads a {@link com.vividsolutions.jts.geom.Coordinate} from the current position.
-   * It's akin to {@link #point(com.spatial4j.core.io.WktShapeParser.State)} but for
-   * a JTS Coordinate.  Only the first 2 numbers are parsed; any remaining are ignored.
+   * Reads a {@link com.vividsolutions.jts.geom.Coordinate} from the current position via
+   * {@link #readCoordinate(com.spatial4j.core.io.WktShapeParser.State, double[], int)}.
+   * @deprecated The parser no longer calls this; override
+   * {@link #readCoordinate(com.spatial4j.core.io.WktShapeParser.State, double[], int)} instead.
    */
+  @Deprecated
   protected Coordinate coordinate(WktShapeParser.State state) throws ParseException {
+    double[] xy = new double[2];
+    readCoordinate(state, xy, 0);
+    return new Coordinate(xy[0], xy[1]);
+  }
+
+  /**
+   * Reads a coordinate from the current position into <code>xys[offset]</code> (x) and
+   * <code>xys[offset+1]</code> (y). It's akin to
+   * {@link #point(com.spatial4j.core.io.WktShapeParser.State)} but without creating a Point.
+   * Only the first 2 numbers are parsed; any remaining are ignored. Every JTS coordinate the
+   * parser reads goes through here.
+   */
+  protected void readCoordinate(WktShapeParser.State state, double[] xys, int offset) throws ParseException {
     double x = ctx.normX(state.nextDouble());
     ctx.verifyX(x);
     double y = ctx.normY(state.nextDouble());
     ctx.verifyY(y);
     state.skipNextDoubles();
-    return new Coordinate(x, y);
+    xys[offset] = x;
+    xys[offset + 1] = y;
   }
 
   @Override
@@ -18,15 +18,18 @@
 package com.spatial4j.core.shape;
 
 import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.index.RTree;
 import com.spatial4j.core.shape.impl.Range;
 
 import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.RandomAccess;
 
 import static com.spatial4j.core.shape.SpatialRelation.CONTAINS;
+import static com.spatial4j.core.shape.SpatialRelation.DISJOINT;
 import static com.spatial4j.core.shape.SpatialRelation.INTERSECTS;
 
 /**
@@ -44,14 +47,21 @@ import static com.spatial4j.core.shape.SpatialRelation.INTERSECTS;
  * intersects when the best answer is actually contains or within. If any shape
  * intersects the provided shape then that is the answer.
  * <p/>
- * This implementation is not optimized for a large number of shapes; relate is
- * O(N).  A more sophisticated implementation might do an R-Tree based on
- * bbox'es, for example.
+ * Once there are at least {@link #INDEX_MIN_SIZE} shapes, relate() lazily builds
+ * an {@link RTree} of the shapes' bboxes on first use so that only the shapes whose
+ * bbox intersects that of the other shape are visited; the rest are DISJOINT.
  */
 public class ShapeCollection<S extends Shape> extends AbstractList<S> implements Shape {
 
+  /** The minimum number of shapes for which relate() will use a bbox index. */
+  public static final int INDEX_MIN_SIZE = 32;
+
   protected final List<S> shapes;
   protected final Rectangle bbox;
+  protected final SpatialContext ctx;
+
+  /** Built lazily by {@link #getIndex()}. */
+  private volatile RTree<S> index;
 
   /**
    * WARNING: {@code shapes} is copied by reference.
@@ -62,6 +72,7 @@ public class ShapeCollection<S extends Shape> extends AbstractList<S> implements
     if (!(shapes instanceof RandomAccess))
       throw new IllegalArgumentException("Shapes arg must implement RandomAccess: "+shapes.getClass());
     this.shapes = shapes;
+    this.ctx = ctx;
     this.bbox = computeBoundingBox(shapes, ctx);
   }
 
@@ -137,6 +148,8 @@ public class ShapeCollection<S extends Shape> extends AbstractList<S> implements
 
     final boolean containsWillShortCircuit = (other instanceof Point) ||
         relateContainsShortCircuits();
+    if (shouldIndex())
+      return relateIndexed(other, containsWillShortCircuit);
     SpatialRelation sect = null;
     for (Shape shape : shapes) {
       SpatialRelation nextSect = shape.relate(other);
@@ -156,6 +169,50 @@ public class ShapeCollection<S extends Shape> extends AbstractList<S> implements
     return sect;
   }
 
+  /**
+   * Like the loop in relate() but only for the shapes whose bbox intersects other's bbox.
+   * The others are DISJOINT; since combine() doesn't depend on the order, starting with
+   * DISJOINT yields the same answer as the linear loop.
+   */
+  private SpatialRelation relateIndexed(Shape other, boolean containsWillShortCircuit) {
+    final int[] candidates = getIndex().searchBoundingBox(other.getBoundingBox());
+    SpatialRelation sect = candidates.length < shapes.size() ? DISJOINT : null;
+    for (int id : candidates) {
+      SpatialRelation nextSect = shapes.get(id).relate(other);
+
+      if (sect == null) {//first pass
+        sect = nextSect;
+      } else {
+        sect = sect.combine(nextSect);
+      }
+
+      if (sect == INTERSECTS)
+        return INTERSECTS;
+
+      if (sect == CONTAINS && containsWillShortCircuit)
+        return CONTAINS;
+    }
+    return sect;
+  }
+
+  /**
+   * Whether relate() should use a bbox index of the shapes. The default is
+   * true when there are at least {@link #INDEX_MIN_SIZE} shapes.
+   */
+  protected boolean shouldIndex() {
+    return shapes.size() >= INDEX_MIN_SIZE;
+  }
+
+  /** The bbox index of the shapes, built on first call. Thread-safe. */
+  protected RTree<S> getIndex() {
+    RTree<S> result = index;
+    if (result == null) {
+      //racing threads might each build one; that's harmless
+      index = result = new RTree<S>(shapes, ctx);
+    }
+    return result;
+  }
+
   /**
    * Called by relate() to determine whether to return early if it finds
    * CONTAINS, instead of checking the remaining shapes. It will do so without
@@ -178,24 +235,88 @@ public class ShapeCollection<S extends Shape> extends AbstractList<S> implements
   /**
    * Computes whether the shapes are mutually disjoint. This is a utility method
    * offered for use by a subclass implementing {@link #relateContainsShortCircuits()}.
-   * <b>Beware: this is an O(N^2) algorithm.</b>.  Consequently, consider safely
-   * assuming non-disjoint if shapes.size() > 10 or something.  And if all shapes
-   * are a Point then the result of this method doesn't ultimately matter.
+   * It sweeps across the shapes' bboxes ordered by their minX, only calling relate()
+   * on pairs of shapes whose bboxes intersect; so it's typically O(N log N) although
+   * it degrades to O(N^2) when most bboxes overlap.  And if all shapes are a Point
+   * then the result of this method doesn't ultimately matter.
    */
   protected static boolean computeMutualDisjoint(List<? extends Shape> shapes) {
-    //WARNING: this is an O(n^2) algorithm.
-    //loop through each shape and see if it intersects any shape before it
-    for (int i = 1; i < shapes.size(); i++) {
-      Shape shapeI = shapes.get(i);
-      for (int j = 0; j < i; j++) {
-        Shape shapeJ = shapes.get(j);
-        if (shapeJ.relate(shapeI).intersects())
+    BoxPiece[] pieces = toBoxPieces(shapes);
+    Arrays.sort(pieces);
+    //pieces whose maxX hasn't been passed by the sweep yet
+    List<BoxPiece> active = new ArrayList<BoxPiece>();
+    for (BoxPiece piece : pieces) {
+      for (int a = active.size() - 1; a >= 0; a--) {
+        BoxPiece activePiece = active.get(a);
+        if (activePiece.maxX < piece.minX) {
+          //remove; order doesn't matter
+          active.set(a, active.get(active.size() - 1));
+          active.remove(active.size() - 1);
+          continue;
+        }
+        if (activePiece.id == piece.id
+            || activePiece.maxY < piece.minY || activePiece.minY > piece.maxY)
+          continue;
+        //relate the shape earlier in the list to the later one, as a nested loop would
+        int j = Math.min(activePiece.id, piece.id);
+        int i = Math.max(activePiece.id, piece.id);
+        if (shapes.get(j).relate(shapes.get(i)).intersects())
           return false;
       }
+      active.add(piece);
     }
     return true;
   }
 
+  /**
+   * The x-intervals of the shapes' bboxes for {@link #computeMutualDisjoint(java.util.List)}.
+   * Without a context, geo is assumed if a bbox crosses the dateline, which is then split in
+   * two.  A piece touching x = -180 or 180 gets a copy on the opposite side so that shapes
+   * meeting at the dateline will be compared; in a non-geo context that merely costs an
+   * extra relate() call.
+   */
+  private static BoxPiece[] toBoxPieces(List<? extends Shape> shapes) {
+    List<BoxPiece> pieces = new ArrayList<BoxPiece>(shapes.size());
+    for (int id = 0; id < shapes.size(); id++) {
+      Rectangle r = shapes.get(id).getBoundingBox();
+      if (r.isEmpty())
+        continue;
+      if (r.getCrossesDateLine()) {
+        pieces.add(new BoxPiece(id, r.getMinX(), 180, r.getMinY(), r.getMaxY()));
+        pieces.add(new BoxPiece(id, -180, r.getMaxX(), r.getMinY(), r.getMaxY()));
+      } else {
+        pieces.add(new BoxPiece(id, r.getMinX(), r.getMaxX(), r.getMinY(), r.getMaxY()));
+      }
+    }
+    for (int p = 0, size = pieces.size(); p < size; p++) {
+      BoxPiece piece = pieces.get(p);
+      if (piece.minX == -180)
+        pieces.add(new BoxPiece(piece.id, 180, 180, piece.minY, piece.maxY));
+      if (piece.maxX == 180)
+        pieces.add(new BoxPiece(piece.id, -180, -180, piece.minY, piece.maxY));
+    }
+    return pieces.toArray(new BoxPiece[pieces.size()]);
+  }
+
+  /** A non-dateline-crossing part of a shape's bbox; ordered by minX. */
+  private static class BoxPiece implements Comparable<BoxPiece> {
+    final int id;
+    final double minX, maxX, minY, maxY;
+
+    BoxPiece(int id, double minX, double maxX, double minY, double maxY) {
+      this.id = id;
+      this.minX = minX;
+      this.maxX = maxX;
+      this.minY = minY;
+      this.maxY = maxY;
+    }
+
+    @Override
+    public int compareTo(BoxPiece o) {
+      return Double.compare(minX, o.minX);
+    }
+  }
+
   @Override
   public double getArea(SpatialContext ctx) {
     double MAX_AREA = bbox.getArea(ctx);
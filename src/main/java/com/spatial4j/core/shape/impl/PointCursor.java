@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.shape.impl;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.shape.Circle;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.SpatialRelation;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+/**
+ * A flyweight {@link Point} that views one point at a time of many stored in primitive buffers, so
+ * that a whole dataset can be passed to relate() or a
+ * {@link com.spatial4j.core.distance.DistanceCalculator} without creating a Point for each.
+ * {@link #moveTo(int)} or {@link #next()} select the point; {@link #reset(double, double)} writes
+ * through to the buffers. It starts before the first point, and is then empty.
+ * <p/>
+ * Since it changes, don't retain it (e.g. in a collection) as if it were an ordinary point; it's
+ * not thread-safe either.
+ */
+public class PointCursor implements Point {
+
+  private final SpatialContext ctx;
+  private final DoubleBuffer xs;
+  private final DoubleBuffer ys;
+  private final int stride;
+  private final int size;
+
+  private int index = -1;
+  private double x = Double.NaN;
+  private double y = Double.NaN;
+
+  /** Views points stored as x,y pairs: x0, y0, x1, y1, etc. */
+  public PointCursor(double[] xy, SpatialContext ctx) {
+    this(DoubleBuffer.wrap(xy), ctx);
+  }
+
+  /**
+   * Views points stored as x,y pairs of doubles from the buffer's position to its limit, in its
+   * byte order. The buffer may be direct (off-heap).
+   */
+  public PointCursor(ByteBuffer xy, SpatialContext ctx) {
+    this(xy.asDoubleBuffer(), ctx);
+  }
+
+  /** Views points stored as x,y pairs from the buffer's position to its limit. */
+  public PointCursor(DoubleBuffer xy, SpatialContext ctx) {
+    this(xy.slice(), shift(xy, 1), 2, ctx);
+  }
+
+  /** Views points stored in separate x &amp; y columns of the same length, e.g. a PointStore's. */
+  public PointCursor(double[] xs, double[] ys, SpatialContext ctx) {
+    this(DoubleBuffer.wrap(xs), DoubleBuffer.wrap(ys), 1, ctx);
+    if (xs.length != ys.length)
+      throw new IllegalArgumentException("xs and ys lengths differ: "+xs.length+" != "+ys.length);
+  }
+
+  /**
+   * Views points whose i-th x &amp; y are at {@code i * stride} in the respective buffer, from
+   * position 0. The number of points is determined by the buffers' limits.
+   */
+  public PointCursor(DoubleBuffer xs, DoubleBuffer ys, int stride, SpatialContext ctx) {
+    if (stride < 1)
+      throw new IllegalArgumentException("stride must be positive: "+stride);
+    this.ctx = ctx;
+    this.xs = xs;
+    this.ys = ys;
+    this.stride = stride;
+    this.size = Math.min(count(xs.limit(), stride), count(ys.limit(), stride));
+  }
+
+  private static int count(int limit, int stride) {
+    return (limit + stride - 1) / stride;
+  }
+
+  private static DoubleBuffer shift(DoubleBuffer buf, int offset) {
+    DoubleBuffer dup = buf.duplicate();
+    dup.position(Math.min(dup.limit(), dup.position() + offset));
+    return dup.slice();
+  }
+
+  /** The number of points. */
+  public int size() {
+    return size;
+  }
+
+  /** The index of the current point; -1 before the first. */
+  public int getIndex() {
+    return index;
+  }
+
+  /** Makes this the point at {@code index}, returning this. */
+  public PointCursor moveTo(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("index: "+index+", size: "+size);
+    this.index = index;
+    final int offset = index * stride;
+    this.x = xs.get(offset);
+    this.y = ys.get(offset);
+    return this;
+  }
+
+  /** Moves to the next point, returning false (and not moving) if there isn't one. */
+  public boolean next() {
+    if (index + 1 >= size)
+      return false;
+    moveTo(index + 1);
+    return true;
+  }
+
+  /** Writes the coordinates of the current point to the buffers. */
+  @Override
+  public void reset(double x, double y) {
+    if (index < 0)
+      throw new IllegalStateException("Not positioned on a point");
+    final int offset = index * stride;
+    xs.put(offset, x);
+    ys.put(offset, y);
+    this.x = x;
+    this.y = y;
+  }
+
+  @Override
+  public double getX() {
+    return x;
+  }
+
+  @Override
+  public double getY() {
+    return y;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return Double.isNaN(x);
+  }
+
+  @Override
+  public Rectangle getBoundingBox() {
+    return ctx.makeRectangle(this, this);
+  }
+
+  @Override
+  public Point getCenter() {
+    return this;
+  }
+
+  @Override
+  public Circle getBuffered(double distance, SpatialContext ctx) {
+    return ctx.makeCircle(this, distance);
+  }
+
+  @Override
+  public SpatialRelation relate(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return SpatialRelation.DISJOINT;
+    if (other instanceof Point)
+      return this.equals(other) ? SpatialRelation.INTERSECTS : SpatialRelation.DISJOINT;
+    return other.relate(this).transpose();
+  }
+
+  @Override
+  public boolean hasArea() {
+    return false;
+  }
+
+  @Override
+  public double getArea(SpatialContext ctx) {
+    return 0;
+  }
+
+  @Override
+  public String toString() {
+    return "PtCursor(index="+index+",x="+x+",y="+y+")";
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return PointImpl.equals(this, o);
+  }
+
+  @Override
+  public int hashCode() {
+    return PointImpl.hashCode(this);
+  }
+}
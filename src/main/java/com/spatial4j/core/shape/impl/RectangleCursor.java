@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.shape.impl;
+
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.SpatialRelation;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+/**
+ * A flyweight {@link Rectangle} that views one rectangle at a time of many stored in a primitive
+ * buffer as minX, maxX, minY, maxY (the order of {@link RectangleImpl}'s constructor and of
+ * {@link com.spatial4j.core.io.BinaryCodec}), so that a whole dataset can be passed to relate()
+ * without creating a Rectangle for each. {@link #moveTo(int)} or {@link #next()} select the
+ * rectangle; {@link #reset(double, double, double, double)} writes through to the buffer. It
+ * starts before the first rectangle, and is then empty. The relationships are computed by a
+ * reused {@link RectangleImpl}.
+ * <p/>
+ * Since it changes, don't retain it (e.g. in a collection) as if it were an ordinary rectangle;
+ * it's not thread-safe either. See {@link PointCursor}.
+ */
+public class RectangleCursor implements Rectangle {
+
+  private static final int STRIDE = 4;
+
+  private final SpatialContext ctx;
+  private final DoubleBuffer buf;
+  private final int size;
+  /** Holds the current rectangle, unless it's empty (RectangleImpl can't be reset from empty). */
+  private final RectangleImpl rect;
+
+  private int index = -1;
+  private boolean empty = true;
+
+  /** Views rectangles stored as minX, maxX, minY, maxY. */
+  public RectangleCursor(double[] coords, SpatialContext ctx) {
+    this(DoubleBuffer.wrap(coords), ctx);
+  }
+
+  /**
+   * Views rectangles stored as minX, maxX, minY, maxY doubles from the buffer's position to its
+   * limit, in its byte order. The buffer may be direct (off-heap).
+   */
+  public RectangleCursor(ByteBuffer coords, SpatialContext ctx) {
+    this(coords.asDoubleBuffer(), ctx);
+  }
+
+  /** Views rectangles stored as minX, maxX, minY, maxY from the buffer's position to its limit. */
+  public RectangleCursor(DoubleBuffer coords, SpatialContext ctx) {
+    this.ctx = ctx;
+    this.buf = coords.slice();
+    this.size = buf.limit() / STRIDE;
+    this.rect = new RectangleImpl(0, 0, 0, 0, ctx);
+  }
+
+  /** The number of rectangles. */
+  public int size() {
+    return size;
+  }
+
+  /** The index of the current rectangle; -1 before the first. */
+  public int getIndex() {
+    return index;
+  }
+
+  /** Makes this the rectangle at {@code index}, returning this. */
+  public RectangleCursor moveTo(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("index: "+index+", size: "+size);
+    this.index = index;
+    final int offset = index * STRIDE;
+    load(buf.get(offset), buf.get(offset + 1), buf.get(offset + 2), buf.get(offset + 3));
+    return this;
+  }
+
+  /** Moves to the next rectangle, returning false (and not moving) if there isn't one. */
+  public boolean next() {
+    if (index + 1 >= size)
+      return false;
+    moveTo(index + 1);
+    return true;
+  }
+
+  private void load(double minX, double maxX, double minY, double maxY) {
+    empty = Double.isNaN(minX);
+    if (!empty)
+      rect.reset(minX, maxX, minY, maxY);
+  }
+
+  /** Writes the coordinates of the current rectangle to the buffer. */
+  @Override
+  public void reset(double minX, double maxX, double minY, double maxY) {
+    if (index < 0)
+      throw new IllegalStateException("Not positioned on a rectangle");
+    final int offset = index * STRIDE;
+    buf.put(offset, minX);
+    buf.put(offset + 1, maxX);
+    buf.put(offset + 2, minY);
+    buf.put(offset + 3, maxY);
+    load(minX, maxX, minY, maxY);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return empty;
+  }
+
+  @Override
+  public double getMinX() {
+    return empty ? Double.NaN : rect.getMinX();
+  }
+
+  @Override
+  public double getMaxX() {
+    return empty ? Double.NaN : rect.getMaxX();
+  }
+
+  @Override
+  public double getMinY() {
+    return empty ? Double.NaN : rect.getMinY();
+  }
+
+  @Override
+  public double getMaxY() {
+    return empty ? Double.NaN : rect.getMaxY();
+  }
+
+  @Override
+  public double getWidth() {
+    return empty ? Double.NaN : rect.getWidth();
+  }
+
+  @Override
+  public double getHeight() {
+    return empty ? Double.NaN : rect.getHeight();
+  }
+
+  @Override
+  public boolean getCrossesDateLine() {
+    return !empty && rect.getCrossesDateLine();
+  }
+
+  @Override
+  public SpatialRelation relateYRange(double minY, double maxY) {
+    return empty ? SpatialRelation.DISJOINT : rect.relateYRange(minY, maxY);
+  }
+
+  @Override
+  public SpatialRelation relateXRange(double minX, double maxX) {
+    return empty ? SpatialRelation.DISJOINT : rect.relateXRange(minX, maxX);
+  }
+
+  @Override
+  public SpatialRelation relate(Shape other) {
+    if (empty)
+      return SpatialRelation.DISJOINT;
+    return rect.relate(other);
+  }
+
+  @Override
+  public Rectangle getBoundingBox() {
+    return this;
+  }
+
+  @Override
+  public boolean hasArea() {
+    return !empty && rect.hasArea();
+  }
+
+  @Override
+  public double getArea(SpatialContext ctx) {
+    return empty ? 0 : rect.getArea(ctx);
+  }
+
+  @Override
+  public Point getCenter() {
+    return empty ? ctx.makePoint(Double.NaN, Double.NaN) : rect.getCenter();
+  }
+
+  @Override
+  public Shape getBuffered(double distance, SpatialContext ctx) {
+    if (empty)
+      return new RectangleImpl(Double.NaN, Double.NaN, Double.NaN, Double.NaN, ctx);
+    return rect.getBuffered(distance, ctx);
+  }
+
+  @Override
+  public String toString() {
+    return "RectCursor(index=" + index + ",minX=" + getMinX() + ",maxX=" + getMaxX()
+        + ",minY=" + getMinY() + ",maxY=" + getMaxY() + ")";
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return RectangleImpl.equals(this, obj);
+  }
+
+  @Override
+  public int hashCode() {
+    return RectangleImpl.hashCode(this);
+  }
+}
@@ -304,7 +304,7 @@ public class RectangleImpl implements Rectangle {
     if (thiz == o) return true;
     if (!(o instanceof Rectangle)) return false;
 
-    RectangleImpl rectangle = (RectangleImpl) o;
+    Rectangle rectangle = (Rectangle) o;
 
     if (Double.compare(rectangle.getMaxX(), thiz.getMaxX()) != 0) return false;
     if (Double.compare(rectangle.getMaxY(), thiz.getMaxY()) != 0) return false;
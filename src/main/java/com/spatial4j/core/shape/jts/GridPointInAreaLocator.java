@@ -0,0 +1,347 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.spatial4j.core.shape.jts;
+
+import com.vividsolutions.jts.algorithm.PointLocator;
+import com.vividsolutions.jts.algorithm.RobustDeterminant;
+import com.vividsolutions.jts.algorithm.locate.PointOnGeometryLocator;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Location;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.Polygonal;
+
+import java.util.Arrays;
+
+/**
+ * Locates points in a polygonal {@link Geometry} in near-constant time, no matter how many
+ * vertices it has. The edges are rasterized into a uniform grid over the geometry's envelope, and
+ * the location of each cell's center is precomputed by scanning the rows. A cell no edge passes
+ * through is entirely in the interior or the exterior, like its center. Otherwise a point in it is
+ * located relative to the center by counting the cell's edges that cross the segment between them.
+ * The rare degenerate cases, such as that segment touching a vertex, fall back to JTS's
+ * {@link PointLocator}, which is linear in the number of vertices.
+ * <p/>
+ * The geometry should be valid. Immutable &amp; thread-safe. See
+ * {@link JtsGeometry#indexPointLocation()}.
+ */
+public class GridPointInAreaLocator implements PointOnGeometryLocator {
+
+  /** The average number of edges per grid cell that the grid is sized for by default. */
+  private static final int EDGES_PER_CELL = 2;
+  private static final int MAX_CELLS = 1 << 22;
+
+  private final Geometry geom;
+  /** The vertices of all the rings; edge e goes from vertex e to e+1. */
+  private final double[] xs;
+  private final double[] ys;
+
+  //the grid
+  private final double minX, minY, maxX, maxY;
+  private final int cellsX, cellsY;
+  private final double cellWidth, cellHeight;
+  /** Edges are added to the cells within this of them, so a cell has all edges that might cross it
+   * despite rounding. */
+  private final double marginX, marginY;
+  /** The edges of cell c are cellEdges[cellStart[c]] to cellEdges[cellStart[c+1]-1]. */
+  private final int[] cellStart;
+  private final int[] cellEdges;
+  /** The {@link Location} of each cell's center. */
+  private final byte[] centerLocations;
+
+  public GridPointInAreaLocator(Geometry geom) {
+    this(geom, -1);
+  }
+
+  /**
+   * @param geom A Polygon or MultiPolygon.
+   * @param numCells The approximate number of grid cells; more use more memory but leave fewer edges
+   *                 per cell. If &lt;= 0, it's based on the number of edges.
+   */
+  public GridPointInAreaLocator(Geometry geom, int numCells) {
+    if (!(geom instanceof Polygonal))
+      throw new IllegalArgumentException("Not polygonal: " + geom.getGeometryType());
+    this.geom = geom;
+
+    //gather the rings' vertices
+    this.xs = new double[geom.getNumPoints()];
+    this.ys = new double[xs.length];
+    boolean[] isEdge = new boolean[xs.length];//false for the last vertex of a ring
+    int numVertices = 0;
+    for (int i = 0; i < geom.getNumGeometries(); i++) {
+      Polygon polygon = (Polygon) geom.getGeometryN(i);
+      numVertices = addRing(polygon.getExteriorRing().getCoordinateSequence(), numVertices, isEdge);
+      for (int h = 0; h < polygon.getNumInteriorRing(); h++) {
+        numVertices = addRing(polygon.getInteriorRingN(h).getCoordinateSequence(), numVertices, isEdge);
+      }
+    }
+    assert numVertices == xs.length;
+    int numEdges = 0;
+    for (boolean b : isEdge) {
+      if (b)
+        numEdges++;
+    }
+
+    //size the grid so the cells are roughly square
+    Envelope env = geom.getEnvelopeInternal();
+    if (env.isNull()) {//empty
+      this.minX = this.minY = 0;
+      this.maxX = this.maxY = -1;
+    } else {
+      this.minX = env.getMinX();
+      this.minY = env.getMinY();
+      this.maxX = env.getMaxX();
+      this.maxY = env.getMaxY();
+    }
+    if (numCells <= 0)
+      numCells = numEdges / EDGES_PER_CELL;
+    numCells = Math.max(1, Math.min(numCells, MAX_CELLS));
+    double width = Math.max(0, maxX - minX);
+    double height = Math.max(0, maxY - minY);
+    if (width > 0 && height > 0) {
+      this.cellsX = clampCells(Math.sqrt(numCells * width / height), numCells);
+      this.cellsY = clampCells((double) numCells / cellsX, numCells);
+    } else {
+      this.cellsX = this.cellsY = 1;
+    }
+    this.cellWidth = width / cellsX;
+    this.cellHeight = height / cellsY;
+    this.marginX = cellWidth * 1e-6 + 8 * Math.ulp(Math.max(Math.abs(minX), Math.abs(maxX)));
+    this.marginY = cellHeight * 1e-6 + 8 * Math.ulp(Math.max(Math.abs(minY), Math.abs(maxY)));
+
+    //counting sort of the edges by the cells they pass through
+    this.cellStart = new int[cellsX * cellsY + 1];
+    for (int e = 0; e < xs.length; e++) {
+      if (isEdge[e])
+        rasterize(e, cellStart, null);
+    }
+    for (int c = 1; c < cellStart.length; c++) {
+      cellStart[c] += cellStart[c - 1];
+    }
+    this.cellEdges = new int[cellStart[cellStart.length - 1]];
+    int[] next = new int[cellsX * cellsY];
+    System.arraycopy(cellStart, 0, next, 0, next.length);
+    for (int e = 0; e < xs.length; e++) {
+      if (isEdge[e])
+        rasterize(e, next, cellEdges);
+    }
+
+    this.centerLocations = new byte[cellsX * cellsY];
+    locateCenters(isEdge);
+  }
+
+  private int addRing(CoordinateSequence seq, int offset, boolean[] isEdge) {
+    for (int i = 0; i < seq.size(); i++) {
+      xs[offset + i] = seq.getX(i);
+      ys[offset + i] = seq.getY(i);
+      isEdge[offset + i] = i < seq.size() - 1;
+    }
+    return offset + seq.size();
+  }
+
+  private static int clampCells(double cells, int numCells) {
+    return (int) Math.max(1, Math.min(cells, numCells));
+  }
+
+  private int cellX(double x) {
+    if (cellWidth == 0)
+      return 0;
+    return Math.max(0, Math.min(cellsX - 1, (int) ((x - minX) / cellWidth)));
+  }
+
+  private int cellY(double y) {
+    if (cellHeight == 0)
+      return 0;
+    return Math.max(0, Math.min(cellsY - 1, (int) ((y - minY) / cellHeight)));
+  }
+
+  private double centerX(int cx) {
+    return minX + (cx + 0.5) * cellWidth;
+  }
+
+  private double centerY(int cy) {
+    return minY + (cy + 0.5) * cellHeight;
+  }
+
+  /**
+   * Visits the cells edge {@code e} passes through (within the margin), row by row. If
+   * {@code cellEdges} is null, counts them in {@code next[c+1]}; else adds e at
+   * {@code next[c]++}.
+   */
+  private void rasterize(int e, int[] next, int[] cellEdges) {
+    final double ax = xs[e], ay = ys[e], bx = xs[e + 1], by = ys[e + 1];
+    final int cy0 = cellY(Math.min(ay, by) - marginY);
+    final int cy1 = cellY(Math.max(ay, by) + marginY);
+    for (int cy = cy0; cy <= cy1; cy++) {
+      //the part of the edge in this row
+      double x0, x1;
+      if (ay == by || cy0 == cy1) {
+        x0 = Math.min(ax, bx);
+        x1 = Math.max(ax, bx);
+      } else {
+        double tA = (minY + cy * cellHeight - marginY - ay) / (by - ay);
+        double tB = (minY + (cy + 1) * cellHeight + marginY - ay) / (by - ay);
+        double t0 = Math.max(0, Math.min(tA, tB));
+        double t1 = Math.min(1, Math.max(tA, tB));
+        x0 = ax + t0 * (bx - ax);
+        x1 = ax + t1 * (bx - ax);
+        if (x0 > x1) {
+          double tmp = x0;
+          x0 = x1;
+          x1 = tmp;
+        }
+      }
+      final int cx1 = cellX(x1 + marginX);
+      for (int cx = cellX(x0 - marginX); cx <= cx1; cx++) {
+        int c = cy * cellsX + cx;
+        if (cellEdges == null)
+          next[c + 1]++;
+        else
+          cellEdges[next[c]++] = e;
+      }
+    }
+  }
+
+  /**
+   * Computes {@link #centerLocations} by counting, for each row, the edges crossing the horizontal
+   * line through its centers to the left of each one. A center that is too close to an edge to be
+   * sure of is located by {@link PointLocator}.
+   */
+  private void locateCenters(boolean[] isEdge) {
+    //counting sort of the crossings' x by row
+    int[] rowStart = new int[cellsY + 1];
+    for (int e = 0; e < xs.length; e++) {
+      if (isEdge[e])
+        crossRows(e, rowStart, null);
+    }
+    for (int r = 1; r < rowStart.length; r++) {
+      rowStart[r] += rowStart[r - 1];
+    }
+    double[] crossings = new double[rowStart[cellsY]];
+    int[] next = new int[cellsY];
+    System.arraycopy(rowStart, 0, next, 0, cellsY);
+    for (int e = 0; e < xs.length; e++) {
+      if (isEdge[e])
+        crossRows(e, next, crossings);
+    }
+
+    for (int cy = 0; cy < cellsY; cy++) {
+      Arrays.sort(crossings, rowStart[cy], rowStart[cy + 1]);
+      int i = rowStart[cy];//the next crossing
+      for (int cx = 0; cx < cellsX; cx++) {
+        final double x = centerX(cx);
+        while (i < rowStart[cy + 1] && crossings[i] < x)
+          i++;
+        boolean tooClose = (i > rowStart[cy] && x - crossings[i - 1] <= marginX)
+            || (i < rowStart[cy + 1] && crossings[i] - x <= marginX);
+        int location;
+        if (tooClose)
+          location = new PointLocator().locate(new Coordinate(x, centerY(cy)), geom);
+        else
+          location = (i - rowStart[cy]) % 2 == 1 ? Location.INTERIOR : Location.EXTERIOR;
+        centerLocations[cy * cellsX + cx] = (byte) location;
+      }
+    }
+  }
+
+  /**
+   * Visits the rows whose center line edge {@code e} crosses, by the usual half-open rule of
+   * ray casting. If {@code crossings} is null, counts them in {@code next[r+1]}; else adds the x of
+   * the crossing at {@code next[r]++}.
+   */
+  private void crossRows(int e, int[] next, double[] crossings) {
+    final double ax = xs[e], ay = ys[e], bx = xs[e + 1], by = ys[e + 1];
+    if (ay == by || cellHeight == 0)
+      return;
+    final int cy1 = cellY(Math.max(ay, by));
+    for (int cy = cellY(Math.min(ay, by)); cy <= cy1; cy++) {
+      final double y = centerY(cy);
+      if ((ay > y) == (by > y))
+        continue;
+      if (crossings == null)
+        next[cy + 1]++;
+      else
+        crossings[next[cy]++] = ax + (y - ay) * (bx - ax) / (by - ay);
+    }
+  }
+
+  public Geometry getGeometry() {
+    return geom;
+  }
+
+  @Override
+  public int locate(Coordinate p) {
+    return locate(p.x, p.y);
+  }
+
+  /**
+   * Locates the point.
+   * @return {@link Location#INTERIOR}, {@link Location#BOUNDARY} or {@link Location#EXTERIOR}.
+   */
+  public int locate(double x, double y) {
+    if (!(x >= minX && x <= maxX && y >= minY && y <= maxY))//also NaN & empty
+      return Location.EXTERIOR;
+    final int cx = cellX(x);
+    final int cy = cellY(y);
+    final int c = cy * cellsX + cx;
+    final int centerLocation = centerLocations[c];
+    if (cellStart[c] == cellStart[c + 1] && centerLocation != Location.BOUNDARY)
+      return centerLocation;//no edges; it's all the same
+    if (centerLocation == Location.BOUNDARY)
+      return locateExactly(x, y);
+    final double centerX = centerX(cx);
+    final double centerY = centerY(cy);
+    boolean interior = centerLocation == Location.INTERIOR;
+    for (int i = cellStart[c]; i < cellStart[c + 1]; i++) {
+      final int e = cellEdges[i];
+      final double ax = xs[e], ay = ys[e], bx = xs[e + 1], by = ys[e + 1];
+      final int oP = orientation(ax, ay, bx, by, x, y);
+      if (oP == 0 && x >= Math.min(ax, bx) && x <= Math.max(ax, bx)
+          && y >= Math.min(ay, by) && y <= Math.max(ay, by))
+        return Location.BOUNDARY;
+      final int oC = orientation(ax, ay, bx, by, centerX, centerY);
+      if (oP == oC && oP != 0)//the segment to the center is on one side of the edge
+        continue;
+      final int oA = orientation(x, y, centerX, centerY, ax, ay);
+      final int oB = orientation(x, y, centerX, centerY, bx, by);
+      if (oA == oB && oA != 0)//the edge is on one side of the segment
+        continue;
+      if (oP == 0 || oC == 0 || oA == 0 || oB == 0)//touching, not crossing
+        return locateExactly(x, y);
+      interior = !interior;
+    }
+    return interior ? Location.INTERIOR : Location.EXTERIOR;
+  }
+
+  private int locateExactly(double x, double y) {
+    return new PointLocator().locate(new Coordinate(x, y), geom);
+  }
+
+  /** See {@link RobustDeterminant#orientationIndex(Coordinate, Coordinate, Coordinate)}. */
+  private static int orientation(double ax, double ay, double bx, double by, double qx, double qy) {
+    return RobustDeterminant.signOfDet2x2(bx - ax, by - ay, qx - bx, qy - by);
+  }
+
+  @Override
+  public String toString() {
+    return "GridPointInAreaLocator(" + xs.length + " vertices, " + cellsX + "x" + cellsY + " grid)";
+  }
+}
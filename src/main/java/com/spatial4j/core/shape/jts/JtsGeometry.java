@@ -40,6 +40,7 @@ import com.vividsolutions.jts.geom.IntersectionMatrix;
 import com.vividsolutions.jts.geom.LineString;
 import com.vividsolutions.jts.geom.Lineal;
 import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Location;
 import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.geom.Puntal;
 import com.vividsolutions.jts.geom.prep.PreparedGeometry;
@@ -63,8 +64,12 @@ public class JtsGeometry implements Shape {
   private final boolean hasArea;
   private final Rectangle bbox;
   protected final JtsSpatialContext ctx;
-  protected PreparedGeometry preparedGeometry;
+  protected volatile PreparedGeometry preparedGeometry;
+  protected volatile GridPointInAreaLocator pointLocator;
   protected boolean validated = false;
+  /** Counts relations computed while not indexed; see {@link JtsSpatialContext#getAutoIndexThreshold()}.
+   * Updates may be lost between threads, which only delays indexing. */
+  private int relateCount;
 
   public JtsGeometry(Geometry geom, JtsSpatialContext ctx, boolean dateline180Check, boolean allowMultiOverlap) {
     this.ctx = ctx;
@@ -131,12 +136,43 @@ public class JtsGeometry implements Shape {
    * Adds an index to this class internally to compute spatial relations faster. In JTS this
    * is called a {@link com.vividsolutions.jts.geom.prep.PreparedGeometry}.  This
    * isn't done by default because it takes some time to do the optimization, and it uses more
-   * memory.  Calling this method isn't thread-safe so be careful when this is done. If it was
-   * already indexed then nothing happens.
+   * memory. It may also be done automatically; see
+   * {@link JtsSpatialContext#getAutoIndexThreshold()}. It's thread-safe; concurrent relations use
+   * the index as soon as it's published. If it was already indexed then nothing happens.
    */
   public void index() {
-    if (preparedGeometry == null)
-      preparedGeometry = PreparedGeometryFactory.prepare(geom);
+    if (preparedGeometry == null) {
+      synchronized (this) {
+        if (preparedGeometry == null)
+          preparedGeometry = PreparedGeometryFactory.prepare(geom);
+      }
+    }
+  }
+
+  /** Whether {@link #index()} has been done. */
+  public boolean isIndexed() {
+    return preparedGeometry != null;
+  }
+
+  /**
+   * Adds an index to this class internally to relate points faster: a
+   * {@link GridPointInAreaLocator}, which answers in near-constant time even for polygons with
+   * hundreds of thousands of vertices, such as country or time zone boundaries. It's separate
+   * from {@link #index()}; it takes memory proportional to the number of vertices. It's
+   * thread-safe. If this doesn't have area, or it's already indexed, then nothing happens.
+   */
+  public void indexPointLocation() {
+    if (pointLocator == null && hasArea) {
+      synchronized (this) {
+        if (pointLocator == null)
+          pointLocator = new GridPointInAreaLocator(geom);
+      }
+    }
+  }
+
+  /** Whether {@link #indexPointLocation()} has been done (and did something). */
+  public boolean isPointLocationIndexed() {
+    return pointLocator != null;
   }
 
   @Override
@@ -227,6 +263,10 @@ public class JtsGeometry implements Shape {
   public SpatialRelation relate(Point pt) {
     if (!getBoundingBox().relate(pt).intersects())
       return SpatialRelation.DISJOINT;
+    GridPointInAreaLocator pointLocator = this.pointLocator;//volatile read
+    if (pointLocator != null)//a point on the boundary intersects, i.e. is contained
+      return pointLocator.locate(pt.getX(), pt.getY()) == Location.EXTERIOR
+          ? SpatialRelation.DISJOINT : SpatialRelation.CONTAINS;
     Geometry ptGeom;
     if (pt instanceof JtsPoint)
       ptGeom = ((JtsPoint)pt).getGeom();
@@ -240,33 +280,247 @@ public class JtsGeometry implements Shape {
     if (bboxR == SpatialRelation.WITHIN || bboxR == SpatialRelation.DISJOINT)
       return bboxR;
     // FYI, the right answer could still be DISJOINT or WITHIN, but we don't know yet.
+    if (useRectangleFastPath(rectangle)) {
+      RectangleFilter filter = new RectangleFilter(rectangle);
+      geom.apply(filter);
+      if (filter.isDone())//an edge is in the rectangle's interior
+        return SpatialRelation.INTERSECTS;
+      //the rectangle is entirely inside or outside, perhaps touching the boundary
+      if (filter.crossings % 2 == 1)//its center is inside
+        return SpatialRelation.CONTAINS;
+      return filter.touches ? SpatialRelation.INTERSECTS : SpatialRelation.DISJOINT;
+    }
     return relate(ctx.getGeometryFrom(rectangle));
   }
 
+  /**
+   * Whether {@link #relate(Rectangle)} can avoid JTS and use a {@link RectangleFilter}: if this is
+   * polygonal and not indexed (the index is faster), and the rectangle has area and doesn't cross
+   * the dateline. The relation counts toward auto indexing, like those done by JTS, and if that
+   * indexes this then the index is used instead.
+   */
+  private boolean useRectangleFastPath(Rectangle rectangle) {
+    return hasArea && !rectangle.getCrossesDateLine()
+        && rectangle.getWidth() > 0 && rectangle.getHeight() > 0
+        && preparedGeometry == null && autoIndex() == null;
+  }
+
+  /**
+   * Finds whether any edge of a polygonal geometry passes through a rectangle's interior, or else
+   * touches its boundary, by clipping the edges to it (Liang-Barsky). It also counts the edges
+   * crossing a ray from the rectangle's center, which is inside the geometry if that's odd. If no
+   * edge passes through the interior, the interior is entirely inside or outside the geometry,
+   * so the center tells which.
+   */
+  private static class RectangleFilter implements CoordinateSequenceFilter {
+    private final double minX, maxX, minY, maxY;
+    private final double centerX, centerY;
+    private double t0, t1;//clipping parameters of the current edge
+    boolean edgeInInterior;
+    boolean touches;
+    int crossings;
+
+    RectangleFilter(Rectangle rectangle) {
+      this.minX = rectangle.getMinX();
+      this.maxX = rectangle.getMaxX();
+      this.minY = rectangle.getMinY();
+      this.maxY = rectangle.getMaxY();
+      this.centerX = (minX + maxX) / 2;
+      this.centerY = (minY + maxY) / 2;
+    }
+
+    @Override
+    public void filter(CoordinateSequence seq, int i) {
+      if (i == 0)
+        return;
+      final double ax = seq.getX(i - 1);
+      final double ay = seq.getY(i - 1);
+      final double bx = seq.getX(i);
+      final double by = seq.getY(i);
+      //point-in-polygon: a ray from the center in the +x direction
+      if ((ay > centerY) != (by > centerY) && centerX < ax + (bx - ax) * (centerY - ay) / (by - ay))
+        crossings++;
+      if (Math.max(ax, bx) < minX || Math.min(ax, bx) > maxX
+          || Math.max(ay, by) < minY || Math.min(ay, by) > maxY)
+        return;
+      final double dx = bx - ax;
+      final double dy = by - ay;
+      t0 = 0;
+      t1 = 1;
+      if (!clip(-dx, ax - minX) || !clip(dx, maxX - ax) || !clip(-dy, ay - minY) || !clip(dy, maxY - ay))
+        return;
+      touches = true;
+      //the middle of the clipped part is on the boundary only if it all is
+      final double t = (t0 + t1) / 2;
+      final double x = ax + t * dx;
+      final double y = ay + t * dy;
+      if (x > minX && x < maxX && y > minY && y < maxY)
+        edgeInInterior = true;
+    }
+
+    /** Clips [t0, t1] to where p * t &lt;= q; false if nothing remains. */
+    private boolean clip(double p, double q) {
+      if (p == 0)//parallel
+        return q >= 0;
+      final double r = q / p;
+      if (p < 0) {
+        if (r > t1)
+          return false;
+        if (r > t0)
+          t0 = r;
+      } else {
+        if (r < t0)
+          return false;
+        if (r < t1)
+          t1 = r;
+      }
+      return true;
+    }
+
+    @Override
+    public boolean isDone() {
+      return edgeInInterior;
+    }
+
+    @Override
+    public boolean isGeometryChanged() {
+      return false;
+    }
+  }
+
+  /**
+   * Relates the geometry's vertices to the circle by streaming over its CoordinateSequences with a
+   * reused Point. While all of them are outside, each edge is tested too, at its closest point to
+   * the circle's center, so that a circle crossing an edge between two vertices outside of it is
+   * found to intersect; otherwise the circle's center tells if it's contained or disjoint. For
+   * geodetic circles the closest point is found in an equirectangular projection around the
+   * center, then tested exactly, so a circle just touching a long edge may be missed.
+   */
   public SpatialRelation relate(Circle circle) {
     SpatialRelation bboxR = bbox.relate(circle);
     if (bboxR == SpatialRelation.WITHIN || bboxR == SpatialRelation.DISJOINT)
       return bboxR;
 
-    //Test each point to see how many of them are outside of the circle.
-    //TODO consider instead using geom.apply(CoordinateSequenceFilter) -- maybe faster since avoids Coordinate[] allocation
-    Coordinate[] coords = geom.getCoordinates();
-    int outside = 0;
-    int i = 0;
-    for (Coordinate coord : coords) {
-      i++;
-      SpatialRelation sect = circle.relate(new PointImpl(coord.x, coord.y, ctx));
-      if (sect == SpatialRelation.DISJOINT)
+    CircleFilter filter = new CircleFilter(circle);
+    geom.apply(filter);
+    if (filter.isDone())//partially outside & partially inside, or an edge crosses it
+      return SpatialRelation.INTERSECTS;
+    if (filter.outside == 0)
+      return SpatialRelation.WITHIN;
+    //no vertex or edge in the circle; so it's either entirely inside or outside
+    return (relate(circle.getCenter()) == SpatialRelation.DISJOINT)
+        ? SpatialRelation.DISJOINT : SpatialRelation.CONTAINS;
+  }
+
+  /** Counts the vertices in a circle, and tests edges while none are; see {@link #relate(Circle)}. */
+  private class CircleFilter implements CoordinateSequenceFilter {
+    private final Circle circle;
+    private final boolean geo;
+    private final double centerX, centerY;
+    private final double xScale;//of the projection, for the closest point on an edge
+    //the circle's bounding box, to skip vertices & edges without calculating distances
+    private final double boxMinX, boxMaxX, boxMinY, boxMaxY;
+    private final boolean boxCrossesDateline;
+    private final PointImpl point;//reused
+    int inside, outside;
+    boolean edgeIntersects;
+
+    CircleFilter(Circle circle) {
+      this.circle = circle;
+      this.geo = ctx.isGeo();
+      this.centerX = circle.getCenter().getX();
+      this.centerY = circle.getCenter().getY();
+      this.xScale = geo ? Math.cos(Math.toRadians(centerY)) : 1;
+      Rectangle box = circle.getBoundingBox();
+      this.boxMinX = box.getMinX();
+      this.boxMaxX = box.getMaxX();
+      this.boxMinY = box.getMinY();
+      this.boxMaxY = box.getMaxY();
+      this.boxCrossesDateline = box.getCrossesDateLine();
+      this.point = new PointImpl(0, 0, ctx);
+    }
+
+    @Override
+    public void filter(CoordinateSequence seq, int i) {
+      final double x = seq.getX(i);
+      final double y = seq.getY(i);
+      if (!boxIntersects(x, x, y, y)) {
         outside++;
-      if (i != outside && outside != 0)//short circuit: partially outside, partially inside
-        return SpatialRelation.INTERSECTS;
+      } else {
+        point.reset(x, y);
+        if (circle.relate(point) == SpatialRelation.DISJOINT)
+          outside++;
+        else
+          inside++;
+      }
+      if (inside == 0 && i > 0) {
+        final double prevX = seq.getX(i - 1);
+        final double prevY = seq.getY(i - 1);
+        if (boxIntersects(Math.min(prevX, x), Math.max(prevX, x), Math.min(prevY, y), Math.max(prevY, y)))
+          edgeIntersects = edgeIntersects(prevX, prevY, x, y);
+      }
     }
-    if (i == outside) {
-      return (relate(circle.getCenter()) == SpatialRelation.DISJOINT)
-          ? SpatialRelation.DISJOINT : SpatialRelation.CONTAINS;
+
+    /** Whether the circle's bounding box intersects this one (which doesn't cross the dateline). */
+    private boolean boxIntersects(double minX, double maxX, double minY, double maxY) {
+      if (maxY < boxMinY || minY > boxMaxY)
+        return false;
+      if (boxCrossesDateline)
+        return maxX >= boxMinX || minX <= boxMaxX;
+      return maxX >= boxMinX && minX <= boxMaxX;
+    }
+
+    /** Whether the point on the edge closest to the center is in the circle. */
+    private boolean edgeIntersects(double ax, double ay, double bx, double by) {
+      double adx = ax - centerX;
+      double bdx = bx - ax;
+      if (geo) {//unwrap across the dateline
+        adx = wrap(adx);
+        bdx = wrap(bdx);
+      }
+      //project, relative to the center
+      final double pax = adx * xScale, pay = ay - centerY;
+      final double pdx = bdx * xScale, pdy = by - ay;
+      final double len2 = pdx * pdx + pdy * pdy;
+      if (len2 == 0)
+        return false;//same as the vertex
+      final double t = -(pax * pdx + pay * pdy) / len2;
+      if (t <= 0 || t >= 1)
+        return false;//a vertex is closest
+      double x = centerX + adx + t * bdx;
+      if (geo)
+        x = wrap(x);
+      final double y = ay + t * pdy;
+      point.reset(x, y);
+      if (circle.relate(point) == SpatialRelation.DISJOINT)
+        return false;
+      //an edge on the dateline might be where the geometry was cut in two, if it's on both sides
+      if (geo && bdx == 0 && Math.abs(ax) == 180)
+        return !(intersects(180, y) && intersects(-180, y));
+      return true;
+    }
+
+    private boolean intersects(double x, double y) {
+      return JtsGeometry.this.relate(new PointImpl(x, y, ctx)) != SpatialRelation.DISJOINT;
+    }
+
+    private double wrap(double x) {
+      if (x > 180)
+        return x - 360;
+      if (x < -180)
+        return x + 360;
+      return x;
+    }
+
+    @Override
+    public boolean isDone() {
+      return edgeIntersects || (inside != 0 && outside != 0);
+    }
+
+    @Override
+    public boolean isGeometryChanged() {
+      return false;
     }
-    assert outside == 0;
-    return SpatialRelation.WITHIN;
   }
 
   public SpatialRelation relate(JtsGeometry jtsGeometry) {
@@ -275,6 +529,9 @@ public class JtsGeometry implements Shape {
   }
 
   protected SpatialRelation relate(Geometry oGeom) {
+    PreparedGeometry preparedGeometry = this.preparedGeometry;//volatile read
+    if (preparedGeometry == null)
+      preparedGeometry = autoIndex();
     //see http://docs.geotools.org/latest/userguide/library/jts/dim9.html#preparedgeometry
     if (oGeom instanceof com.vividsolutions.jts.geom.Point) {
       if (preparedGeometry != null)
@@ -292,6 +549,15 @@ public class JtsGeometry implements Shape {
     return SpatialRelation.DISJOINT;
   }
 
+  /** Counts a relation; once at the auto index threshold, indexes and returns the index, else null. */
+  private PreparedGeometry autoIndex() {
+    final int threshold = ctx.getAutoIndexThreshold();
+    if (threshold <= 0 || ++relateCount < threshold)
+      return null;
+    index();
+    return this.preparedGeometry;
+  }
+
   public static SpatialRelation intersectionMatrixToSpatialRelation(IntersectionMatrix matrix) {
     //As indicated in SpatialRelation javadocs, Spatial4j CONTAINS & WITHIN are
     // OGC's COVERS & COVEREDBY
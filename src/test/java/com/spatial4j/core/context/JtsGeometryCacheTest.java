@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.context;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.spatial4j.core.context.jts.JtsGeometryCache;
+import com.spatial4j.core.context.jts.JtsSpatialContext;
+import com.spatial4j.core.context.jts.JtsSpatialContextFactory;
+import com.spatial4j.core.io.BinaryCodec;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.jts.JtsGeometry;
+import com.vividsolutions.jts.geom.PrecisionModel;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.text.ParseException;
+
+public class JtsGeometryCacheTest extends RandomizedTest {
+
+  private static final String TRIANGLE = "POLYGON((0 0, 10 0, 5 5, 0 0))";//4 coordinates
+  private static final String SQUARE = "POLYGON((0 0, 10 0, 10 5, 0 10, 0 0))";//5
+
+  private JtsSpatialContext newContext(final int cacheSize, final double codecScale) {
+    return new JtsSpatialContextFactory() {{
+      geometryCacheSize = cacheSize;
+      binaryCodecScale = codecScale;
+      if (codecScale != 0)
+        precisionModel = new PrecisionModel(codecScale);
+    }}.newSpatialContext();
+  }
+
+  @Test
+  public void testLru() throws ParseException {
+    JtsSpatialContext ctx = JtsSpatialContext.GEO;
+    assertNull(ctx.getGeometryCache());
+    JtsGeometry triangle = (JtsGeometry) ctx.readShapeFromWkt(TRIANGLE);
+    JtsGeometry square = (JtsGeometry) ctx.readShapeFromWkt(SQUARE);
+
+    JtsGeometryCache cache = new JtsGeometryCache(10);
+    cache.put("a", triangle);
+    assertTrue(triangle.isIndexed());
+    cache.put("b", square);
+    assertEquals(9, cache.getCoordinates());
+    assertSame(triangle, cache.get("a"));//now "b" is the least recently used
+    cache.put("c", triangle);
+    assertEquals(2, cache.size());
+    assertEquals(8, cache.getCoordinates());
+    assertNull(cache.get("b"));
+    assertSame(triangle, cache.get("c"));
+    assertEquals(2, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, cache.getEvictions());
+
+    cache.put("a", square);//replaces; 9
+    assertEquals(9, cache.getCoordinates());
+    assertEquals(2, cache.size());
+
+    JtsGeometryCache tiny = new JtsGeometryCache(4);
+    tiny.put("too big", square);
+    assertEquals(0, tiny.size());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getCoordinates());
+  }
+
+  @Test
+  public void testWkt() throws ParseException {
+    JtsSpatialContext ctx = newContext(100, 0);
+    JtsGeometryCache cache = ctx.getGeometryCache();
+    JtsGeometry triangle = (JtsGeometry) ctx.readShapeFromWkt(TRIANGLE);
+    assertTrue(triangle.isIndexed());
+    assertSame(triangle, ctx.readShapeFromWkt(" " + TRIANGLE + "\n"));
+    assertNotSame(triangle, ctx.readShapeFromWkt(SQUARE));
+    assertEquals(ctx.makePoint(1, 2), ctx.readShapeFromWkt("POINT(1 2)"));//not cached
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getHits());
+    assertEquals(3, cache.getMisses());
+  }
+
+  @Test
+  public void testBinary() throws IOException, ParseException {
+    for (double scale : new double[]{0, 1e7}) {
+      JtsSpatialContext ctx = newContext(100, scale);
+      JtsGeometryCache cache = ctx.getGeometryCache();
+      BinaryCodec codec = ctx.getBinaryCodec();
+      byte[] triangle = write(codec, JtsSpatialContext.GEO.readShapeFromWkt(TRIANGLE));
+      byte[] square = write(codec, JtsSpatialContext.GEO.readShapeFromWkt(SQUARE));
+
+      Shape first = read(codec, triangle);
+      assertTrue(((JtsGeometry) first).isIndexed());
+      assertEquals(JtsSpatialContext.GEO.readShapeFromWkt(TRIANGLE), first);
+      assertSame(first, read(codec, triangle));
+      assertEquals(JtsSpatialContext.GEO.readShapeFromWkt(SQUARE), read(codec, square));
+      assertEquals(2, cache.size());
+      assertEquals(1, cache.getHits());
+      assertEquals(2, cache.getMisses());
+      //the cached shape was read fully
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(concat(triangle, square)));
+      assertSame(first, codec.readShape(in));
+      assertEquals(JtsSpatialContext.GEO.readShapeFromWkt(SQUARE), codec.readShape(in));
+      assertEquals(0, in.available());
+    }
+  }
+
+  private static byte[] write(BinaryCodec codec, Shape shape) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    codec.writeShape(new DataOutputStream(baos), shape);
+    return baos.toByteArray();
+  }
+
+  private static Shape read(BinaryCodec codec, byte[] bytes) throws IOException {
+    return codec.readShape(new DataInputStream(new ByteArrayInputStream(bytes)));
+  }
+
+  private static byte[] concat(byte[] a, byte[] b) {
+    byte[] result = new byte[a.length + b.length];
+    System.arraycopy(a, 0, result, 0, a.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+}
@@ -78,6 +78,13 @@ public class SpatialContextFactoryTest {
     assertTrue(ctx.isGeo());
     assertEquals(new GeodesicSphereDistCalc.LawOfCosines(),
         ctx.getDistCalc());
+
+    ctx = call("distCalculator","sloppyHaversine");
+    assertEquals(new GeodesicSphereDistCalc.SloppyHaversine(), ctx.getDistCalc());
+
+    assertTrue(!ctx.getBinaryCodec().isCompact());
+    ctx = call("binaryCodecScale", "1e7");
+    assertTrue(ctx.getBinaryCodec().isCompact());
   }
 
   @Test
@@ -90,8 +97,12 @@ public class SpatialContextFactoryTest {
         "wktShapeParserClass", CustomWktShapeParser.class.getName(),
         "datelineRule", "ccwRect",
         "validationRule", "repairConvexHull",
-        "autoIndex", "true");
+        "autoIndex", "true",
+        "autoIndexThreshold", "10",
+        "geometryCacheSize", "1000");
     assertTrue(ctx.isNormWrapLongitude());
+    assertEquals(10, ctx.getAutoIndexThreshold());
+    assertEquals(1000, ctx.getGeometryCache().getMaxCoordinates());
     assertEquals(2.0, ctx.getGeometryFactory().getPrecisionModel().getScale(), 0.0);
     assertTrue(CustomWktShapeParser.once);//cheap way to test it was created
     assertEquals(JtsWktShapeParser.DatelineRule.ccwRect,
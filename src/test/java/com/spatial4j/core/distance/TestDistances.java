@@ -27,6 +27,8 @@ import com.spatial4j.core.shape.impl.PointImpl;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.BitSet;
+
 import static com.spatial4j.core.distance.DistanceUtils.DEG_TO_KM;
 import static com.spatial4j.core.distance.DistanceUtils.KM_TO_DEG;
 
@@ -314,4 +316,117 @@ public class TestDistances extends RandomizedTest {
     assertTrue(areaRatio > 1 && areaRatio < 1.1);
   }
 
+  @Test
+  public void testBatchDistances() {
+    DistanceCalculator[] calcs = {new GeodesicSphereDistCalc.Haversine(),
+        new GeodesicSphereDistCalc.LawOfCosines(), new GeodesicSphereDistCalc.Vincenty(),
+        new CartesianDistCalc(), new CartesianDistCalc(true)};
+    final int n = randomIntBetween(1, 700);
+    double[] xs = new double[n];
+    double[] ys = new double[n];
+    for (int i = 0; i < n; i++) {
+      xs[i] = randomIntBetween(-180, 180) + randomDouble();
+      ys[i] = randomIntBetween(-90, 89) + randomDouble();
+    }
+    Point from = ctx.makePoint(xs[0], ys[0]);//includes the same position
+    double dist = randomInt(180);
+    for (DistanceCalculator calc : calcs) {
+      int off = randomInt(n - 1);
+      int len = randomInt(n - off);
+      double[] out = new double[n];
+      calc.distances(from, xs, ys, out, off, len);
+      BitSet within = new BitSet();
+      int count = calc.within(from, xs, ys, dist, within);
+      int expectedCount = 0;
+      for (int i = 0; i < n; i++) {
+        //the same results exactly
+        double expected = i >= off && i < off + len ? calc.distance(from, xs[i], ys[i]) : 0;
+        assertEquals(calc.toString(), expected, out[i], 0.0);
+        boolean expectedWithin = calc.within(from, xs[i], ys[i], dist);
+        assertEquals(calc.toString(), expectedWithin, within.get(i));
+        if (expectedWithin)
+          expectedCount++;
+      }
+      assertEquals(expectedCount, count);
+    }
+  }
+
+  @Test
+  public void testDistanceFunction() {
+    DistanceCalculator[] calcs = {new GeodesicSphereDistCalc.Haversine(),
+        new GeodesicSphereDistCalc.LawOfCosines(), new GeodesicSphereDistCalc.Vincenty(),
+        new CartesianDistCalc(), new CartesianDistCalc(true)};
+    for (DistanceCalculator calc : calcs) {
+      Point origin = ctx.makePoint(randomIntBetween(-180, 180), randomIntBetween(-90, 90));
+      DistanceFunction function = calc.from(origin);
+      assertEquals(origin, function.getOrigin());
+      assertEquals(0, function.distance(origin.getX(), origin.getY()), 0.0);
+      for (int i = 0; i < 100; i++) {
+        double x1 = randomIntBetween(-180, 179) + randomDouble(), y1 = randomIntBetween(-90, 89) + randomDouble();
+        double x2 = randomIntBetween(-180, 179) + randomDouble(), y2 = randomIntBetween(-90, 89) + randomDouble();
+        //the same result exactly
+        assertEquals(calc.toString(), calc.distance(origin, x1, y1), function.distance(x1, y1), 0.0);
+        double within = randomDouble() * 180;
+        assertEquals(calc.toString(), calc.within(origin, x1, y1, within), function.within(x1, y1, within));
+        //sort keys order like the distance
+        double d1 = function.distance(x1, y1), d2 = function.distance(x2, y2);
+        if (Math.abs(d1 - d2) > 1e-9)
+          assertEquals(calc.toString(), d1 < d2, function.sortKey(x1, y1) < function.sortKey(x2, y2));
+        //converting
+        double key1 = function.sortKey(x1, y1);
+        assertEquals(calc.toString(), d1, function.sortKeyToDistance(key1), 1e-6);
+        assertEquals(calc.toString(), key1, function.distanceToSortKey(d1), 1e-9);
+      }
+    }
+  }
+
+  @Test
+  public void testSloppyMath() {
+    double maxErr = 0;
+    for (int i = 0; i < 100000; i++) {
+      double a = (randomDouble() * 2 - 1) * SloppyMath.MAX_SIN_COS_ARG;
+      maxErr = Math.max(maxErr, Math.abs(Math.sin(a) - SloppyMath.sin(a)));
+      maxErr = Math.max(maxErr, Math.abs(Math.cos(a) - SloppyMath.cos(a)));
+      double x = randomDouble() * 2 - 1;
+      maxErr = Math.max(maxErr, Math.abs(Math.asin(x) - SloppyMath.asin(x)));
+      maxErr = Math.max(maxErr, Math.abs(Math.acos(x) - SloppyMath.acos(x)));
+      double y = randomDouble() * 2 - 1;
+      maxErr = Math.max(maxErr, Math.abs(Math.atan2(y, x) - SloppyMath.atan2(y, x)));
+    }
+    assertTrue("max error: " + maxErr, maxErr <= SloppyMath.MAX_ERROR);
+    //edges
+    assertEquals(Math.PI / 2, SloppyMath.asin(1), 0.0);
+    assertEquals(0, SloppyMath.acos(1), SloppyMath.MAX_ERROR);
+    assertTrue(Double.isNaN(SloppyMath.asin(1.1)));
+    assertEquals(Math.sin(1000), SloppyMath.sin(1000), 0.0);//beyond MAX_SIN_COS_ARG
+    assertEquals(Math.atan2(0.0, -1), SloppyMath.atan2(0.0, -1), 0.0);
+  }
+
+  @Test
+  public void testSloppyDistCalcs() {
+    DistanceCalculator[] calcs = {new GeodesicSphereDistCalc.Haversine(), new GeodesicSphereDistCalc.SloppyHaversine(),
+        new GeodesicSphereDistCalc.LawOfCosines(), new GeodesicSphereDistCalc.SloppyLawOfCosines()};
+    for (int c = 0; c < calcs.length; c += 2) {
+      DistanceCalculator exact = calcs[c];
+      DistanceCalculator sloppy = calcs[c + 1];
+      for (int i = 0; i < 1000; i++) {
+        Point from = ctx.makePoint(randomIntBetween(-180, 179) + randomDouble(), randomIntBetween(-90, 89) + randomDouble());
+        double x = randomIntBetween(-180, 179) + randomDouble();
+        double y = randomIntBetween(-90, 89) + randomDouble();
+        double expected = exact.distance(from, x, y);
+        //both formulas lose precision near the antipode, where their results may differ more
+        double delta = expected < 179 ? 1e-9 : 1e-6;
+        assertEquals(sloppy.toString(), expected, sloppy.distance(from, x, y), delta);
+        assertEquals(sloppy.toString(), expected, sloppy.from(from).distance(x, y), delta);
+
+        double dist = randomInt(180) + randomDouble();
+        double bearing = randomInt(359) + randomDouble();
+        Point p1 = exact.pointOnBearing(from, dist, bearing, ctx, null);
+        Point p2 = sloppy.pointOnBearing(from, dist, bearing, ctx, null);
+        //(haversine is accurate for small distances)
+        assertEquals(sloppy.toString(), 0, calcs[0].distance(p1, p2), 1e-9);
+      }
+    }
+  }
+
 }
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.index;
+
+import com.carrotsearch.randomizedtesting.annotations.ParametersFactory;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.SpatialContextFactory;
+import com.spatial4j.core.distance.CartesianDistCalc;
+import com.spatial4j.core.distance.DistanceCalculator;
+import com.spatial4j.core.distance.GeodesicSphereDistCalc;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.RandomizedShapeTest;
+import com.spatial4j.core.shape.impl.RectangleImpl;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class KNearestNeighborsTest extends RandomizedShapeTest {
+
+  @ParametersFactory
+  public static Iterable<Object[]> parameters() {
+    SpatialContext cartesian = new SpatialContextFactory()
+      {{geo = false; worldBounds = new RectangleImpl(-100, 100, -50, 50, null);}}.newSpatialContext();
+    List<Object[]> params = new ArrayList<Object[]>();
+    params.add($(SpatialContext.GEO, new GeodesicSphereDistCalc.Haversine()));
+    params.add($(SpatialContext.GEO, new GeodesicSphereDistCalc.LawOfCosines()));
+    params.add($(SpatialContext.GEO, new GeodesicSphereDistCalc.Vincenty()));
+    params.add($(cartesian, new CartesianDistCalc()));
+    params.add($(cartesian, new CartesianDistCalc(true)));
+    return params;
+  }
+
+  private final DistanceCalculator calc;
+
+  public KNearestNeighborsTest(SpatialContext ctx, DistanceCalculator calc) {
+    super(ctx);
+    this.calc = calc;
+  }
+
+  @Test
+  public void testNeighborQueue() {
+    NeighborQueue queue = new NeighborQueue(3);
+    double[] dists = {5, 1, 4, 1, 9, 2, 6};
+    for (int id = 0; id < dists.length; id++) {
+      queue.offer(id, dists[id]);
+    }
+    assertTrue(queue.isFull());
+    assertEquals(2, queue.topDistance(), 0);
+    int[] ids = new int[3];
+    double[] out = new double[3];
+    assertEquals(3, queue.drainTo(ids, out));
+    assertArrayEquals(new int[]{1, 3, 5}, ids);
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testEmpty() {
+    KNearestNeighbors knn = new KNearestNeighbors(new double[0], new double[0], calc, ctx);
+    assertEquals(0, knn.search(randomPoint(), 5).size());
+    knn = new KNearestNeighbors(new double[]{Double.NaN}, new double[]{Double.NaN}, calc, ctx);
+    assertEquals(0, knn.search(randomPoint(), 5).size());
+  }
+
+  @Test
+  public void testDateline() {
+    if (!ctx.isGeo())
+      return;
+    double[] xs = {180, -170, 10, 20, 30, 40, 50};
+    double[] ys = {0, 0, 0, 0, 0, 0, 0};
+    KNearestNeighbors knn = new KNearestNeighbors(xs, ys, calc, ctx);
+    int[] ids = new int[2];
+    double[] dists = new double[2];
+    knn.search(ctx.makePoint(-180, 0), 2).drainTo(ids, dists);
+    assertArrayEquals(new int[]{0, 1}, ids);
+    assertEquals(0, dists[0], 1e-9);
+  }
+
+  @Test
+  @Repeat(iterations = 20)
+  public void testVersusBruteForce() {
+    int numPoints = randomIntBetween(1, 500);
+    double[] xs = new double[numPoints];
+    double[] ys = new double[numPoints];
+    Point cluster = randomPoint();
+    for (int id = 0; id < numPoints; id++) {
+      //mostly clustered, to vary the density
+      Point p = randomInt(3) > 0 ? randomPointIn(randomRectangle(cluster)) : randomPoint();
+      xs[id] = p.getX();
+      ys[id] = p.getY();
+    }
+    KNearestNeighbors knn = new KNearestNeighbors(xs, ys, calc, ctx);
+
+    for (int q = 0; q < 10; q++) {
+      Point query = randomPoint();
+      int k = randomIntBetween(1, 20);
+      NeighborQueue queue = knn.search(query, k);
+      assertEquals(Math.min(k, numPoints), queue.size());
+      int[] ids = new int[k];
+      double[] dists = new double[k];
+      int count = queue.drainTo(ids, dists);
+
+      double[] expected = new double[numPoints];
+      for (int id = 0; id < numPoints; id++) {
+        expected[id] = calc.distance(query, xs[id], ys[id]);
+      }
+      Arrays.sort(expected);
+      for (int i = 0; i < count; i++) {
+        //ranked by sort key, which might differ in rounding from the distance
+        assertEquals(expected[i], dists[i], 1e-9);
+        assertEquals(calc.distance(query, xs[ids[i]], ys[ids[i]]), dists[i], 0);
+      }
+    }
+  }
+
+}
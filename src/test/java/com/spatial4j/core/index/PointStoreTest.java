@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.index;
+
+import com.carrotsearch.randomizedtesting.annotations.ParametersFactory;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.SpatialContextFactory;
+import com.spatial4j.core.distance.CartesianDistCalc;
+import com.spatial4j.core.shape.Circle;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.RandomizedShapeTest;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.SpatialRelation;
+import com.spatial4j.core.shape.impl.RectangleImpl;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class PointStoreTest extends RandomizedShapeTest {
+
+  @ParametersFactory
+  public static Iterable<Object[]> parameters() {
+    SpatialContext cartesian = new SpatialContextFactory()
+      {{geo = false; worldBounds = new RectangleImpl(-100, 100, -50, 50, null);}}.newSpatialContext();
+    return Arrays.asList($(SpatialContext.GEO), $(cartesian));
+  }
+
+  public PointStoreTest(SpatialContext ctx) {
+    super(ctx);
+  }
+
+  @Test
+  public void testBuilder() {
+    PointStore.Builder builder = new PointStore.Builder(ctx, 1);
+    assertEquals(0, builder.add(1, 2));
+    assertEquals(1, builder.add(3, 4));
+    assertEquals(2, builder.add(5, 6));
+    PointStore store = builder.build();
+    assertEquals(3, store.size());
+    assertEquals(5, store.getX(2), 0);
+    assertEquals(ctx.makePoint(3, 4), store.makePoint(1));
+  }
+
+  @Test
+  public void testDateline() {
+    if (!ctx.isGeo())
+      return;
+    PointStore store = new PointStore(new double[]{180, -180, 175, -175, 0}, new double[]{0, 0, 0, 0, 0}, ctx);
+    assertArrayEquals(new int[]{0, 1, 2, 3}, store.filter(ctx.makeRectangle(170, -170, -10, 10)));
+    assertArrayEquals(new int[]{0, 1, 3}, store.filter(ctx.makeRectangle(-180, -170, -10, 10)));
+    assertArrayEquals(new int[]{0, 1, 2}, store.filter(ctx.makeRectangle(170, 180, -10, 10)));
+    assertArrayEquals(new int[]{0, 1, 2, 3}, store.filter(ctx.makeCircle(180, 0, 6)));
+  }
+
+  @Test
+  public void testSquaredCartesian() {
+    SpatialContext squared = new SpatialContextFactory()
+      {{geo = false; distCalc = new CartesianDistCalc(true);}}.newSpatialContext();
+    PointStore store = new PointStore(new double[]{0, 3}, new double[]{0, 0}, squared);
+    Circle circle = squared.makeCircle(0, 0, 4);
+    assertEquals(SpatialRelation.CONTAINS, circle.relate(store.makePoint(1)));
+    assertArrayEquals(new int[]{0, 1}, store.filter(circle));
+  }
+
+  @Test
+  @Repeat(iterations = 20)
+  public void testVersusRelate() {
+    int numPoints = randomIntBetween(0, 200);
+    PointStore.Builder builder = new PointStore.Builder(ctx);
+    Point cluster = randomPoint();
+    for (int id = 0; id < numPoints; id++) {
+      Point p = randomInt(3) > 0 ? randomPointIn(randomRectangle(cluster)) : randomPoint();
+      builder.add(p.getX(), p.getY());
+    }
+    PointStore store = builder.build();
+
+    for (int q = 0; q < 10; q++) {
+      Rectangle rect = randomRectangle(cluster);
+      assertArrayEquals(bruteForce(store, rect), store.filter(rect));
+      Point center = randomInt(1) == 0 ? cluster : randomPoint();
+      Circle circle = ctx.makeCircle(center, randomDouble() * maxRadius(center));
+      assertArrayEquals(bruteForce(store, circle), store.filter(circle));
+    }
+  }
+
+  /** A cartesian circle must be within the world bounds. */
+  private double maxRadius(Point center) {
+    if (ctx.isGeo())
+      return 90;
+    Rectangle world = ctx.getWorldBounds();
+    return Math.min(Math.min(center.getX() - world.getMinX(), world.getMaxX() - center.getX()),
+        Math.min(center.getY() - world.getMinY(), world.getMaxY() - center.getY()));
+  }
+
+  private int[] bruteForce(PointStore store, Shape shape) {
+    int[] ids = new int[store.size()];
+    int count = 0;
+    for (int id = 0; id < store.size(); id++) {
+      if (shape.relate(store.makePoint(id)) != SpatialRelation.DISJOINT)
+        ids[count++] = id;
+    }
+    return Arrays.copyOf(ids, count);
+  }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.index;
+
+import com.carrotsearch.randomizedtesting.annotations.ParametersFactory;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.SpatialContextFactory;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.RandomizedShapeTest;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.SpatialRelation;
+import com.spatial4j.core.shape.impl.RectangleImpl;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RTreeTest extends RandomizedShapeTest {
+
+  @ParametersFactory
+  public static Iterable<Object[]> parameters() {
+    List<Object[]> ctxs = new ArrayList<Object[]>();
+    ctxs.add($(SpatialContext.GEO));
+    ctxs.add($(new SpatialContextFactory() {{geo = false; worldBounds = new RectangleImpl(-100, 100, -50, 50, null);}}.newSpatialContext()));
+    return ctxs;
+  }
+
+  public RTreeTest(SpatialContext ctx) {
+    super(ctx);
+  }
+
+  @Test
+  public void testEmpty() {
+    RTree<Shape> tree = new RTree<Shape>(new ArrayList<Shape>(), ctx);
+    assertEquals(0, tree.searchBoundingBox(ctx.getWorldBounds()).length);
+    assertTrue(tree.query(randomPoint(), SpatialRelation.DISJOINT).isEmpty());
+
+    //an empty shape is only ever disjoint
+    List<Shape> shapes = new ArrayList<Shape>();
+    shapes.add(ctx.makePoint(Double.NaN, Double.NaN));
+    tree = new RTree<Shape>(shapes, ctx);
+    assertEquals(0, tree.searchBoundingBox(ctx.getWorldBounds()).length);
+    assertEquals(shapes, tree.query(ctx.getWorldBounds(), SpatialRelation.DISJOINT));
+    assertTrue(tree.query(ctx.getWorldBounds(), SpatialRelation.WITHIN).isEmpty());
+  }
+
+  @Test
+  public void testDateline() {
+    if (!ctx.isGeo())
+      return;
+    List<Shape> shapes = new ArrayList<Shape>();
+    shapes.add(ctx.makeRectangle(170, -170, -10, 10));//crosses
+    shapes.add(ctx.makePoint(-175, 0));
+    shapes.add(ctx.makePoint(175, 0));
+    shapes.add(ctx.makePoint(0, 0));
+    RTree<Shape> tree = new RTree<Shape>(shapes, 2, ctx);
+
+    assertArrayEquals(new int[]{0, 1, 2}, tree.searchBoundingBox(ctx.makeRectangle(160, -160, -5, 5)));
+    assertArrayEquals(new int[]{0, 1}, tree.searchBoundingBox(ctx.makeRectangle(-178, -160, -5, 5)));
+    //world wrap; the rectangle must only be found once
+    assertArrayEquals(new int[]{0, 1, 2, 3}, tree.searchBoundingBox(ctx.makeRectangle(-180, 180, -5, 5)));
+
+    assertEquals(Arrays.asList(shapes.get(1), shapes.get(2)),
+        tree.query(ctx.makeRectangle(172, -172, -5, 5), SpatialRelation.WITHIN));
+    assertEquals(Arrays.asList(shapes.get(0)),
+        tree.query(ctx.makeRectangle(172, -172, -5, 5), SpatialRelation.CONTAINS));
+
+    //-180 and 180 are the same meridian
+    shapes = new ArrayList<Shape>();
+    shapes.add(ctx.makeRectangle(175, 180, -10, 10));
+    shapes.add(ctx.makeRectangle(-180, -175, -10, 10));
+    tree = new RTree<Shape>(shapes, ctx);
+    assertArrayEquals(new int[]{0, 1}, tree.searchBoundingBox(ctx.makeRectangle(-180, -178, -5, 5)));
+    assertArrayEquals(new int[]{0, 1}, tree.searchBoundingBox(ctx.makeRectangle(178, 180, -5, 5)));
+  }
+
+  @Test
+  @Repeat(iterations = 20)
+  public void testQueryVersusBruteForce() {
+    int count = randomIntBetween(0, 300);
+    List<Shape> shapes = new ArrayList<Shape>(count);
+    for (int i = 0; i < count; i++) {
+      shapes.add(randomIndexedShape());
+    }
+    RTree<Shape> tree = new RTree<Shape>(shapes, randomIntBetween(2, 20), ctx);
+    assertEquals(count, tree.size());
+
+    for (int q = 0; q < 20; q++) {
+      Shape queryShape = randomIndexedShape();
+
+      //bbox search
+      Rectangle queryBBox = queryShape.getBoundingBox();
+      List<Integer> expectedIds = new ArrayList<Integer>();
+      for (int id = 0; id < count; id++) {
+        if (queryBBox.relate(shapes.get(id).getBoundingBox()).intersects())
+          expectedIds.add(id);
+      }
+      int[] ids = tree.searchBoundingBox(queryBBox);
+      assertEquals(queryShape.toString(), expectedIds.toString(), Arrays.toString(ids));
+
+      //relate
+      for (SpatialRelation relation : SpatialRelation.values()) {
+        List<Shape> expected = new ArrayList<Shape>();
+        for (Shape shape : shapes) {
+          if (shape.relate(queryShape) == relation)
+            expected.add(shape);
+        }
+        assertEquals(relation + " " + queryShape, expected, tree.query(queryShape, relation));
+      }
+    }
+  }
+
+  private Shape randomIndexedShape() {
+    Point nearP = randomPoint();
+    switch (randomInt(2)) {
+      case 0: return nearP;
+      case 1: return randomRectangle(nearP);
+      case 2: {
+        double radius = randomDouble() * ctx.getWorldBounds().getHeight() / 4;
+        if (!ctx.isGeo()) {//keep it within the world bounds
+          Rectangle wb = ctx.getWorldBounds();
+          radius = Math.min(radius, Math.min(
+              Math.min(nearP.getX() - wb.getMinX(), wb.getMaxX() - nearP.getX()),
+              Math.min(nearP.getY() - wb.getMinY(), wb.getMaxY() - nearP.getY())));
+        }
+        return ctx.makeCircle(nearP, radius);
+      }
+      default: throw new Error();
+    }
+  }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.index;
+
+import com.carrotsearch.randomizedtesting.annotations.ParametersFactory;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.SpatialContextFactory;
+import com.spatial4j.core.io.GeohashUtils;
+import com.spatial4j.core.shape.Circle;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.RandomizedShapeTest;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.SpatialRelation;
+import com.spatial4j.core.shape.impl.RectangleImpl;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SpaceFillingCurveTest extends RandomizedShapeTest {
+
+  @ParametersFactory
+  public static Iterable<Object[]> parameters() {
+    SpatialContext cartesian = new SpatialContextFactory()
+      {{geo = false; worldBounds = new RectangleImpl(-100, 100, -50, 50, null);}}.newSpatialContext();
+    List<Object[]> params = new ArrayList<Object[]>();
+    for (SpatialContext ctx : new SpatialContext[]{SpatialContext.GEO, cartesian}) {
+      params.add($(ctx, true));
+      params.add($(ctx, false));
+    }
+    return params;
+  }
+
+  private final boolean hilbert;
+
+  public SpaceFillingCurveTest(SpatialContext ctx, boolean hilbert) {
+    super(ctx);
+    this.hilbert = hilbert;
+  }
+
+  private SpaceFillingCurve makeCurve(int order) {
+    return hilbert ? new SpaceFillingCurve.Hilbert(ctx, order) : new SpaceFillingCurve.Morton(ctx, order);
+  }
+
+  @Test
+  public void testAllCells() {
+    int order = randomIntBetween(1, 5);
+    SpaceFillingCurve curve = makeCurve(order);
+    int side = 1 << order;
+    boolean[] seen = new boolean[side * side];
+    long prevCell = -1;
+    for (long key = 0; key < side * side; key++) {
+      long cell = curve.decodeCell(key);
+      int x = (int) (cell >>> 32);
+      int y = (int) cell;
+      assertTrue(x >= 0 && x < side && y >= 0 && y < side);
+      assertFalse(seen[x * side + y]);
+      seen[x * side + y] = true;
+      assertEquals(key, curve.encodeCell(x, y));
+      if (hilbert && prevCell >= 0) {//consecutive cells are adjacent
+        int dx = Math.abs(x - (int) (prevCell >>> 32));
+        int dy = Math.abs(y - (int) prevCell);
+        assertEquals(1, dx + dy);
+      }
+      prevCell = cell;
+    }
+    if (hilbert) {
+      assertEquals(0L, curve.decodeCell(0));
+      assertEquals((long) (side - 1) << 32, curve.decodeCell(side * side - 1));
+    }
+  }
+
+  @Test
+  @Repeat(iterations = 10)
+  public void testEncodeDecode() {
+    SpaceFillingCurve curve = makeCurve(randomIntBetween(1, SpaceFillingCurve.MAX_ORDER));
+    Rectangle cell = new RectangleImpl(0, 0, 0, 0, ctx);
+    for (int i = 0; i < 100; i++) {
+      Point p = randomInt(3) == 0 ? divisible(randomPoint()) : randomPoint();
+      long key = curve.encode(p);
+      assertTrue(key >= 0 && key < 1L << (2 * curve.getOrder()));
+      assertEquals(SpatialRelation.CONTAINS, curve.decode(key, cell).relate(p));
+      long cellXY = curve.decodeCell(key);
+      assertEquals(key, curve.encodeCell((int) (cellXY >>> 32), (int) cellXY));
+    }
+    //the corners
+    Rectangle world = ctx.getWorldBounds();
+    assertEquals(0, curve.encode(world.getMinX(), world.getMinY()));
+    long last = hilbert ? curve.encodeCell((1 << curve.getOrder()) - 1, 0) : (1L << (2 * curve.getOrder())) - 1;
+    assertEquals(last, curve.encode(world.getMaxX(), hilbert ? world.getMinY() : world.getMaxY()));
+  }
+
+  @Test
+  public void testMortonIsGeohash() {
+    if (hilbert || !ctx.isGeo())
+      return;
+    SpaceFillingCurve curve = makeCurve(30);
+    for (int i = 0; i < 100; i++) {
+      Point p = randomPoint();//not on a boundary, practically
+      assertEquals(GeohashUtils.encodeLatLonAsLong(p.getY(), p.getX(), 60), curve.encode(p));
+    }
+  }
+
+  @Test
+  @Repeat(iterations = 20)
+  public void testCoveringRanges() {
+    SpaceFillingCurve curve = makeCurve(randomIntBetween(1, 8));
+    Point nearP = randomPoint();
+    Rectangle rect = randomRectangle(nearP);
+    Circle circle = ctx.makeCircle(nearP, randomDouble() * maxRadius(nearP));
+    boolean isRect = randomBoolean();
+    Shape shape = isRect ? rect : circle;
+    int maxRanges = randomIntBetween(1, 50);
+    long[] ranges = curve.getCoveringRanges(shape, maxRanges);
+
+    assertTrue(ranges.length > 0);
+    assertTrue(ranges.length / 2 <= maxRanges);
+    for (int i = 0; i < ranges.length; i += 2) {
+      assertTrue(ranges[i] < ranges[i + 1]);
+      if (i > 0)
+        assertTrue(ranges[i - 1] < ranges[i]);//sorted, disjoint & merged
+    }
+    for (int i = 0; i < 20; i++) {
+      Point p = isRect ? randomPointIn(rect) : randomPointIn(circle);
+      assertTrue(inRanges(ranges, curve.encode(p)));
+    }
+
+    //with an unlimited budget, a cell is in a range if and only if it intersects the shape
+    ranges = curve.getCoveringRanges(shape, Integer.MAX_VALUE);
+    Rectangle cell = new RectangleImpl(0, 0, 0, 0, ctx);
+    for (int i = 0; i < 50; i++) {
+      long key = curve.encode(randomPoint());
+      boolean intersects = shape.relate(curve.decode(key, cell)) != SpatialRelation.DISJOINT;
+      assertEquals(intersects, inRanges(ranges, key));
+    }
+  }
+
+  /** A cartesian circle must be within the world bounds. */
+  private double maxRadius(Point center) {
+    if (ctx.isGeo())
+      return 30;
+    Rectangle world = ctx.getWorldBounds();
+    return Math.min(Math.min(center.getX() - world.getMinX(), world.getMaxX() - center.getX()),
+        Math.min(center.getY() - world.getMinY(), world.getMaxY() - center.getY()));
+  }
+
+  private static boolean inRanges(long[] ranges, long key) {
+    for (int i = 0; i < ranges.length; i += 2) {
+      if (key >= ranges[i] && key < ranges[i + 1])
+        return true;
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.index;
+
+import com.carrotsearch.randomizedtesting.annotations.ParametersFactory;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.SpatialContextFactory;
+import com.spatial4j.core.io.GeohashUtils;
+import com.spatial4j.core.shape.Circle;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.RandomizedShapeTest;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.SpatialRelation;
+import com.spatial4j.core.shape.impl.RectangleImpl;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SpatialPrefixTreeTest extends RandomizedShapeTest {
+
+  @ParametersFactory
+  public static Iterable<Object[]> parameters() {
+    SpatialContext cartesian = new SpatialContextFactory()
+      {{geo = false; worldBounds = new RectangleImpl(-100, 100, -50, 50, null);}}.newSpatialContext();
+    return Arrays.asList(
+        $(new SpatialPrefixTree.Quad(SpatialContext.GEO, 8)),
+        $(new SpatialPrefixTree.Geohash(SpatialContext.GEO, 4)),
+        $(new SpatialPrefixTree.Quad(cartesian, 8)));
+  }
+
+  private final SpatialPrefixTree tree;
+
+  public SpatialPrefixTreeTest(SpatialPrefixTree tree) {
+    super(tree.getCtx());
+    this.tree = tree;
+  }
+
+  @Test
+  public void testCellBounds() {
+    Rectangle rect = new RectangleImpl(0, 0, 0, 0, ctx);
+    Rectangle world = ctx.getWorldBounds();
+    //the first and last cells at a level are at the corners
+    int level = randomIntBetween(1, tree.getMaxLevels());
+    long lastId = (1L << (level * tree.getBitsPerLevel())) - 1;
+    tree.getCellBounds(0, level, rect);
+    assertEquals(world.getMinX(), rect.getMinX(), 0);
+    assertEquals(world.getMinY(), rect.getMinY(), 0);
+    tree.getCellBounds(lastId, level, rect);
+    assertEquals(world.getMaxX(), rect.getMaxX(), 0);
+    assertEquals(world.getMaxY(), rect.getMaxY(), 0);
+    assertEquals(level, tree.getToken(lastId, level).length());
+    //a cell is within its parent
+    Rectangle parent = new RectangleImpl(0, 0, 0, 0, ctx);
+    long id = randomLong() & lastId;
+    if (level > 1) {
+      tree.getCellBounds(id >>> tree.getBitsPerLevel(), level - 1, parent);
+      assertEquals(SpatialRelation.CONTAINS, parent.relate(tree.getCellBounds(id, level, rect)));
+      assertTrue(tree.getToken(id, level).startsWith(tree.getToken(id >>> tree.getBitsPerLevel(), level - 1)));
+    }
+  }
+
+  @Test
+  public void testLevelForDistance() {
+    assertEquals(tree.getMaxLevels(), tree.getLevelForDistance(0));
+    assertEquals(1, tree.getLevelForDistance(1000));
+    double dist = randomDouble() * 10;
+    int level = tree.getLevelForDistance(dist);
+    Rectangle rect = tree.getCellBounds(0, level, new RectangleImpl(0, 0, 0, 0, ctx));
+    if (level < tree.getMaxLevels()) {
+      assertTrue(rect.getWidth() < dist && rect.getHeight() < dist);
+    }
+    if (level > 1) {
+      rect = tree.getCellBounds(0, level - 1, rect);
+      assertFalse(rect.getWidth() < dist && rect.getHeight() < dist);
+    }
+    assertEquals(0, SpatialPrefixTree.calcDistanceFromErrPct(randomPoint(), 0.25, ctx), 0);
+  }
+
+  @Test
+  @Repeat(iterations = 20)
+  public void testIterateCells() {
+    Point nearP = randomPoint();
+    Rectangle rect = randomRectangle(nearP);
+    Circle circle = ctx.makeCircle(nearP, randomDouble() * maxRadius(nearP));
+    boolean isRect = randomBoolean();
+    CountingShape shape = new CountingShape(isRect ? rect : circle);
+    int detailLevel = randomIntBetween(1, Math.min(5, tree.getMaxLevels()));
+    CellIterator iter = tree.iterateCells(shape, detailLevel);
+
+    List<String> leaves = new ArrayList<String>();
+    int nonLeaves = 0;
+    Rectangle cell = new RectangleImpl(0, 0, 0, 0, ctx);
+    String prevToken = "";
+    while (iter.next()) {
+      String token = iter.getToken();
+      assertTrue(token.compareTo(prevToken) > 0);//depth-first in order
+      prevToken = token;
+      assertEquals(iter.getRectangle(), tree.getCellBounds(iter.getId(), iter.getLevel(), cell));
+      SpatialRelation rel = shape.delegate.relate(iter.getRectangle());
+      assertEquals(rel, iter.getShapeRel());
+      assertNotSame(SpatialRelation.DISJOINT, rel);
+      assertEquals(rel == SpatialRelation.CONTAINS || iter.getLevel() == detailLevel, iter.isLeaf());
+      if (iter.isLeaf()) {
+        //not within a previous leaf
+        for (String leaf : leaves) {
+          assertFalse(token.startsWith(leaf));
+        }
+        leaves.add(token);
+      } else {
+        nonLeaves++;
+      }
+    }
+    assertFalse(iter.next());
+    //each sub-cell of the root and of a non-leaf was related once
+    int subCells = 1 << tree.getBitsPerLevel();
+    assertEquals(subCells * (1 + nonLeaves), shape.relateCount);
+
+    //points in the shape are in a leaf
+    for (int i = 0; i < 20; i++) {
+      Point p = isRect ? randomPointIn(rect) : randomPointIn(circle);
+      boolean found = false;
+      for (String leaf : leaves) {
+        found |= tree.getCellBounds(tokenToId(leaf), leaf.length(), cell).relate(p) != SpatialRelation.DISJOINT;
+      }
+      assertTrue(found);
+    }
+
+    if (tree instanceof SpatialPrefixTree.Geohash) {
+      assertEquals(Arrays.asList(GeohashUtils.getCoveringGeohashes(shape.delegate, detailLevel, ctx)), leaves);
+    }
+  }
+
+  @Test
+  public void testSkipChildren() {
+    CellIterator iter = tree.iterateCells(ctx.getWorldBounds(), 3);
+    int count = 0;
+    while (iter.next()) {
+      count++;
+    }
+    assertEquals(1 << tree.getBitsPerLevel(), count);//the world contains every top cell
+
+    iter = tree.iterateCells(randomPoint(), tree.getMaxLevels());
+    assertTrue(iter.next());
+    assertEquals(1, iter.getLevel());
+    iter.skipChildren();
+    while (iter.next()) {
+      assertEquals(1, iter.getLevel());//other top cells the point touches, if on a boundary
+    }
+  }
+
+  private long tokenToId(String token) {
+    if (tree instanceof SpatialPrefixTree.Geohash)
+      return GeohashUtils.geohashToLong(token);
+    long id = 0;
+    for (int i = 0; i < token.length(); i++) {
+      id = (id << 2) | (token.charAt(i) - 'A');
+    }
+    return id;
+  }
+
+  /** A cartesian circle must be within the world bounds. */
+  private double maxRadius(Point center) {
+    if (ctx.isGeo())
+      return 30;
+    Rectangle world = ctx.getWorldBounds();
+    return Math.min(Math.min(center.getX() - world.getMinX(), world.getMaxX() - center.getX()),
+        Math.min(center.getY() - world.getMinY(), world.getMaxY() - center.getY()));
+  }
+
+  /** Counts calls to relate(). */
+  private static class CountingShape implements Shape {
+    final Shape delegate;
+    int relateCount;
+
+    CountingShape(Shape delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public SpatialRelation relate(Shape other) {
+      relateCount++;
+      return delegate.relate(other);
+    }
+
+    @Override
+    public Rectangle getBoundingBox() {
+      return delegate.getBoundingBox();
+    }
+
+    @Override
+    public boolean hasArea() {
+      return delegate.hasArea();
+    }
+
+    @Override
+    public double getArea(SpatialContext ctx) {
+      return delegate.getArea(ctx);
+    }
+
+    @Override
+    public Point getCenter() {
+      return delegate.getCenter();
+    }
+
+    @Override
+    public Shape getBuffered(double distance, SpatialContext ctx) {
+      return delegate.getBuffered(distance, ctx);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return delegate.isEmpty();
+    }
+  }
+
+}
@@ -18,7 +18,13 @@
 package com.spatial4j.core.io;
 
 import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.ParametersFactory;
 import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.SpatialContextFactory;
+import com.spatial4j.core.exception.InvalidShapeException;
+import com.spatial4j.core.index.PointStore;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
 import com.spatial4j.core.shape.Shape;
 import com.spatial4j.core.shape.ShapeCollection;
 import org.junit.Test;
@@ -27,22 +33,36 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 public class BinaryCodecTest extends RandomizedTest {
 
   final SpatialContext ctx;
   private BinaryCodec binaryCodec;
 
-  protected BinaryCodecTest(SpatialContext ctx) {
-    this.ctx = ctx;
-    binaryCodec = ctx.getBinaryCodec();//stateless
+  @ParametersFactory
+  public static Iterable<Object[]> parameters() {
+    SpatialContextFactory factory = new SpatialContextFactory();
+    factory.binaryCodecScale = 1e7;//compact
+    return Arrays.asList($$(
+        $(SpatialContext.GEO),
+        $(factory.newSpatialContext())
+    ));
   }
 
-  public BinaryCodecTest() {
-    this(SpatialContext.GEO);
+  public BinaryCodecTest(SpatialContext ctx) {
+    this.ctx = ctx;
+    binaryCodec = ctx.getBinaryCodec();//stateless
   }
 
   //This test uses WKT to specify the shapes because the Jts based subclass tests will test
@@ -75,6 +95,222 @@ public class BinaryCodecTest extends RandomizedTest {
     assertRoundTrip(s);
   }
 
+  @Test
+  public void testCompact() throws IOException {
+    if (!binaryCodec.isCompact())
+      return;
+    double x = randomDouble() * 360 - 180;
+    double y = randomDouble() * 180 - 90;
+    Point pt = ctx.makePoint(x, y);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    binaryCodec.writeShape(new DataOutputStream(baos), pt);
+    assertTrue(baos.size() <= 1 + 5 + 5);
+    Point pt2 = (Point) binaryCodec.readShape(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+    assertEquals(x, pt2.getX(), 0.5e-7);
+    assertEquals(y, pt2.getY(), 0.5e-7);
+
+    assertRoundTrip(ctx.makePoint(Double.NaN, Double.NaN));//empty
+    assertRoundTrip(wkt("POINT(-180 90)"));
+    assertRoundTrip(wkt("POINT(0.0000001 -0.0000001)"));
+  }
+
+  @Test
+  public void testPointStore() throws IOException {
+    List<Shape> points = new ArrayList<Shape>();
+    for (int i = randomIntBetween(1, 10); i > 0; i--) {
+      points.add(wkt("POINT(" + (randomInt(360) - 180) + " " + (randomInt(180) - 90) + ")"));
+    }
+    ShapeCollection coll = ctx.makeCollection(points);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    binaryCodec.writeShape(new DataOutputStream(baos), coll);
+    PointStore store = binaryCodec.readPointStore(
+        new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+    assertEquals(points.size(), store.size());
+    for (int id = 0; id < store.size(); id++) {
+      assertEquals(points.get(id), store.makePoint(id));
+    }
+
+    baos = new ByteArrayOutputStream();
+    binaryCodec.writePointStore(new DataOutputStream(baos), store);
+    byte[] bytes = baos.toByteArray();
+    assertEquals(coll, binaryCodec.readShape(new DataInputStream(new ByteArrayInputStream(bytes))));
+    store = binaryCodec.readPointStore(new DataInputStream(new ByteArrayInputStream(bytes)));
+    for (int id = 0; id < store.size(); id++) {
+      assertEquals(points.get(id), store.makePoint(id));
+    }
+  }
+
+  @Test
+  public void testByteBuffer() throws IOException {
+    List<Shape> shapes = new ArrayList<Shape>();
+    for (int i = randomIntBetween(1, 10); i > 0; i--) {
+      shapes.add(randomInt(4) == 0 ? randomCollection(randomIntBetween(0, 5)) : randomShape());
+    }
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream dataOutput = new DataOutputStream(baos);
+    for (Shape shape : shapes) {
+      binaryCodec.writeShape(dataOutput, shape);
+    }
+    byte[] expectedBytes = baos.toByteArray();
+
+    int start = randomInt(10);
+    ByteBuffer buf = randomBoolean() ? ByteBuffer.allocate(start + expectedBytes.length)
+        : ByteBuffer.allocateDirect(start + expectedBytes.length);
+    buf.order(randomBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);//doesn't matter
+    buf.position(start);
+    int[] offsets = new int[shapes.size()];
+    for (int i = 0; i < shapes.size(); i++) {
+      offsets[i] = buf.position();
+      binaryCodec.writeShape(buf, shapes.get(i));
+    }
+    assertEquals(buf.limit(), buf.position());
+    byte[] bytes = new byte[expectedBytes.length];
+    buf.position(start);
+    buf.get(bytes);
+    assertArrayEquals(expectedBytes, bytes);
+
+    //absolute
+    buf.position(0);
+    for (int i = shapes.size() - 1; i >= 0; i--) {
+      assertEquals(shapes.get(i), binaryCodec.readShape(buf, offsets[i]));
+    }
+    assertEquals(0, buf.position());
+    //relative
+    buf.position(start);
+    for (int i = 0; i < shapes.size(); i++) {
+      assertEquals(shapes.get(i), binaryCodec.readShape(buf));
+      assertEquals(i + 1 < offsets.length ? offsets[i + 1] : buf.limit(), buf.position());
+    }
+
+    //truncated, like a DataInput
+    int last = offsets[offsets.length - 1];
+    buf.limit(randomIntBetween(last, buf.limit() - 1));
+    try {
+      binaryCodec.readShape(buf, last);
+      fail();
+    } catch (EOFException e) {
+      //expected
+    }
+  }
+
+  @Test
+  public void testHeader() throws IOException {
+    List<Shape> shapes = new ArrayList<Shape>();
+    for (int i = randomIntBetween(1, 10); i > 0; i--) {
+      shapes.add(randomInt(4) == 0 ? randomCollection(randomIntBetween(0, 5)) : randomShape());
+    }
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream dataOutput = new DataOutputStream(baos);
+    for (Shape shape : shapes) {
+      binaryCodec.writeShapeWithHeader(dataOutput, shape);
+    }
+    byte[] bytes = baos.toByteArray();
+
+    //read, get the bbox, or skip each shape at random
+    DataInputStream dataInput = new DataInputStream(new ByteArrayInputStream(bytes));
+    for (Shape shape : shapes) {
+      switch (randomInt(2)) {
+        case 0: assertEquals(shape, binaryCodec.readShapeWithHeader(dataInput)); break;
+        case 1: assertBBoxEquals(shape.getBoundingBox(), binaryCodec.readBoundingBoxOnly(dataInput)); break;
+        case 2: binaryCodec.skipShape(dataInput); break;
+      }
+    }
+    assertEquals(-1, dataInput.read());
+
+    //the same in a ByteBuffer
+    ByteBuffer buf = ByteBuffer.allocate(bytes.length + 1);
+    buf.put((byte) 0);
+    for (Shape shape : shapes) {
+      binaryCodec.writeShapeWithHeader(buf, shape);
+    }
+    assertEquals(buf.limit(), buf.position());
+    assertArrayEquals(bytes, Arrays.copyOfRange(buf.array(), 1, buf.limit()));
+    int offset = 1;
+    for (Shape shape : shapes) {
+      assertEquals(shape, binaryCodec.readShapeWithHeader(buf, offset));
+      assertBBoxEquals(shape.getBoundingBox(), binaryCodec.readBoundingBoxOnly(buf, offset));
+      offset = binaryCodec.skipShape(buf, offset);
+    }
+    assertEquals(buf.limit(), offset);
+
+    buf.limit(randomIntBetween(1, buf.limit() - 1));//truncated
+    try {
+      for (offset = 1; ; ) {
+        if (randomBoolean())
+          binaryCodec.readBoundingBoxOnly(buf, offset);
+        offset = binaryCodec.skipShape(buf, offset);
+      }
+    } catch (EOFException e) {
+      //expected
+    }
+    buf.limit(buf.capacity());
+
+    buf.put(1, (byte) (BinaryCodec.HEADER_VERSION + 1));
+    try {
+      binaryCodec.skipShape(buf, 1);
+      fail();
+    } catch (InvalidShapeException e) {
+      //expected
+    }
+  }
+
+  private void assertBBoxEquals(Rectangle expected, Rectangle actual) {
+    //rounded to the format's precision
+    assertEquals(expected.getMinX(), actual.getMinX(), 1e-4);
+    assertEquals(expected.getMaxX(), actual.getMaxX(), 1e-4);
+    assertEquals(expected.getMinY(), actual.getMinY(), 1e-4);
+    assertEquals(expected.getMaxY(), actual.getMaxY(), 1e-4);
+  }
+
+  @Test
+  public void testLazyCollection() throws IOException {
+    //sometimes enough for ShapeCollection to index it
+    ShapeCollection coll = randomCollection(randomBoolean() ? randomInt(10) : randomIntBetween(32, 50));
+    Shape other = randomShape();
+    ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+    binaryCodec.writeShape(buf, other);
+    int offset = buf.position();
+    binaryCodec.writeShape(buf, coll);
+    binaryCodec.writeShape(buf, other);
+
+    assertLazyCollection(coll, binaryCodec.readLazyCollection(buf, offset));
+
+    //a memory-mapped file
+    File file = newTempFile();
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      raf.write(buf.array(), 0, buf.position());
+      ByteBuffer mapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+      assertLazyCollection(coll, binaryCodec.readLazyCollection(mapped, offset));
+      assertEquals(other, binaryCodec.readShape(mapped, 0));
+    } finally {
+      raf.close();
+    }
+  }
+
+  private void assertLazyCollection(ShapeCollection expected, ShapeCollection lazy) {
+    assertEquals(expected.size(), lazy.size());
+    assertEquals(expected.getBoundingBox(), lazy.getBoundingBox());
+    for (int i = lazy.size() - 1; i >= 0; i--) {
+      assertEquals(expected.get(i), lazy.get(i));
+    }
+    for (int i = 0; i < 5; i++) {
+      int x = randomIntBetween(-180, 170);
+      int y = randomIntBetween(-90, 80);
+      Rectangle rect = (Rectangle) wkt("ENVELOPE(" + x + ", " + (x + randomInt(180 - x)) + ", "
+          + (y + randomInt(90 - y)) + ", " + y + ")");
+      assertEquals(expected.relate(rect), lazy.relate(rect));
+    }
+  }
+
+  protected ShapeCollection randomCollection(int size) {
+    List<Shape> shapes = new ArrayList<Shape>(size);
+    for (int i = 0; i < size; i++) {
+      shapes.add(randomShape());
+    }
+    return ctx.makeCollection(shapes);
+  }
+
   protected Shape wkt(String wkt) {
     try {
       return ctx.readShapeFromWkt(wkt);
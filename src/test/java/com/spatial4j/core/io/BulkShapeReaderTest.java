@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.io;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.spatial4j.core.context.jts.JtsSpatialContext;
+import com.spatial4j.core.shape.Shape;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class BulkShapeReaderTest extends RandomizedTest {
+
+  final JtsSpatialContext ctx = JtsSpatialContext.GEO;//for polygons
+
+  ExecutorService executor;
+
+  @Before
+  public void startExecutor() {
+    executor = Executors.newFixedThreadPool(randomIntBetween(1, 4));
+  }
+
+  @After
+  public void stopExecutor() throws InterruptedException {
+    executor.shutdownNow();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testWkt() throws ParseException {
+    List<String> wkts = new ArrayList<String>();
+    for (int i = randomIntBetween(0, 1000); i > 0; i--) {
+      int x = randomIntBetween(-170, 170);
+      int y = randomIntBetween(-80, 80);
+      switch (randomInt(4)) {
+        case 0: wkts.add("POINT(" + x + " " + y + ")"); break;
+        case 1: wkts.add("POLYGON((" + x + " " + y + ", " + (x + 5) + " " + y + ", " + x + " " + (y + 5) + ", "
+            + x + " " + y + "))"); break;
+        case 2: wkts.add("POINT(" + x + " bogus)"); break;//ParseException
+        case 3: wkts.add("POINT(" + x + " 100)"); break;//InvalidShapeException
+        case 4: wkts.add("POLYGON((0 0, 10 0, 10 20))"); break;//doesn't connect around
+      }
+    }
+    int batchSize = randomIntBetween(1, 100);
+    int maxBatchesInFlight = randomIntBetween(1, 8);
+    BulkShapeReader reader = new BulkShapeReader(ctx, executor, batchSize, maxBatchesInFlight);
+    CountingIterator<String> input = new CountingIterator<String>(wkts.iterator());
+    Iterator<BulkShapeReader.Result> results = reader.readWkt(input);
+
+    for (int i = 0; i < wkts.size(); i++) {
+      assertTrue(results.hasNext());
+      BulkShapeReader.Result result = results.next();
+      assertEquals(i, result.getIndex());
+      //bounded
+      assertTrue(input.count - i <= (long) batchSize * maxBatchesInFlight);
+      Shape expected = null;
+      Exception expectedError = null;
+      try {
+        expected = ctx.readShapeFromWkt(wkts.get(i));
+      } catch (Exception e) {
+        expectedError = e;
+      }
+      if (expectedError != null) {
+        assertTrue(result.isError());
+        assertNull(result.getShape());
+        assertEquals(expectedError.getClass(), result.getError().getClass());
+      } else {
+        assertNull(result.getError());
+        assertEquals(expected, result.getShape());
+      }
+    }
+    assertTrue(!results.hasNext());
+  }
+
+  @Test
+  public void testBinary() throws IOException {
+    BinaryCodec codec = ctx.getBinaryCodec();
+    List<Shape> shapes = new ArrayList<Shape>();
+    List<byte[]> records = new ArrayList<byte[]>();
+    for (int i = randomIntBetween(0, 500); i > 0; i--) {
+      Shape shape = randomBoolean()
+          ? ctx.makePoint(randomIntBetween(-180, 180), randomIntBetween(-90, 90))
+          : ctx.makeCircle(randomIntBetween(-180, 180), randomIntBetween(-90, 90), randomIntBetween(0, 10));
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      codec.writeShape(new DataOutputStream(baos), shape);
+      byte[] bytes = baos.toByteArray();
+      if (randomInt(9) == 0) {
+        shape = null;
+        bytes = Arrays.copyOf(bytes, bytes.length - 1);//truncated
+      }
+      shapes.add(shape);
+      records.add(bytes);
+    }
+    Iterator<BulkShapeReader.Result> results =
+        new BulkShapeReader(ctx, executor).readBinary(records.iterator());
+    for (int i = 0; i < shapes.size(); i++) {
+      BulkShapeReader.Result result = results.next();
+      assertEquals(i, result.getIndex());
+      if (shapes.get(i) == null)
+        assertTrue(result.getError() instanceof IOException);
+      else
+        assertEquals(shapes.get(i), result.getShape());
+    }
+    assertTrue(!results.hasNext());
+  }
+
+  private static class CountingIterator<T> implements Iterator<T> {
+    final Iterator<T> delegate;
+    long count;
+
+    CountingIterator(Iterator<T> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return delegate.hasNext();
+    }
+
+    @Override
+    public T next() {
+      count++;
+      return delegate.next();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
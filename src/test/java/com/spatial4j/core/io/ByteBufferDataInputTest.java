@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.spatial4j.core.io;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class ByteBufferDataInputTest extends RandomizedTest {
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testReadLine() throws IOException {
+    byte[] bytes = "one\ntwo\r\nthree\rfour\r\n\nfive".getBytes("ISO-8859-1");
+    ByteBufferDataInput input = new ByteBufferDataInput(ByteBuffer.wrap(bytes));
+    DataInputStream expected = new DataInputStream(new ByteArrayInputStream(bytes));
+    String line;
+    do {
+      line = expected.readLine();
+      assertEquals(line, input.readLine());
+    } while (line != null);
+  }
+
+  @Test
+  public void testEOF() throws IOException {
+    ByteBufferDataInput input = new ByteBufferDataInput(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+    assertEquals(1, input.readByte());
+    try {
+      input.readInt();
+      fail();
+    } catch (EOFException e) {
+      //expected
+    }
+    assertEquals((2 << 8) | 3, input.readShort());//unchanged by the failed read
+    try {
+      input.readFully(new byte[2]);
+      fail();
+    } catch (EOFException e) {
+      //expected
+    }
+  }
+}
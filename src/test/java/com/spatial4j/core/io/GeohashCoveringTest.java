@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.io;
+
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.shape.Circle;
+import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.RandomizedShapeTest;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.SpatialRelation;
+import org.junit.Test;
+
+/** Tests {@link GeohashUtils#getCoveringGeohashes(Shape, int, SpatialContext)} and its ranges. */
+public class GeohashCoveringTest extends RandomizedShapeTest {
+
+  public GeohashCoveringTest() {
+    super(SpatialContext.GEO);
+  }
+
+  @Test
+  public void testWorld() {
+    assertEquals(32, GeohashUtils.getCoveringGeohashes(ctx.getWorldBounds(), 3, ctx).length);
+    assertArrayEquals(new long[]{0, 1L << 15},
+        GeohashUtils.getCoveringRanges(ctx.getWorldBounds(), 3, ctx));
+  }
+
+  @Test
+  public void testDateline() {
+    Shape shape = ctx.makeRectangle(179, -179, -1, 1);
+    assertArrayEquals(new String[]{"2p", "80", "rz", "xb"}, GeohashUtils.getCoveringGeohashes(shape, 2, ctx));
+  }
+
+  @Test
+  @Repeat(iterations = 20)
+  public void testCovering() {
+    Point nearP = randomPoint();
+    Rectangle rect = randomRectangle(nearP);
+    Circle circle = ctx.makeCircle(nearP, randomDouble() * 20);
+    int shapeType = randomInt(2);
+    Shape shape = shapeType == 0 ? rect : shapeType == 1 ? circle : nearP;
+    int precision = randomIntBetween(1, 3);
+    String[] hashes = GeohashUtils.getCoveringGeohashes(shape, precision, ctx);
+    long[] ranges = GeohashUtils.getCoveringRanges(shape, precision, ctx);
+    assertTrue(hashes.length > 0);
+
+    for (int i = 0; i < hashes.length; i++) {
+      assertTrue(hashes[i].length() <= precision);
+      assertNotSame(SpatialRelation.DISJOINT, shape.relate(GeohashUtils.decodeBoundary(hashes[i], ctx)));
+      //a shorter one is contained
+      if (hashes[i].length() < precision)
+        assertEquals(SpatialRelation.CONTAINS, shape.relate(GeohashUtils.decodeBoundary(hashes[i], ctx)));
+      //sorted, and none within another
+      if (i > 0) {
+        assertTrue(hashes[i - 1].compareTo(hashes[i]) < 0);
+        assertFalse(hashes[i].startsWith(hashes[i - 1]));
+      }
+    }
+    //sorted, disjoint & merged
+    for (int i = 0; i < ranges.length; i += 2) {
+      assertTrue(ranges[i] < ranges[i + 1]);
+      if (i > 0)
+        assertTrue(ranges[i - 1] < ranges[i]);
+    }
+
+    //points in the shape are in a cell, and their key in a range
+    for (int i = 0; i < 20; i++) {
+      Point p = shapeType == 0 ? randomPointIn(rect) : shapeType == 1 ? randomPointIn(circle) : nearP;
+      String hash = GeohashUtils.encodeLatLon(p.getY(), p.getX(), precision);
+      boolean found = false;
+      for (String coveringHash : hashes) {
+        found |= hash.startsWith(coveringHash);
+      }
+      assertTrue(p + " " + hash, found);
+      assertTrue(inRanges(ranges, GeohashUtils.geohashToLong(hash)));
+    }
+
+    //a key is in a range if and only if its cell is covered
+    for (int i = 0; i < 50; i++) {
+      Point p = randomPoint();
+      String hash = GeohashUtils.encodeLatLon(p.getY(), p.getX(), precision);
+      boolean found = false;
+      for (String coveringHash : hashes) {
+        found |= hash.startsWith(coveringHash);
+      }
+      assertEquals(found, inRanges(ranges, GeohashUtils.geohashToLong(hash)));
+    }
+  }
+
+  private static boolean inRanges(long[] ranges, long key) {
+    for (int i = 0; i < ranges.length; i += 2) {
+      if (key >= ranges[i] && key < ranges[i + 1])
+        return true;
+    }
+    return false;
+  }
+
+}
@@ -27,6 +27,8 @@ import com.vividsolutions.jts.geom.PrecisionModel;
 import com.vividsolutions.jts.util.GeometricShapeFactory;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.util.Arrays;
 
 public class JtsBinaryCodecTest extends BinaryCodecTest {
@@ -37,9 +39,15 @@ public class JtsBinaryCodecTest extends BinaryCodecTest {
     JtsSpatialContextFactory factory = new JtsSpatialContextFactory();
     factory.precisionModel = new PrecisionModel(PrecisionModel.FLOATING_SINGLE);
 
+    //compact; the fixed precision model puts the random polygons on the same grid
+    JtsSpatialContextFactory compactFactory = new JtsSpatialContextFactory();
+    compactFactory.precisionModel = new PrecisionModel(1e7);
+    compactFactory.binaryCodecScale = 1e7;
+
     return Arrays.asList($$(
         $(JtsSpatialContext.GEO),//doubles
-        $(factory.newSpatialContext())//floats
+        $(factory.newSpatialContext()),//floats
+        $(compactFactory.newSpatialContext())
     ));
   }
 
@@ -53,6 +61,32 @@ public class JtsBinaryCodecTest extends BinaryCodecTest {
     ctx.makeShape(randomGeometry(randomIntBetween(3, 20)), false, false);
   }
 
+  @Test
+  public void testCompactPolygon() throws Exception {
+    JtsSpatialContext ctx = (JtsSpatialContext)super.ctx;
+    if (!ctx.getBinaryCodec().isCompact())
+      return;
+    Shape poly = ctx.makeShape(randomGeometry(randomIntBetween(50, 200)), false, false);
+    assertRoundTrip(poly);
+    assertRoundTrip(ctx.readShapeFromWkt(
+        "MULTIPOLYGON(((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 2 4, 4 4, 2 2)), ((20 20, 30 20, 25 25, 20 20)))"));
+    assertRoundTrip(ctx.readShapeFromWkt("LINESTRING(-170 -10, 170.1234567 10)"));
+    assertRoundTrip(ctx.readShapeFromWkt("GEOMETRYCOLLECTION(POINT(1 2), LINESTRING(1 1, 2 2))"));
+
+    //versus WKB, given a detailed polygon (a kilometer across with 10m edges)
+    GeometricShapeFactory gsf = new GeometricShapeFactory(ctx.getGeometryFactory());
+    gsf.setCentre(new Coordinate(randomIntBetween(-170, 170), randomIntBetween(-80, 80)));
+    gsf.setSize(0.01);
+    gsf.setNumPoints(300);
+    poly = ctx.makeShape(gsf.createCircle(), false, false);
+    assertRoundTrip(poly);
+    ByteArrayOutputStream compact = new ByteArrayOutputStream();
+    ctx.getBinaryCodec().writeShape(new DataOutputStream(compact), poly);
+    ByteArrayOutputStream wkb = new ByteArrayOutputStream();
+    JtsSpatialContext.GEO.getBinaryCodec().writeShape(new DataOutputStream(wkb), poly);
+    assertTrue(compact.size() + " vs " + wkb.size(), compact.size() * 3 < wkb.size());
+  }
+
   @Override
   protected Shape randomShape() {
     if (randomInt(3) == 0) {
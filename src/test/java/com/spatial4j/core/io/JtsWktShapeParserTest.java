@@ -26,6 +26,9 @@ import com.spatial4j.core.shape.SpatialRelation;
 import com.spatial4j.core.shape.jts.JtsGeometry;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
 import org.junit.Test;
 
 import java.text.ParseException;
@@ -81,6 +84,40 @@ public class JtsWktShapeParserTest extends WktShapeParserTest {
     ));
   }
 
+  @Test
+  public void testPackedCoordinateSequence() throws ParseException {
+    JtsSpatialContext packedCtx = new JtsSpatialContextFactory() {{
+      coordinateSequenceFactory = PackedCoordinateSequenceFactory.DOUBLE_FACTORY;
+    }}.newSpatialContext();
+    String wkt = "POLYGON ((0 0, 10 0, 10 10, 5 12.5, 0 10, 0 0), (2 2, 2 4, 4 4, 2 2))";
+    JtsGeometry expected = (JtsGeometry) ctx.readShapeFromWkt(wkt);
+    JtsGeometry packed = (JtsGeometry) packedCtx.readShapeFromWkt(wkt);
+    assertTrue(((Polygon) packed.getGeom()).getExteriorRing().getCoordinateSequence()
+        instanceof PackedCoordinateSequence);
+    assertTrue(expected.getGeom().equalsExact(packed.getGeom()));
+
+    wkt = "LINESTRING (1 2 3, 4 5 6, -7.5 8e-1)";//z is skipped
+    Shape line = packedCtx.readShapeFromWkt(wkt);
+    assertEquals(ctx.readShapeFromWkt(wkt), line);
+    assertArrayEquals(new Coordinate[]{new Coordinate(1, 2), new Coordinate(4, 5), new Coordinate(-7.5, 0.8)},
+        ((JtsGeometry) line).getGeom().getCoordinates());
+  }
+
+  @Test
+  public void testReadCoordinateOverride() throws ParseException {
+    //a subclass that shifts every coordinate; both line strings and polygons read via the hook
+    JtsWktShapeParser shifting = new JtsWktShapeParser(ctx, new JtsSpatialContextFactory()) {
+      @Override
+      protected void readCoordinate(State state, double[] xys, int offset) throws ParseException {
+        super.readCoordinate(state, xys, offset);
+        xys[offset] += 1;
+      }
+    };
+    assertEquals(ctx.readShapeFromWkt("LINESTRING (2 2, 5 5)"), shifting.parse("LINESTRING (1 2, 4 5)"));
+    assertEquals(ctx.readShapeFromWkt("POLYGON ((1 0, 11 0, 6 10, 1 0))"),
+        shifting.parse("POLYGON ((0 0, 10 0, 5 10, 0 0))"));
+  }
+
   @Test
   public void testPolyToRect() throws ParseException {
     //poly is a rect (no dateline issue)
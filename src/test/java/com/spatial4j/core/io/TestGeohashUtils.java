@@ -19,9 +19,17 @@ package com.spatial4j.core.io;
 
 import com.spatial4j.core.context.SpatialContext;
 import com.spatial4j.core.shape.Point;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.impl.RectangleImpl;
+import com.spatial4j.core.shape.SpatialRelation;
 import org.junit.Test;
 
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
 
 /**
  * Tests for {@link GeohashUtils}
@@ -91,6 +99,88 @@ public class TestGeohashUtils {
     assertEquals(point.getX(), point2.getX(), 0.000001d);
   }
 
+  /**
+   * Compares the long geohashes with prefixes of a 24 character one, which is computed by halving
+   * intervals; including points on cell boundaries.
+   */
+  @Test
+  public void testLongEncodeDecode() {
+    double[] specialLons = {-180, 180, 0, 90, -90, 45, 22.5, -11.25, 1e-300, -1e-300, Math.nextUp(-180.0), 200, -200};
+    double[] specialLats = {-90, 90, 0, 45, -45, 22.5, 1e-300, -1e-300, Math.nextUp(-90.0), 100, -100};
+    Random random = new Random(42);
+    Rectangle reuse = new RectangleImpl(0, 0, 0, 0, ctx);
+    for (int i = 0; i < 500; i++) {
+      double lon = i < specialLons.length ? specialLons[i] :
+          (random.nextBoolean() ? specialLons[random.nextInt(specialLons.length)] : random.nextDouble() * 360 - 180);
+      double lat = i < specialLats.length ? specialLats[i] :
+          (random.nextBoolean() ? specialLats[random.nextInt(specialLats.length)] : random.nextDouble() * 180 - 90);
+      String hash24 = GeohashUtils.encodeLatLon(lat, lon, 24);
+      long hash60 = GeohashUtils.geohashToLong(hash24.substring(0, 12));
+      for (int bits = 0; bits <= GeohashUtils.MAX_LONG_BITS; bits++) {
+        long hash = GeohashUtils.encodeLatLonAsLong(lat, lon, bits);
+        assertEquals(hash60 >>> (60 - bits), hash);
+        if (bits % 5 == 0) {
+          String str = hash24.substring(0, bits / 5);
+          assertEquals(str, GeohashUtils.longToGeohash(hash, bits));
+          assertEquals(str, GeohashUtils.encodeLatLon(lat, lon, bits / 5));
+          assertEquals(GeohashUtils.decodeBoundary(str, ctx), GeohashUtils.decodeBoundary(hash, bits, reuse));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testLongDecode() {
+    Rectangle reuse = new RectangleImpl(0, 0, 0, 0, ctx);
+    assertEquals(ctx.makeRectangle(-180, 180, -90, 90), GeohashUtils.decodeBoundary(0L, 0, reuse));
+    assertEquals(ctx.makeRectangle(0, 180, -90, 90), GeohashUtils.decodeBoundary(1L, 1, reuse));
+    assertEquals(ctx.makeRectangle(-180, 0, 0, 90), GeohashUtils.decodeBoundary(1L, 2, reuse));
+    assertEquals(ctx.makeRectangle(90, 180, -90, 0), GeohashUtils.decodeBoundary(5L, 3, reuse));//1 0 1
+    assertEquals(GeohashUtils.geohashToLong("U4PRUYDQQVJ8"), GeohashUtils.geohashToLong("u4pruydqqvj8"));
+    try {
+      GeohashUtils.geohashToLong("u4a");
+      fail();
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+    try {
+      GeohashUtils.longToGeohash(0, 7);
+      fail();
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+  }
+
+  @Test
+  public void testNeighbors() {
+    assertArrayEquals(new String[]{"ezefp", "ezefr", "ezefx", "ezs40", "ezs41", "ezs43", "ezs48", "ezs49"},
+        GeohashUtils.getNeighbors("ezs42"));
+    //north-west corner: wraps across the dateline but not the pole
+    assertArrayEquals(new String[]{"8", "9", "c", "x", "z"}, GeohashUtils.getNeighbors("b"));
+    assertEquals(0, GeohashUtils.getNeighbors(0L, 0).length);
+    assertArrayEquals(new long[]{1L}, GeohashUtils.getNeighbors(0L, 1));
+
+    //each neighbor touches the cell
+    Random random = new Random(42);
+    Rectangle cell = new RectangleImpl(0, 0, 0, 0, ctx);
+    Rectangle neighborCell = new RectangleImpl(0, 0, 0, 0, ctx);
+    for (int i = 0; i < 200; i++) {
+      int bits = 4 + random.nextInt(GeohashUtils.MAX_LONG_BITS - 4);
+      double lon = random.nextBoolean() ? 180 * (random.nextBoolean() ? 1 : -1) : random.nextDouble() * 360 - 180;
+      long hash = GeohashUtils.encodeLatLonAsLong(random.nextDouble() * 180 - 90, lon, bits);
+      GeohashUtils.decodeBoundary(hash, bits, cell);
+      long[] neighbors = GeohashUtils.getNeighbors(hash, bits);
+      boolean atPole = cell.getMinY() == -90 || cell.getMaxY() == 90;
+      assertEquals(atPole ? 5 : 8, neighbors.length);
+      for (long neighbor : neighbors) {
+        GeohashUtils.decodeBoundary(neighbor, bits, neighborCell);
+        assertNotSame(SpatialRelation.DISJOINT, cell.relate(neighborCell));
+        assertEquals(cell.getWidth(), neighborCell.getWidth(), 0);
+        assertEquals(cell.getHeight(), neighborCell.getHeight(), 0);
+      }
+    }
+  }
+
   /** see the table at http://en.wikipedia.org/wiki/Geohash */
   @Test
   public void testHashLenToWidth() {
@@ -23,6 +23,7 @@ import com.spatial4j.core.shape.Shape;
 import com.spatial4j.core.shape.impl.PointImpl;
 import org.junit.Test;
 
+import java.io.StringReader;
 import java.text.ParseException;
 
 public class WktCustomShapeParserTest extends WktShapeParserTest {
@@ -74,6 +75,38 @@ public class WktCustomShapeParserTest extends WktShapeParserTest {
     assertEquals("OUTER(INNER(3".length(), state.offset);
   }
 
+  @Test
+  public void testSetOffset() throws ParseException {
+    //forward, on a new State
+    WktShapeParser.State state = ctx.getWktShapeParser().newState("OUTER(INNER(1 2))");
+    state.offset = "OUTER(".length();
+    assertEquals("INNER", state.nextWord());
+
+    //back, on a String longer than a Readable's window
+    StringBuilder text = new StringBuilder("FIRST ");
+    while (text.length() <= 2 * WktShapeParser.State.WINDOW_SIZE) {
+      text.append("1 ");
+    }
+    text.append("LAST");
+    state = ctx.getWktShapeParser().newState(text.toString());
+    state.offset = text.length() - "LAST".length();
+    assertEquals("LAST", state.nextWord());
+    state.offset = 0;
+    assertEquals("FIRST", state.nextWord());
+
+    //a Readable: forward beyond what was read, but not back to what was discarded
+    state = ctx.getWktShapeParser().newState(new StringReader(text.toString()));
+    state.offset = text.length() - "LAST".length();
+    assertEquals("LAST", state.nextWord());
+    state.offset = 0;
+    try {
+      state.nextWord();
+      fail();
+    } catch (IllegalStateException e) {
+      //expected
+    }
+  }
+
   public static class MyWKTShapeParser extends WktShapeParser {
     public MyWKTShapeParser(SpatialContext ctx, SpatialContextFactory factory) {
       super(ctx, factory);
@@ -25,8 +25,10 @@ import com.spatial4j.core.shape.Shape;
 import org.junit.Test;
 
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 public class WktShapeParserTest extends RandomizedTest {
 
@@ -99,6 +101,40 @@ public class WktShapeParserTest extends RandomizedTest {
     assertFails("POINT ZM EMPTY 1");
   }
 
+  @Test
+  public void testParseDouble() throws ParseException {
+    String[] fixed = {"0", "-0", "+0", "-0.0", "0e-400", "5", ".5", "5.", "-.5e-3", "1e22", "1e23",
+        "123456789012345678", "1234567890123456789", "9007199254740993", "0.1", "-179.9999999",
+        "8.04e1", "1E2", "1e+2", "00012.500", "1.7976931348623157e308", "4.9e-324", "1e-400"};
+    for (String str : fixed) {
+      assertParsesDouble(str);
+    }
+    for (int i = 0; i < 1000; i++) {
+      double v = randomBoolean() ? randomDouble() * 360 - 180 : Double.longBitsToDouble(randomLong());
+      if (Double.isNaN(v) || Double.isInfinite(v))
+        continue;
+      assertParsesDouble(Double.toString(v));
+      assertParsesDouble(String.format(java.util.Locale.ROOT, "%." + randomInt(17) + "f", v));
+      assertParsesDouble(String.format(java.util.Locale.ROOT, "%." + randomInt(17) + "e", v));
+    }
+    for (String str : new String[]{"-", "+", ".", "-.", "e5", "1e", "1e+", "1.2.3", "1-2", "--1"}) {
+      assertTrue(str, Double.isNaN(WktShapeParser.parseSimpleDouble(str, 0, str.length())));
+      try {
+        ctx.getWktShapeParser().new State(str).nextDouble();
+        fail("ParseException expected for " + str);
+      } catch (ParseException e) {//expected
+      }
+    }
+  }
+
+  private void assertParsesDouble(String str) throws ParseException {
+    double expected = Double.parseDouble(str);
+    WktShapeParser.State state = ctx.getWktShapeParser().new State(" " + str + " ");
+    state.nextIfWhitespace();//so the number isn't at 0
+    double actual = state.nextDouble();
+    assertEquals(str, Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+  }
+
   @Test
   public void testParseMultiPoint() throws ParseException {
     Shape s1 = ctx.makeCollection(Collections.singletonList(ctx.makePoint(10, 40)));
@@ -130,6 +166,15 @@ public class WktShapeParserTest extends RandomizedTest {
     assertParses("LINESTRING (1 10, 2 20, 3 30)", ls);
 
     assertParses("LINESTRING EMPTY", ctx.makeLineString(Collections.<Point>emptyList()));
+
+    //much longer than the window of chars the string is parsed through
+    List<Point> points = new ArrayList<Point>();
+    StringBuilder wkt = new StringBuilder("LINESTRING (");
+    for (int i = 0; i < 5000; i++) {
+      points.add(ctx.makePoint(i % 180 + 0.125, i % 90));
+      wkt.append(i == 0 ? "" : ", ").append(i % 180 + 0.125).append(' ').append(i % 90);
+    }
+    assertParses(wkt.append(")").toString(), ctx.makeLineString(points));
   }
 
   @Test
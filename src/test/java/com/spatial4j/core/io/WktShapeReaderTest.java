@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.io;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.spatial4j.core.context.jts.JtsSpatialContext;
+import com.spatial4j.core.shape.Shape;
+import org.junit.Test;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class WktShapeReaderTest extends RandomizedTest {
+
+  final JtsSpatialContext ctx = JtsSpatialContext.GEO;//for polygons
+
+  @Test
+  public void testLines() throws Exception {
+    List<String> wkts = randomWkts();
+    StringBuilder text = new StringBuilder();
+    for (String wkt : wkts) {
+      text.append(wkt).append(randomBoolean() ? "\n" : "\r\n\n  ");
+    }
+    assertShapes(wkts, new WktShapeReader(ctx.getWktShapeParser(), new TrickleReader(text.toString())));
+    assertShapes(wkts, new WktShapeReader(ctx.getWktShapeParser(), CharBuffer.wrap(text)));
+  }
+
+  @Test
+  public void testGeometryCollection() throws Exception {
+    List<String> wkts = randomWkts();
+    StringBuilder text = new StringBuilder(" GEOMETRYCOLLECTION (");
+    for (int i = 0; i < wkts.size(); i++) {
+      text.append(i == 0 ? "" : ",\n").append(wkts.get(i));
+    }
+    text.append(")\n");
+    assertShapes(wkts, WktShapeReader.flattening(ctx.getWktShapeParser(), new TrickleReader(text.toString())));
+
+    assertShapes(new ArrayList<String>(),
+        WktShapeReader.flattening(ctx.getWktShapeParser(), new StringReader("GEOMETRYCOLLECTION EMPTY")));
+    assertShapes(new ArrayList<String>(),
+        WktShapeReader.flattening(ctx.getWktShapeParser(), new StringReader(" \n ")));
+  }
+
+  @Test
+  public void testGeometryCollectionLines() throws Exception {
+    //by default a collection is a shape like any other, even the first
+    List<String> wkts = new ArrayList<String>();
+    wkts.add("GEOMETRYCOLLECTION(POINT(1 2))");
+    wkts.add("POINT(3 4)");
+    wkts.add("GEOMETRYCOLLECTION(POINT(5 6), POINT(7 8))");
+    assertShapes(wkts, new WktShapeReader(ctx.getWktShapeParser(),
+        new TrickleReader(wkts.get(0) + "\n" + wkts.get(1) + "\n" + wkts.get(2) + "\n")));
+  }
+
+  @Test
+  public void testErrors() throws Exception {
+    WktShapeReader reader = new WktShapeReader(ctx.getWktShapeParser(),
+        new StringReader("POINT(1 2)\nPOINT(1 2 \nPOINT(3 4)"));
+    assertEquals(ctx.makePoint(1, 2), reader.next());
+    try {
+      reader.next();
+      fail();
+    } catch (ParseException e) {
+      assertEquals("POINT(1 2)\nPOINT(1 2 \n".length(), e.getErrorOffset());
+    }
+
+    reader = WktShapeReader.flattening(ctx.getWktShapeParser(),
+        new StringReader("GEOMETRYCOLLECTION(POINT(1 2)) POINT(3 4)"));
+    assertEquals(ctx.makePoint(1, 2), reader.next());
+    try {
+      reader.next();
+      fail();
+    } catch (ParseException e) {
+      //expected
+    }
+
+    reader = WktShapeReader.flattening(ctx.getWktShapeParser(), new StringReader("POINT(1 2)"));
+    try {
+      reader.next();
+      fail();
+    } catch (ParseException e) {
+      //expected
+    }
+
+    final IOException ioe = new IOException("test");
+    reader = new WktShapeReader(ctx.getWktShapeParser(), new TrickleReader("POINT(1 2) POINT(3 4)") {
+      @Override
+      public int read(char[] cbuf, int off, int len) throws IOException {
+        if (readSoFar > 12)
+          throw ioe;
+        return super.read(cbuf, off, len);
+      }
+    });
+    assertEquals(ctx.makePoint(1, 2), reader.next());
+    try {
+      reader.next();
+      fail();
+    } catch (IOException e) {
+      assertSame(ioe, e);
+    }
+  }
+
+  @Test
+  public void testNextSubShapeString() throws Exception {
+    //longer than the initial window
+    StringBuilder wkt = new StringBuilder("LINESTRING(");
+    for (int i = 0; i < 2000; i++) {
+      wkt.append(i == 0 ? "" : ", ").append(i % 180).append(' ').append(i % 90);
+    }
+    wkt.append(")");
+    WktShapeParser.State state = ctx.getWktShapeParser().newState(new TrickleReader(wkt + ", 5"));
+    assertEquals(wkt.toString(), state.nextSubShapeString());
+    assertTrue(state.nextIf(','));
+    assertEquals(5, state.nextDouble(), 0);
+    assertTrue(state.eof());
+  }
+
+  private List<String> randomWkts() {
+    List<String> wkts = new ArrayList<String>();
+    for (int i = randomIntBetween(0, 50); i > 0; i--) {
+      int x = randomIntBetween(-170, 170);
+      int y = randomIntBetween(-80, 80);
+      switch (randomInt(4)) {
+        case 0: wkts.add("POINT(" + x + "." + randomInt(99) + " " + y + ")"); break;
+        case 1: wkts.add("ENVELOPE(" + x + ", " + (x + 5) + ", " + (y + 5) + ", " + y + ")"); break;
+        case 2: wkts.add("LINESTRING(" + x + " " + y + ", " + (x + 1) + " " + (y + 1) + ")"); break;
+        case 3: wkts.add("BUFFER(POINT(" + x + " " + y + "), " + randomIntBetween(1, 5) + ")"); break;
+        case 4: {
+          StringBuilder poly = new StringBuilder("POLYGON((");
+          int n = randomIntBetween(3, 500);
+          for (int p = 0; p < n; p++) {
+            double angle = -2 * Math.PI * p / n;//clockwise, like GeometricShapeFactory
+            poly.append(x + Math.cos(angle)).append(' ').append(y + Math.sin(angle)).append(", ");
+          }
+          poly.append(x + 1.0).append(' ').append(y + 0.0).append("))");
+          wkts.add(poly.toString());
+          break;
+        }
+      }
+    }
+    return wkts;
+  }
+
+  private void assertShapes(List<String> expectedWkts, WktShapeReader reader) throws Exception {
+    try {
+      for (String wkt : expectedWkts) {
+        Shape expected = ctx.readShapeFromWkt(wkt);
+        assertEquals(expected, reader.next());
+      }
+      assertNull(reader.next());
+      assertNull(reader.next());
+    } finally {
+      reader.close();
+    }
+  }
+
+  /** Returns few chars per read. */
+  class TrickleReader extends FilterReader {
+    int readSoFar;
+
+    TrickleReader(String text) {
+      super(new StringReader(text));
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      int read = super.read(cbuf, off, Math.min(len, randomIntBetween(1, 100)));
+      if (read > 0)
+        readSoFar += read;
+      return read;
+    }
+  }
+}
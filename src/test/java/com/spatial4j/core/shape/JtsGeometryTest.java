@@ -23,11 +23,17 @@ import com.spatial4j.core.context.jts.JtsSpatialContext;
 import com.spatial4j.core.context.jts.JtsSpatialContextFactory;
 import com.spatial4j.core.io.jts.JtsWktShapeParser;
 import com.spatial4j.core.shape.impl.PointImpl;
+import com.spatial4j.core.shape.jts.GridPointInAreaLocator;
 import com.spatial4j.core.shape.jts.JtsGeometry;
+import com.vividsolutions.jts.algorithm.PointLocator;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.CoordinateFilter;
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.IntersectionMatrix;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Polygon;
 import org.junit.Test;
 
 import java.io.BufferedReader;
@@ -35,11 +41,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.spatial4j.core.shape.SpatialRelation.CONTAINS;
 import static com.spatial4j.core.shape.SpatialRelation.DISJOINT;
 import static com.spatial4j.core.shape.SpatialRelation.INTERSECTS;
+import static com.spatial4j.core.shape.SpatialRelation.WITHIN;
 
 /** Tests {@link com.spatial4j.core.shape.jts.JtsGeometry} and some other code related
  * to {@link com.spatial4j.core.context.jts.JtsSpatialContext}.
@@ -112,6 +122,188 @@ public class JtsGeometryTest extends AbstractTestShapes {
     assertRelation(CONTAINS, lineB, pointB);
   }
 
+  @Test
+  public void testAutoIndex() throws Exception {
+    final JtsSpatialContext ctx = new JtsSpatialContextFactory() {{
+      autoIndexThreshold = 3;
+    }}.newSpatialContext();
+    JtsGeometry base = (JtsGeometry) ctx.readShapeFromWkt("POLYGON((0 0, 10 0, 5 5, 0 0))");
+    assertEquals(CONTAINS, base.relate(ctx.makePoint(5, 1)));
+    assertEquals(DISJOINT, base.relate(ctx.makePoint(9, 4)));//in the bbox
+    assertTrue(!base.isIndexed());
+    assertEquals(INTERSECTS, base.relate(ctx.readShapeFromWkt("POLYGON((10 0, 20 0, 15 5, 10 0))")));
+    assertTrue(base.isIndexed());
+    assertEquals(CONTAINS, base.relate(ctx.makePoint(5, 1)));
+
+    //rectangles count too, though they don't need JTS while not indexed
+    JtsGeometry rectBase = (JtsGeometry) ctx.readShapeFromWkt("POLYGON((0 0, 10 0, 5 5, 0 0))");
+    assertEquals(INTERSECTS, rectBase.relate(ctx.makeRectangle(4, 6, 1, 6)));
+    assertEquals(CONTAINS, rectBase.relate(ctx.makeRectangle(4, 6, 1, 2)));
+    assertTrue(!rectBase.isIndexed());
+    assertEquals(DISJOINT, rectBase.relate(ctx.makeRectangle(8, 9, 4, 5)));//in the bbox
+    assertTrue(rectBase.isIndexed());
+    assertEquals(CONTAINS, rectBase.relate(ctx.makeRectangle(4, 6, 1, 2)));
+
+    //threads racing to index a shape get the same answers as without it
+    final JtsGeometry shape = (JtsGeometry) ctx.readShapeFromWkt(POLY_STR);
+    final Point[] points = new Point[200];
+    final SpatialRelation[] expected = new SpatialRelation[points.length];
+    for (int i = 0; i < points.length; i++) {
+      points[i] = ctx.makePoint(randomIntBetween(-180, 180), randomIntBetween(-90, 90));
+      expected[i] = POLY_SHAPE.relate(points[i]);
+    }
+    assertTrue(!POLY_SHAPE.isIndexed());
+    final AtomicInteger mismatches = new AtomicInteger();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < points.length; i++) {
+            if (shape.relate(points[i]) != expected[i])
+              mismatches.incrementAndGet();
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, mismatches.get());
+    assertTrue(shape.isIndexed());
+  }
+
+  @Test
+  public void testRelateCircle() throws ParseException {
+    //a long thin polygon (not quite a rectangle); circles much smaller than its edges
+    JtsGeometry poly = (JtsGeometry) ctx.readShapeFromWkt("POLYGON((0 0, 40 0, 40 2, 0 2, -0.1 1, 0 0))");
+    assertEquals(CONTAINS, poly.relate(ctx.makeCircle(20, 1, 0.5)));
+    assertEquals(INTERSECTS, poly.relate(ctx.makeCircle(20, 2.2, 0.5)));//center outside, crosses an edge
+    assertEquals(INTERSECTS, poly.relate(ctx.makeCircle(20, 1.8, 0.5)));//center inside, crosses an edge
+    assertEquals(DISJOINT, poly.relate(ctx.makeCircle(20, 3, 0.5)));
+    assertEquals(INTERSECTS, poly.relate(ctx.makeCircle(0, 1, 0.5)));//a vertex is outside
+    assertEquals(WITHIN, poly.relate(ctx.makeCircle(20, 1, 30)));
+    //in a hole
+    JtsGeometry holed = (JtsGeometry) ctx.readShapeFromWkt(
+        "POLYGON((0 0, 40 0, 40 40, 0 40, 0 0), (10 10, 10 30, 30 30, 30 10, 10 10))");
+    assertEquals(DISJOINT, holed.relate(ctx.makeCircle(20, 20, 2)));
+    assertEquals(INTERSECTS, holed.relate(ctx.makeCircle(20, 9.5, 2)));
+    //a line
+    JtsGeometry line = (JtsGeometry) ctx.readShapeFromWkt("LINESTRING(0 0, 40 0)");
+    assertEquals(INTERSECTS, line.relate(ctx.makeCircle(20, 0.5, 1)));
+    assertEquals(DISJOINT, line.relate(ctx.makeCircle(20, 1.5, 1)));
+    if (ctx.isGeo()) {
+      //crossing the dateline
+      JtsGeometry dl = (JtsGeometry) ctx.readShapeFromWkt("POLYGON((170 0, -170 0, -170 10, 170 10, 169.9 5, 170 0))");
+      assertEquals(INTERSECTS, dl.relate(ctx.makeCircle(180, -0.5, 1)));
+      assertEquals(INTERSECTS, dl.relate(ctx.makeCircle(-179, 10.5, 1)));
+      assertEquals(CONTAINS, dl.relate(ctx.makeCircle(-179, 5, 1)));
+      assertEquals(DISJOINT, dl.relate(ctx.makeCircle(179, -1.5, 1)));
+      //a real edge on the dateline
+      JtsGeometry east = (JtsGeometry) ctx.readShapeFromWkt("POLYGON((170 0, 180 0, 180 10, 170 10, 169.9 5, 170 0))");
+      assertEquals(INTERSECTS, east.relate(ctx.makeCircle(179.5, 5, 1)));
+      assertEquals(CONTAINS, east.relate(ctx.makeCircle(178.5, 5, 1)));
+    }
+  }
+
+  @Test
+  public void testRelateRectangleVersusJts() throws ParseException {
+    //rectangles with integer coordinates often share edges & vertices with them
+    JtsGeometry[] geoms = integerPolygons();
+    JtsSpatialContext jtsCtx = (JtsSpatialContext) ctx;
+    for (int i = 0; i < 2000; i++) {
+      JtsGeometry geom = geoms[randomInt(geoms.length - 1)];
+      int minX = randomIntBetween(-12, 12);
+      int minY = randomIntBetween(-12, 12);
+      Rectangle rect = ctx.makeRectangle(minX, minX + randomIntBetween(1, 20), minY, minY + randomIntBetween(1, 20));
+      SpatialRelation expected = JtsGeometry.intersectionMatrixToSpatialRelation(
+          geom.getGeom().relate(jtsCtx.getGeometryFrom(rect)));
+      assertEquals(geom + " vs " + rect, expected, geom.relate(rect));
+    }
+  }
+
+  /**
+   * A polygon, one with a hole, and a MultiPolygon, all with integer coordinates so that
+   * rectangles, points and grid cells often fall on their edges &amp; vertices.
+   */
+  private JtsGeometry[] integerPolygons() throws ParseException {
+    JtsSpatialContext jtsCtx = (JtsSpatialContext) ctx;
+    return new JtsGeometry[]{
+        (JtsGeometry) ctx.readShapeFromWkt("POLYGON((0 0, 10 0, 10 10, 5 4, 0 10, 0 0))"),
+        (JtsGeometry) ctx.readShapeFromWkt(
+            "POLYGON((-10 -10, 10 -10, 10 10, -10 10, -9 0, -10 -10), (-5 -5, -5 5, 5 5, 5 -5, -5 -5))"),
+        jtsCtx.makeShape(jtsCtx.getGeometryFactory().createMultiPolygon(new Polygon[]{
+            (Polygon) ((JtsGeometry) ctx.readShapeFromWkt("POLYGON((-10 0, -2 0, -2 8, -10 0))")).getGeom(),
+            (Polygon) ((JtsGeometry) ctx.readShapeFromWkt("POLYGON((2 0, 10 0, 10 8, 2 9, 2 0))")).getGeom()})),
+    };
+  }
+
+  @Test
+  public void testGridPointInAreaLocator() throws ParseException {
+    JtsSpatialContext jtsCtx = (JtsSpatialContext) ctx;
+    List<Geometry> geoms = new ArrayList<Geometry>();
+    for (JtsGeometry jtsGeometry : integerPolygons()) {
+      geoms.add(jtsGeometry.getGeom());
+    }
+    geoms.add(randomStarPolygon(jtsCtx, randomIntBetween(3, 2000)));
+    PointLocator pointLocator = new PointLocator();
+    for (Geometry geom : geoms) {
+      GridPointInAreaLocator locator = new GridPointInAreaLocator(geom, randomIntBetween(0, 500));
+      Envelope env = geom.getEnvelopeInternal();
+      for (int i = 0; i < 2000; i++) {
+        Coordinate p;
+        switch (randomInt(3)) {
+          case 0:
+            p = new Coordinate(randomIntBetween(-12, 12), randomIntBetween(-12, 12));
+            break;
+          case 1:
+            p = new Coordinate(randomIntBetween(-24, 24) / 2.0, randomIntBetween(-24, 24) / 2.0);
+            break;
+          case 2:
+            p = new Coordinate(geom.getCoordinates()[randomInt(geom.getNumPoints() - 1)]);
+            break;
+          default:
+            p = new Coordinate(env.getMinX() + randomDouble() * env.getWidth(),
+                env.getMinY() + randomDouble() * env.getHeight());
+        }
+        assertEquals(locator + " " + p, pointLocator.locate(p, geom), locator.locate(p));
+      }
+    }
+
+    JtsGeometry shape = jtsCtx.makeShape(geoms.get(3));
+    Point[] points = new Point[100];
+    SpatialRelation[] expected = new SpatialRelation[points.length];
+    for (int i = 0; i < points.length; i++) {
+      points[i] = randomPointIn(shape.getBoundingBox());
+      expected[i] = shape.relate(points[i]);
+    }
+    shape.indexPointLocation();
+    assertTrue(shape.isPointLocationIndexed());
+    for (int i = 0; i < points.length; i++) {
+      assertEquals(expected[i], shape.relate(points[i]));
+    }
+    JtsGeometry line = (JtsGeometry) ctx.readShapeFromWkt("LINESTRING(0 0, 10 10)");
+    line.indexPointLocation();
+    assertTrue(!line.isPointLocationIndexed());
+  }
+
+  /** A polygon with a hole whose vertices are at random distances around a center. */
+  private Polygon randomStarPolygon(JtsSpatialContext ctx, int numVertices) {
+    GeometryFactory gf = ctx.getGeometryFactory();
+    Coordinate[] shell = new Coordinate[numVertices + 1];
+    Coordinate[] hole = new Coordinate[numVertices + 1];
+    for (int i = 0; i < numVertices; i++) {
+      double angle = 2 * Math.PI * i / numVertices;
+      double radius = 5 + randomDouble() * 5;
+      shell[i] = new Coordinate(radius * Math.cos(angle), radius * Math.sin(angle));
+      hole[numVertices - i] = new Coordinate(Math.cos(angle), Math.sin(angle));
+    }
+    shell[numVertices] = shell[0];
+    hole[0] = hole[numVertices];
+    return gf.createPolygon(gf.createLinearRing(shell), new LinearRing[]{gf.createLinearRing(hole)});
+  }
+
   @Test
   public void testEmpty() throws ParseException {
     Shape emptyGeom = ctx.readShapeFromWkt("POLYGON EMPTY");
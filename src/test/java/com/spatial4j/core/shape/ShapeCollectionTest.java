@@ -20,8 +20,10 @@ package com.spatial4j.core.shape;
 import com.spatial4j.core.TestLog;
 import com.spatial4j.core.context.SpatialContext;
 import com.spatial4j.core.context.SpatialContextFactory;
+import com.spatial4j.core.distance.DistanceUtils;
 import com.spatial4j.core.shape.impl.Range;
 import com.spatial4j.core.shape.impl.RectangleImpl;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
 import org.junit.Rule;
 import org.junit.Test;
 
@@ -71,6 +73,54 @@ public class ShapeCollectionTest extends RandomizedShapeTest {
     new ShapeCollectionRectIntersectionTestHelper(ctx).testRelateWithRectangle();
   }
 
+  @Test
+  @Repeat(iterations = 20)
+  public void testIndexedRelate() {
+    ctx = randomBoolean() ? SpatialContext.GEO : new SpatialContextFactory()
+      {{geo = false; worldBounds = new RectangleImpl(-100, 100, -50, 50, null);}}.newSpatialContext();
+    Point nearP = randomPoint();
+    List<Rectangle> shapes = new ArrayList<Rectangle>();
+    int count = randomIntBetween(ShapeCollection.INDEX_MIN_SIZE, 3 * ShapeCollection.INDEX_MIN_SIZE);
+    for (int i = 0; i < count; i++) {
+      shapes.add(randomRectangle(randomBoolean() ? nearP : null));
+    }
+    ShapeCollection<Rectangle> indexed = new ShapeCollection<Rectangle>(shapes, ctx);
+    ShapeCollection<Rectangle> linear = new ShapeCollection<Rectangle>(shapes, ctx) {
+      @Override
+      protected boolean shouldIndex() {
+        return false;
+      }
+    };
+    for (int i = 0; i < 20; i++) {
+      Shape other = randomBoolean() ? randomPoint() : randomRectangle(randomBoolean() ? nearP : null);
+      assertEquals(other.toString(), linear.relate(other), indexed.relate(other));
+    }
+  }
+
+  @Test
+  @Repeat(iterations = 20)
+  public void testComputeMutualDisjoint() {
+    ctx = SpatialContext.GEO;
+    List<Rectangle> shapes = new ArrayList<Rectangle>();
+    int count = randomIntBetween(1, 12);
+    for (int i = 0; i < count; i++) {
+      double minX = randomIntBetween(-180, 180);
+      double maxX = DistanceUtils.normLonDEG(minX + randomIntBetween(0, 20));
+      double minY = randomIntBetween(-90, 80);
+      shapes.add(ctx.makeRectangle(minX, maxX, minY, minY + randomIntBetween(0, 10)));
+    }
+    boolean expected = true;
+    for (int i = 1; i < shapes.size() && expected; i++) {
+      for (int j = 0; j < i; j++) {
+        if (shapes.get(j).relate(shapes.get(i)).intersects()) {
+          expected = false;
+          break;
+        }
+      }
+    }
+    assertEquals(shapes.toString(), expected, ShapeCollection.computeMutualDisjoint(shapes));
+  }
+
   private class ShapeCollectionRectIntersectionTestHelper extends RectIntersectionTestHelper<ShapeCollection> {
 
     private ShapeCollectionRectIntersectionTestHelper(SpatialContext ctx) {
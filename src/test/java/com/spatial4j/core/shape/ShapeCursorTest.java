@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.spatial4j.core.shape;
+
+import com.carrotsearch.randomizedtesting.annotations.ParametersFactory;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.context.SpatialContextFactory;
+import com.spatial4j.core.distance.DistanceCalculator;
+import com.spatial4j.core.index.PointStore;
+import com.spatial4j.core.shape.impl.PointCursor;
+import com.spatial4j.core.shape.impl.RectangleCursor;
+import com.spatial4j.core.shape.impl.RectangleImpl;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+
+public class ShapeCursorTest extends RandomizedShapeTest {
+
+  @ParametersFactory
+  public static Iterable<Object[]> parameters() {
+    SpatialContext cartesian = new SpatialContextFactory()
+      {{geo = false; worldBounds = new RectangleImpl(-100, 100, -50, 50, null);}}.newSpatialContext();
+    return Arrays.asList($(SpatialContext.GEO), $(cartesian));
+  }
+
+  public ShapeCursorTest(SpatialContext ctx) {
+    super(ctx);
+  }
+
+  @Test
+  @Repeat(iterations = 10)
+  public void testPointCursor() {
+    Point[] points = new Point[randomIntBetween(1, 20)];
+    ByteBuffer bytes = ByteBuffer.allocateDirect(points.length * 16 + 8)
+        .order(randomBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    bytes.putDouble(-1);//skip a leading value, to test the cursor starts at the position
+    double[] xy = new double[points.length * 2];
+    for (int i = 0; i < points.length; i++) {
+      points[i] = randomPoint();
+      xy[i * 2] = points[i].getX();
+      xy[i * 2 + 1] = points[i].getY();
+      bytes.putDouble(8 + i * 16, points[i].getX());
+      bytes.putDouble(8 + i * 16 + 8, points[i].getY());
+    }
+    PointCursor cursor = randomBoolean() ? new PointCursor(xy, ctx) : new PointCursor(bytes, ctx);
+    assertEquals(points.length, cursor.size());
+    assertTrue(cursor.isEmpty());
+
+    Rectangle rect = randomRectangle(points[0]);
+    Circle circle = randomCircle();
+    DistanceCalculator calc = ctx.getDistCalc();
+    Point from = randomPoint();
+    int i = 0;
+    while (cursor.next()) {
+      assertEquals(i, cursor.getIndex());
+      assertEquals(points[i], cursor);
+      assertEquals(cursor, points[i]);
+      assertEquals(points[i].hashCode(), cursor.hashCode());
+      assertEquals(rect.relate(points[i]), rect.relate(cursor));
+      assertEquals(points[i].relate(rect), cursor.relate(rect));
+      assertEquals(circle.relate(points[i]), circle.relate(cursor));
+      assertEquals(points[i].relate(circle), cursor.relate(circle));
+      assertEquals(calc.distance(from, points[i]), calc.distance(from, cursor), 0);
+      assertEquals(calc.distance(points[i], from), calc.distance(cursor, from), 0);
+      i++;
+    }
+    assertEquals(points.length, i);
+    assertFalse(cursor.next());
+
+    //write-through
+    int index = randomInt(points.length - 1);
+    cursor.moveTo(index).reset(1, 2);
+    assertEquals(ctx.makePoint(1, 2), cursor);
+    try {
+      cursor.moveTo(points.length);
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      //expected
+    }
+  }
+
+  @Test
+  public void testPointCursorWriteThrough() {
+    double[] xs = {1, 2, 3};
+    double[] ys = {4, 5, 6};
+    PointCursor cursor = new PointCursor(xs, ys, ctx);
+    cursor.moveTo(1).reset(7, 8);
+    assertEquals(7, xs[1], 0);
+    assertEquals(8, ys[1], 0);
+
+    double[] xy = {1, 2, Double.NaN, Double.NaN, 5, 6};
+    cursor = new PointCursor(xy, ctx);
+    assertTrue(cursor.moveTo(1).isEmpty());
+    assertEquals(SpatialRelation.DISJOINT, cursor.relate(ctx.getWorldBounds()));
+    assertEquals(ctx.makePoint(5, 6), cursor.moveTo(2));
+
+    PointStore store = new PointStore(xs, ys, ctx);
+    cursor = store.cursor();
+    assertEquals(ctx.makePoint(3, 6), cursor.moveTo(2));
+    try {
+      cursor.reset(0, 0);
+      fail();
+    } catch (ReadOnlyBufferException e) {
+      //expected
+    }
+  }
+
+  @Test
+  @Repeat(iterations = 10)
+  public void testRectangleCursor() {
+    Rectangle[] rects = new Rectangle[randomIntBetween(1, 20)];
+    double[] coords = new double[rects.length * 4];
+    Point nearP = randomPoint();
+    for (int i = 0; i < rects.length; i++) {
+      rects[i] = randomRectangle(nearP);
+      coords[i * 4] = rects[i].getMinX();
+      coords[i * 4 + 1] = rects[i].getMaxX();
+      coords[i * 4 + 2] = rects[i].getMinY();
+      coords[i * 4 + 3] = rects[i].getMaxY();
+    }
+    RectangleCursor cursor;
+    boolean onArray = randomBoolean();
+    if (onArray) {
+      cursor = new RectangleCursor(coords, ctx);
+    } else {
+      ByteBuffer bytes = ByteBuffer.allocateDirect(coords.length * 8);
+      bytes.asDoubleBuffer().put(coords);
+      cursor = new RectangleCursor(bytes, ctx);
+    }
+    assertEquals(rects.length, cursor.size());
+    assertTrue(cursor.isEmpty());
+
+    Rectangle rect = randomRectangle(nearP);
+    Point point = randomPointIn(rect);
+    Circle circle = randomCircle();
+    int i = 0;
+    while (cursor.next()) {
+      assertEquals(rects[i], cursor);
+      assertEquals(cursor, rects[i]);
+      assertEquals(rects[i].hashCode(), cursor.hashCode());
+      assertEquals(rects[i].getWidth(), cursor.getWidth(), 0);
+      assertEquals(rects[i].getCrossesDateLine(), cursor.getCrossesDateLine());
+      assertEquals(rects[i].relate(rect), cursor.relate(rect));
+      assertEquals(rect.relate(rects[i]), rect.relate(cursor));
+      assertEquals(rects[i].relate(point), cursor.relate(point));
+      assertEquals(rects[i].relate(circle), cursor.relate(circle));
+      assertEquals(circle.relate(rects[i]), circle.relate(cursor));
+      i++;
+    }
+    assertEquals(rects.length, i);
+
+    cursor.moveTo(0).reset(1, 2, 3, 4);
+    assertEquals(ctx.makeRectangle(1, 2, 3, 4), cursor);
+    if (onArray)
+      assertEquals(2, coords[1], 0);
+  }
+
+  /** Around the middle of the world, so a cartesian one stays within it. */
+  private Circle randomCircle() {
+    Point center = ctx.makePoint(randomIntBetween(-10, 10), randomIntBetween(-10, 10));
+    return ctx.makeCircle(center, randomIntBetween(0, 40));
+  }
+
+  @Test
+  public void testRectangleCursorEmpty() {
+    double[] coords = {Double.NaN, Double.NaN, Double.NaN, Double.NaN, 1, 2, 3, 4};
+    RectangleCursor cursor = new RectangleCursor(coords, ctx);
+    assertTrue(cursor.moveTo(0).isEmpty());
+    assertEquals(SpatialRelation.DISJOINT, cursor.relate(ctx.getWorldBounds()));
+    assertEquals(ctx.makeRectangle(1, 2, 3, 4), cursor.moveTo(1));
+    assertTrue(cursor.moveTo(0).isEmpty());
+  }
+
+}